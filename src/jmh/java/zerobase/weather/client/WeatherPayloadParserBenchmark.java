@@ -0,0 +1,61 @@
+package zerobase.weather.client;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.openjdk.jmh.annotations.*;
+import zerobase.weather.dto.WeatherSnapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 json-simple tree 파싱과 token 단위 파싱 비교.
+ * 할당량은 ./gradlew jmh 실행 시 gc profiler 결과(gc.alloc.rate.norm)로 확인한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherPayloadParserBenchmark {
+    private static final String PAYLOAD = "{\"coord\":{\"lon\":126.9778,\"lat\":37.5683},"
+            + "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\",\"icon\":\"01d\"}],"
+            + "\"base\":\"stations\",\"main\":{\"temp\":27.3,\"feels_like\":29.1,\"temp_min\":26.7,"
+            + "\"temp_max\":28.8,\"pressure\":1009,\"humidity\":70},\"visibility\":10000,"
+            + "\"wind\":{\"speed\":3.6,\"deg\":250},\"clouds\":{\"all\":0},\"dt\":1693544400,"
+            + "\"sys\":{\"type\":1,\"id\":8105,\"country\":\"KR\",\"sunrise\":1693515235,\"sunset\":1693561867},"
+            + "\"timezone\":32400,\"id\":1835848,\"name\":\"Seoul\",\"cod\":200}";
+
+    private byte[] payload;
+    private WeatherPayloadParser streamingParser;
+
+    @Setup
+    public void setUp() {
+        payload = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        streamingParser = new WeatherPayloadParser();
+    }
+
+    @Benchmark
+    public Map<String, Object> jsonSimpleTree() throws Exception {
+        // 변경 전 DiaryService.getWeatherString + parseWeather 경로
+        JSONObject jsonObject = (JSONObject) new JSONParser().parse(new String(payload, StandardCharsets.UTF_8));
+
+        Map<String, Object> resultMap = new HashMap<>();
+        JSONObject mainData = (JSONObject) jsonObject.get("main");
+        resultMap.put("temp", mainData.get("temp"));
+        JSONArray weatherArray = (JSONArray) jsonObject.get("weather");
+        JSONObject weatherData = (JSONObject) weatherArray.get(0);
+        resultMap.put("main", weatherData.get("main"));
+        resultMap.put("icon", weatherData.get("icon"));
+        return resultMap;
+    }
+
+    @Benchmark
+    public WeatherSnapshot streaming() throws Exception {
+        return streamingParser.parse(payload);
+    }
+}
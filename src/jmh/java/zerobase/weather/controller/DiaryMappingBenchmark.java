@@ -0,0 +1,90 @@
+package zerobase.weather.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.CreateDiary;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryVersion;
+import zerobase.weather.service.DiaryService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * entity <-> DTO 변환 비용. 365일치(하루 1건) 기간 조회를 기준으로 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiaryMappingBenchmark {
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+
+    private Diary diary;
+    private DiaryDto diaryDto;
+    private DiaryController diaryController;
+    // 조건부 요청 헤더가 없는 요청. 항상 목록을 반환한다.
+    private WebRequest webRequest;
+
+    @Setup
+    public void setUp() {
+        diary = Diary.builder()
+                .id(1)
+                .date(START_DATE)
+                .text("오늘은 날씨가 맑았다.")
+                .weather("Clear")
+                .icon("01d")
+                .temperature(21.5)
+                .build();
+        diaryDto = DiaryDto.fromEntity(diary);
+
+        List<DiaryDto> yearOfDiaries = new ArrayList<>();
+        for (int i = 0; i < 365; i++) {
+            yearOfDiaries.add(DiaryDto.builder()
+                    .id(i + 1)
+                    .date(START_DATE.plusDays(i))
+                    .text("diary " + i)
+                    .weather("Clear")
+                    .icon("01d")
+                    .temperature(21.5)
+                    .build());
+        }
+        // 조회 결과만 돌려주는 service 로 controller 의 변환 비용만 측정
+        DiaryService stubService = new DiaryService(null, null, null, null, null, null, null, null, null) {
+            @Override
+            public List<DiaryDto> readDiaries(LocalDate startDate, LocalDate endDate, DiaryVersion version) {
+                return yearOfDiaries;
+            }
+
+            @Override
+            public DiaryVersion getDiariesVersion(LocalDate startDate, LocalDate endDate) {
+                return new DiaryVersion("diaries-" + startDate + "-" + endDate + "-1");
+            }
+        };
+        webRequest = new ServletWebRequest(new MockHttpServletRequest());
+        diaryController = new DiaryController(stubService, null, null, new ObjectMapper());
+    }
+
+    @Benchmark
+    public DiaryDto diaryDtoFromEntity() {
+        return DiaryDto.fromEntity(diary);
+    }
+
+    @Benchmark
+    public CreateDiary.CreateDiaryResponse createDiaryResponseFrom() {
+        return CreateDiary.CreateDiaryResponse.from(diaryDto);
+    }
+
+    @Benchmark
+    public Object controllerReadDiaries() {
+        return diaryController.readDiaries(START_DATE, START_DATE.plusDays(364), webRequest);
+    }
+}
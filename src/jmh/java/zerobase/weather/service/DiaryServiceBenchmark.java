@@ -0,0 +1,121 @@
+package zerobase.weather.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import zerobase.weather.WeatherApplication;
+import zerobase.weather.dto.CreateDiary;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryPage;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DiaryService 전체 경로 측정. DB 는 내장 H2(MySQL 모드), 날씨 API 는 로컬 stub 서버를 사용한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiaryServiceBenchmark {
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+    private static final String PAYLOAD = "{\"weather\":[{\"id\":800,\"main\":\"Clear\",\"icon\":\"01d\"}],"
+            + "\"main\":{\"temp\":21.5,\"humidity\":70},\"name\":\"Seoul\",\"cod\":200}";
+
+    private HttpServer weatherStub;
+    private Path dataDir;
+    private ConfigurableApplicationContext context;
+    private DiaryService diaryService;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        weatherStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        weatherStub.createContext("/data/2.5/weather", exchange -> {
+            byte[] body = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        weatherStub.start();
+
+        // 작업 디렉토리의 ./data 를 건드리지 않도록 파일은 임시 디렉토리에 두고 색인은 메모리에만 둔다.
+        dataDir = Files.createTempDirectory("diary-benchmark");
+        // command line 인자로 넘겨서 application.properties 의 MySQL 설정보다 우선 적용
+        context = new SpringApplicationBuilder(WeatherApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database=h2",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        // 측정 중에 스케줄 job 이 끼어들지 않게 한다.
+                        "--diary.scheduling.enabled=false",
+                        "--diary.search.index-dir=",
+                        "--diary.search.rebuild-if-empty=false",
+                        "--diary.ingest.dir=" + dataDir.resolve("ingest"),
+                        "--diary.export.dir=" + dataDir.resolve("export"),
+                        "--diary.import.dir=" + dataDir.resolve("import"),
+                        "--openweathermap.base-url=http://localhost:" + weatherStub.getAddress().getPort());
+        diaryService = context.getBean(DiaryService.class);
+
+        List<CreateDiary.DiaryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 365 * 3; i++) {
+            entries.add(new CreateDiary.DiaryEntry(START_DATE.plusDays(i % 365), "diary " + i));
+            if (entries.size() == 500) {
+                diaryService.createDiaries(entries);
+                entries = new ArrayList<>();
+            }
+        }
+        diaryService.createDiaries(entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        weatherStub.stop(0);
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public DiaryDto createDiary() {
+        return diaryService.createDiary(LocalDate.now(), "benchmark " + sequence.incrementAndGet());
+    }
+
+    @Benchmark
+    public List<DiaryDto> readDiary() {
+        return diaryService.readDiary(START_DATE.plusDays(100));
+    }
+
+    @Benchmark
+    public List<DiaryDto> readDiaries() {
+        return diaryService.readDiaries(START_DATE, START_DATE.plusDays(364));
+    }
+
+    @Benchmark
+    public DiaryPage readDiaryPage() {
+        return diaryService.readDiaryPage(START_DATE, START_DATE.plusDays(364), null, 100);
+    }
+
+    @Benchmark
+    public DiaryDto updateDiary() {
+        return diaryService.updateDiary(START_DATE.plusDays(200), "updated " + sequence.incrementAndGet());
+    }
+}
@@ -0,0 +1,117 @@
+package zerobase.weather.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.DateWeatherId;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * date_weather 조회 결과를 (도시, 날짜)별로 보관하는 메모리 캐시.
+ * 지난 날짜의 날씨는 한번 저장되면 바뀌지 않으므로 용량 초과로 밀려나기 전까지 유지하고,
+ * 오늘 이후 날짜는 스케줄러가 다시 쓸 수 있으므로 TTL 이 지나면 만료시킨다.
+ */
+@Component
+public class DateWeatherCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<DateWeatherId, CachedDateWeather> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public DateWeatherCache(@Value("${weather.cache.max-size:1024}") int maxSize,
+                            @Value("${weather.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000L;
+        // accessOrder = true : 가장 오래 사용되지 않은 항목부터 제거 (LRU)
+        this.entries = new LinkedHashMap<DateWeatherId, CachedDateWeather>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DateWeatherId, CachedDateWeather> eldest) {
+                if (size() > DateWeatherCache.this.maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized DateWeather get(String city, LocalDate date) {
+        DateWeatherId key = new DateWeatherId(city, date);
+        CachedDateWeather cached = entries.get(key);
+        if (cached == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (cached.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            evictionCount.incrementAndGet();
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return copyOf(cached.dateWeather);
+    }
+
+    public synchronized void put(DateWeather dateWeather) {
+        long expiresAt = dateWeather.getDate().isBefore(LocalDate.now())
+                ? Long.MAX_VALUE
+                : System.currentTimeMillis() + ttlMillis;
+        entries.put(new DateWeatherId(dateWeather.getCity(), dateWeather.getDate()), new CachedDateWeather(copyOf(dateWeather), expiresAt));
+    }
+
+    public synchronized void invalidate(String city, LocalDate date) {
+        entries.remove(new DateWeatherId(city, date));
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    // 캐시 밖에서 엔티티를 수정해도 캐시된 값이 바뀌지 않도록 복사본을 주고받는다.
+    private static DateWeather copyOf(DateWeather dateWeather) {
+        return DateWeather.builder()
+                .city(dateWeather.getCity())
+                .date(dateWeather.getDate())
+                .weather(dateWeather.getWeather())
+                .icon(dateWeather.getIcon())
+                .temperature(dateWeather.getTemperature())
+                .build();
+    }
+
+    private static class CachedDateWeather {
+        private final DateWeather dateWeather;
+        private final long expiresAt;
+
+        private CachedDateWeather(DateWeather dateWeather, long expiresAt) {
+            this.dateWeather = dateWeather;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
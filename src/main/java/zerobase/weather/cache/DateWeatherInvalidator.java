@@ -0,0 +1,177 @@
+package zerobase.weather.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.DateWeatherId;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.type.ErrorCode;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * date_weather 를 보정했을 때 hibernate 2차 캐시와 DateWeatherCache 에서 해당 날짜를 지운다.
+ * date_weather 는 JDBC 로 직접 쓰므로 hibernate 가 알아서 캐시를 비우지 못한다.
+ * 쓰는 트랜잭션 안에서 date_weather_change 에 기록을 남기고 커밋되면 자기 캐시를 비우며,
+ * 다른 인스턴스는 poll 로 그 기록을 읽어서 자기 캐시를 비운다.
+ */
+@Slf4j
+@Component
+public class DateWeatherInvalidator {
+    // 이보다 긴 기간은 날짜마다 지우지 않고 region 을 통째로 비운다.
+    private static final int MAX_EVICT_DAYS = 366;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DateWeatherCache dateWeatherCache;
+    private final long lookbackMillis;
+    // 이미 반영한 변경 id 와 기록 시각. lookback 구간을 다시 읽을 때 건너뛴다.
+    private final Map<Long, Timestamp> applied = new ConcurrentHashMap<>();
+    private volatile Timestamp lastPolledAt;
+
+    public DateWeatherInvalidator(DataSource dataSource,
+                                  EntityManagerFactory entityManagerFactory,
+                                  DateWeatherCache dateWeatherCache,
+                                  @Value("${cache.invalidation.lookback-ms:10000}") long lookbackMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.entityManagerFactory = entityManagerFactory;
+        this.dateWeatherCache = dateWeatherCache;
+        this.lookbackMillis = lookbackMillis;
+    }
+
+    /**
+     * 도시의 기간 날씨가 바뀌었다고 기록한다. 트랜잭션 안이면 커밋된 뒤에, 아니면 바로 캐시를 비운다.
+     */
+    public void recordChange(String city, LocalDate startDate, LocalDate endDate) {
+        if (city == null || city.isEmpty() || startDate.isAfter(endDate)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO date_weather_change (city, start_date, end_date, changed_at) " +
+                            "VALUES (?, ?, ?, current_timestamp(3))", Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, city);
+            ps.setDate(2, Date.valueOf(startDate));
+            ps.setDate(3, Date.valueOf(endDate));
+            return ps;
+        }, keyHolder);
+        Number id = keyHolder.getKey();
+        Runnable evict = () -> {
+            if (id != null) {
+                applied.put(id.longValue(), new Timestamp(System.currentTimeMillis()));
+            }
+            evict(city, startDate, endDate);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+
+    /**
+     * 다른 인스턴스가 남긴 변경 기록을 읽어서 캐시를 비운다.
+     * 기록 시각은 insert 할 때 정해지고 커밋은 그 뒤이므로, 마지막 poll 보다 lookback 만큼 앞에서부터 다시 읽는다.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-interval-ms:1000}")
+    public void poll() {
+        Timestamp now = jdbcTemplate.queryForObject("select current_timestamp(3)", Timestamp.class);
+        Timestamp since = lastPolledAt;
+        lastPolledAt = now;
+        if (since == null) {
+            // 기동 전의 변경은 비어 있는 캐시와 상관없다.
+            return;
+        }
+        Timestamp from = new Timestamp(since.getTime() - lookbackMillis);
+        List<Change> changes = jdbcTemplate.query(
+                "select id, city, start_date, end_date, changed_at from date_weather_change " +
+                        "where changed_at >= ? order by id",
+                (rs, rowNum) -> new Change(rs.getLong("id"), rs.getString("city"),
+                        rs.getDate("start_date").toLocalDate(), rs.getDate("end_date").toLocalDate(),
+                        rs.getTimestamp("changed_at")),
+                from);
+        int evicted = 0;
+        for (Change change : changes) {
+            if (applied.putIfAbsent(change.id, change.changedAt) != null) {
+                continue;
+            }
+            evict(change.city, change.startDate, change.endDate);
+            evicted++;
+        }
+        // lookback 구간 밖으로 나간 id 는 다시 읽히지 않으므로 잊는다.
+        Iterator<Timestamp> appliedAt = applied.values().iterator();
+        while (appliedAt.hasNext()) {
+            if (appliedAt.next().before(from)) {
+                appliedAt.remove();
+            }
+        }
+        if (evicted > 0) {
+            log.info("date_weather caches invalidated by {} remote changes", evicted);
+        }
+    }
+
+    @Scheduled(cron = "${cache.invalidation.cleanup-cron:0 40 3 * * *}")
+    public void cleanup() {
+        int deleted = jdbcTemplate.update(
+                "delete from date_weather_change where changed_at < ?",
+                new Timestamp(System.currentTimeMillis() - ChronoUnit.DAYS.getDuration().toMillis()));
+        log.info("cleaned date_weather changes : {} deleted", deleted);
+    }
+
+    private void evict(String city, LocalDate startDate, LocalDate endDate) {
+        javax.persistence.Cache entityCache = entityManagerFactory.getCache();
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_EVICT_DAYS) {
+            entityCache.evict(DateWeather.class);
+            dateWeatherCache.invalidateAll();
+        } else {
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                entityCache.evict(DateWeather.class, new DateWeatherId(city, date));
+                dateWeatherCache.invalidate(city, date);
+            }
+        }
+        // 조회 결과는 파라미터별로 저장되므로 날짜만 골라서 지울 수 없다.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(DateWeather.QUERY_CACHE_REGION);
+    }
+
+    private static class Change {
+        private final long id;
+        private final String city;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final Timestamp changedAt;
+
+        private Change(long id, String city, LocalDate startDate, LocalDate endDate, Timestamp changedAt) {
+            this.id = id;
+            this.city = city;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.changedAt = changedAt;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package zerobase.weather.client;
+
+import zerobase.weather.dto.WeatherSnapshot;
+
+import java.time.LocalDate;
+
+/**
+ * 지난 날짜의 날씨를 제공하는 곳. 날씨 보정 작업이 사용한다.
+ */
+public interface HistoricalWeatherProvider {
+    /**
+     * 해당 도시, 날짜의 날씨. 가져오지 못하면 DiaryException 을 던진다.
+     */
+    WeatherSnapshot getWeather(String city, LocalDate date);
+}
@@ -0,0 +1,26 @@
+package zerobase.weather.client;
+
+import org.springframework.stereotype.Component;
+import zerobase.weather.dto.WeatherSnapshot;
+
+import java.time.LocalDate;
+
+/**
+ * OpenWeatherMap history API 로 지난 날씨를 가져온다.
+ * 연결 pool, timeout, rate limit 은 WeatherApiClient 의 것을 그대로 사용한다.
+ */
+@Component
+public class OpenWeatherMapHistoryProvider implements HistoricalWeatherProvider {
+    private final WeatherApiClient weatherApiClient;
+    private final WeatherPayloadParser weatherPayloadParser;
+
+    public OpenWeatherMapHistoryProvider(WeatherApiClient weatherApiClient, WeatherPayloadParser weatherPayloadParser) {
+        this.weatherApiClient = weatherApiClient;
+        this.weatherPayloadParser = weatherPayloadParser;
+    }
+
+    @Override
+    public WeatherSnapshot getWeather(String city, LocalDate date) {
+        return weatherApiClient.getHistoricalWeather(city, date, weatherPayloadParser::parseHistory);
+    }
+}
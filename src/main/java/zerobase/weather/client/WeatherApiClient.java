@@ -0,0 +1,279 @@
+package zerobase.weather.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.support.CircuitBreaker;
+import zerobase.weather.support.RateLimiter;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.*;
+
+/**
+ * OpenWeatherMap 호출 전용 HTTP client.
+ * keep-alive 연결을 pool 로 재사용하고, 연결/읽기 timeout 과 요청 전체 timeout 을 건다.
+ */
+@Slf4j
+@Component
+public class WeatherApiClient implements DisposableBean {
+    private final String baseUrl;
+    private final String historyBaseUrl;
+    private final String apiKey;
+    private final long totalTimeoutMillis;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ThreadPoolExecutor asyncExecutor;
+    private final ScheduledExecutorService timeoutScheduler;
+    // 현재 날씨(api)와 기록 조회(history)는 host 마다 요금제의 호출 한도가 달라서 rate limiter 를 따로 둔다.
+    private final RateLimiter currentRateLimiter;
+    private final RateLimiter historyRateLimiter;
+    // provider 장애 중에는 timeout 까지 기다리지 않고 바로 실패시킨다.
+    // 현재 날씨와 기록 조회는 host 와 요금제가 달라 따로 장애가 나므로 circuit 도 따로 둔다.
+    private final CircuitBreaker currentCircuitBreaker;
+    private final CircuitBreaker historyCircuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Counter timeoutCounter;
+    private final Counter currentRejectedCounter;
+    private final Counter historyRejectedCounter;
+
+    public WeatherApiClient(@Value("${openweathermap.base-url:https://api.openweathermap.org}") String baseUrl,
+                            @Value("${openweathermap.history-base-url:https://history.openweathermap.org}") String historyBaseUrl,
+                            @Value("${openweathermap.key}") String apiKey,
+                            @Value("${openweathermap.client.connect-timeout-ms:2000}") int connectTimeoutMillis,
+                            @Value("${openweathermap.client.read-timeout-ms:3000}") int readTimeoutMillis,
+                            @Value("${openweathermap.client.total-timeout-ms:5000}") long totalTimeoutMillis,
+                            @Value("${openweathermap.client.max-connections:20}") int maxConnections,
+                            @Value("${openweathermap.client.async-threads:8}") int asyncThreads,
+                            @Value("${openweathermap.client.async-queue-capacity:256}") int asyncQueueCapacity,
+                            @Value("${openweathermap.client.requests-per-second:50}") double requestsPerSecond,
+                            @Value("${openweathermap.client.history-requests-per-second:50}") double historyRequestsPerSecond,
+                            @Value("${openweathermap.client.circuit.failure-threshold:5}") int circuitFailureThreshold,
+                            @Value("${openweathermap.client.circuit.open-ms:30000}") long circuitOpenMillis,
+                            MeterRegistry meterRegistry) {
+        this.baseUrl = baseUrl;
+        this.historyBaseUrl = historyBaseUrl;
+        this.apiKey = apiKey;
+        this.totalTimeoutMillis = totalTimeoutMillis;
+
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setConnectionRequestTimeout(connectTimeoutMillis) // pool 에서 연결을 기다리는 시간
+                .setSocketTimeout(readTimeoutMillis)
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+
+        this.asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(asyncQueueCapacity), new CustomizableThreadFactory("weather-api-"));
+        CustomizableThreadFactory timeoutThreadFactory = new CustomizableThreadFactory("weather-api-timeout-");
+        timeoutThreadFactory.setDaemon(true);
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(timeoutThreadFactory);
+        this.currentRateLimiter = new RateLimiter(requestsPerSecond);
+        this.historyRateLimiter = new RateLimiter(historyRequestsPerSecond);
+        this.currentCircuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMillis);
+        this.historyCircuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMillis);
+
+        this.meterRegistry = meterRegistry;
+        this.timeoutCounter = Counter.builder("weather.api.timeouts")
+                .description("OpenWeatherMap 요청 timeout 횟수")
+                .register(meterRegistry);
+        this.currentRejectedCounter = Counter.builder("weather.api.circuit.rejected")
+                .description("circuit 이 열려 있어서 바로 실패시킨 요청 수")
+                .tag("endpoint", "current")
+                .register(meterRegistry);
+        this.historyRejectedCounter = Counter.builder("weather.api.circuit.rejected")
+                .description("circuit 이 열려 있어서 바로 실패시킨 요청 수")
+                .tag("endpoint", "history")
+                .register(meterRegistry);
+        Gauge.builder("weather.api.circuit.state", currentCircuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 : CLOSED, 1 : OPEN, 2 : HALF_OPEN").tag("endpoint", "current").register(meterRegistry);
+        Gauge.builder("weather.api.circuit.state", historyCircuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 : CLOSED, 1 : OPEN, 2 : HALF_OPEN").tag("endpoint", "history").register(meterRegistry);
+        Gauge.builder("weather.api.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("사용 중인 연결 수").register(meterRegistry);
+        Gauge.builder("weather.api.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("재사용 대기 중인 keep-alive 연결 수").register(meterRegistry);
+        Gauge.builder("weather.api.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("연결을 기다리는 요청 수").register(meterRegistry);
+        Gauge.builder("weather.api.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .register(meterRegistry);
+        Gauge.builder("weather.api.async.queue", asyncExecutor, executor -> executor.getQueue().size())
+                .description("비동기 요청 대기열 크기").register(meterRegistry);
+    }
+
+    /**
+     * 응답 body 를 읽는 함수. body stream 은 client 가 닫는다.
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    /**
+     * 현재 날씨를 호출한 thread 에서 바로 가져온다.
+     */
+    public <T> T getCurrentWeather(String city, BodyReader<T> reader) {
+        return execute(currentWeatherUri(city), reader, currentRateLimiter, currentCircuitBreaker,
+                currentRejectedCounter);
+    }
+
+    /**
+     * 현재 날씨를 별도 thread pool 에서 가져온다. 호출한 thread 는 socket I/O 를 기다리지 않는다.
+     */
+    public <T> CompletableFuture<T> getCurrentWeatherAsync(String city, BodyReader<T> reader) {
+        URI uri = currentWeatherUri(city);
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> execute(uri, reader, currentRateLimiter, currentCircuitBreaker, currentRejectedCounter),
+                    asyncExecutor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new DiaryException(ErrorCode.WEATHER_API_ERROR,
+                    "날씨 API 요청 대기열이 가득 찼습니다."));
+            return rejected;
+        }
+    }
+
+    /**
+     * 지난 날짜의 정오(UTC)부터 한 시간 동안의 날씨 기록을 가져온다.
+     */
+    public <T> T getHistoricalWeather(String city, LocalDate date, BodyReader<T> reader) {
+        return execute(historyUri(city, date), reader, historyRateLimiter, historyCircuitBreaker,
+                historyRejectedCounter);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return currentCircuitBreaker.getState();
+    }
+
+    public CircuitBreaker.State getHistoryCircuitState() {
+        return historyCircuitBreaker.getState();
+    }
+
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    private URI currentWeatherUri(String city) {
+        return UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .path("/data/2.5/weather")
+                .queryParam("q", city)
+                .queryParam("appid", apiKey)
+                .queryParam("units", "metric")
+                .encode()
+                .build()
+                .toUri();
+    }
+
+    private URI historyUri(String city, LocalDate date) {
+        return UriComponentsBuilder.fromHttpUrl(historyBaseUrl)
+                .path("/data/2.5/history/city")
+                .queryParam("q", city)
+                .queryParam("type", "hour")
+                .queryParam("start", date.atTime(LocalTime.NOON).toEpochSecond(ZoneOffset.UTC))
+                .queryParam("cnt", 1)
+                .queryParam("appid", apiKey)
+                .queryParam("units", "metric")
+                .encode()
+                .build()
+                .toUri();
+    }
+
+    private <T> T execute(URI uri, BodyReader<T> reader, RateLimiter rateLimiter,
+                          CircuitBreaker circuitBreaker, Counter rejectedCounter) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new DiaryException(ErrorCode.WEATHER_API_UNAVAILABLE);
+        }
+        // rate limit 으로 기다린 시간은 요청 timeout 에 포함하지 않는다.
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            circuitBreaker.release();
+            Thread.currentThread().interrupt();
+            throw new DiaryException(ErrorCode.WEATHER_API_ERROR, "날씨 API 요청 대기 중 중단되었습니다.");
+        }
+        HttpGet request = new HttpGet(uri);
+        // 연결/읽기 timeout 과 별개로 요청 전체 시간이 지나면 요청을 중단시킨다.
+        ScheduledFuture<?> abort = timeoutScheduler.schedule(request::abort, totalTimeoutMillis, TimeUnit.MILLISECONDS);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        // 연결 실패, timeout, 5xx, 429 는 provider 장애로 보고 circuit 에 실패로 기록한다.
+        boolean providerFailed = false;
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            status = String.valueOf(statusCode);
+            providerFailed = statusCode >= 500 || statusCode == 429;
+            HttpEntity entity = response.getEntity();
+            if (statusCode != 200 || entity == null) {
+                EntityUtils.consumeQuietly(entity);
+                throw new DiaryException(ErrorCode.WEATHER_API_ERROR,
+                        "날씨 API 응답 코드 : " + statusCode);
+            }
+            try (InputStream body = entity.getContent()) {
+                return reader.read(body);
+            }
+        } catch (InterruptedIOException e) {
+            status = "TIMEOUT";
+            providerFailed = true;
+            timeoutCounter.increment();
+            log.warn("weather api timeout : {}", e.toString());
+            throw new DiaryException(ErrorCode.WEATHER_API_TIMEOUT);
+        } catch (IOException e) {
+            providerFailed = true;
+            log.warn("weather api request failed : {}", e.toString());
+            throw new DiaryException(ErrorCode.WEATHER_API_ERROR);
+        } finally {
+            abort.cancel(false);
+            if (providerFailed) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            sample.stop(Timer.builder("weather.api.requests")
+                    .description("OpenWeatherMap 요청 시간")
+                    .tag("status", status)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        asyncExecutor.shutdownNow();
+        timeoutScheduler.shutdownNow();
+        httpClient.close();
+    }
+}
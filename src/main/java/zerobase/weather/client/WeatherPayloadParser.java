@@ -0,0 +1,122 @@
+package zerobase.weather.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.stereotype.Component;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * OpenWeatherMap 응답에서 main.temp, weather[0].main, weather[0].icon 만 token 단위로 읽는다.
+ * JSON tree 나 중간 String 을 만들지 않고, 세 값을 모두 찾으면 나머지는 읽지 않는다.
+ */
+@Component
+public class WeatherPayloadParser {
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public WeatherSnapshot parse(InputStream payload) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            return parse(parser);
+        }
+    }
+
+    public WeatherSnapshot parse(byte[] payload) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            return parse(parser);
+        }
+    }
+
+    /**
+     * history API 응답의 list 첫번째 기록을 읽는다.
+     */
+    public WeatherSnapshot parseHistory(InputStream payload) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw invalidPayload();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("list".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        throw invalidPayload();
+                    }
+                    return readSnapshot(parser);
+                }
+                parser.skipChildren();
+            }
+            throw invalidPayload();
+        }
+    }
+
+    private WeatherSnapshot parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw invalidPayload();
+        }
+        return readSnapshot(parser);
+    }
+
+    // START_OBJECT 다음부터 읽어서 날씨, 아이콘, 기온을 찾는다.
+    private WeatherSnapshot readSnapshot(JsonParser parser) throws IOException {
+        String weather = null;
+        String icon = null;
+        double temperature = 0;
+        boolean hasTemperature = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if ("main".equals(fieldName) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String mainField = parser.getCurrentName();
+                    JsonToken mainValue = parser.nextToken();
+                    // 정수(예: 21)로 와도 double 로 읽는다.
+                    if ("temp".equals(mainField) && mainValue.isNumeric()) {
+                        temperature = parser.getDoubleValue();
+                        hasTemperature = true;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("weather".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                JsonToken element = parser.nextToken();
+                if (element == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String weatherField = parser.getCurrentName();
+                        JsonToken weatherValue = parser.nextToken();
+                        if ("main".equals(weatherField) && weatherValue == JsonToken.VALUE_STRING) {
+                            weather = parser.getText();
+                        } else if ("icon".equals(weatherField) && weatherValue == JsonToken.VALUE_STRING) {
+                            icon = parser.getText();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    element = parser.nextToken();
+                }
+                // 첫번째 원소 이후는 건너뛴다.
+                while (element != null && element != JsonToken.END_ARRAY) {
+                    parser.skipChildren();
+                    element = parser.nextToken();
+                }
+            } else {
+                parser.skipChildren();
+            }
+
+            if (weather != null && icon != null && hasTemperature) {
+                return new WeatherSnapshot(weather, icon, temperature);
+            }
+        }
+        throw invalidPayload();
+    }
+
+    private DiaryException invalidPayload() {
+        return new DiaryException(ErrorCode.WEATHER_API_ERROR, "날씨 응답 형식이 올바르지 않습니다.");
+    }
+}
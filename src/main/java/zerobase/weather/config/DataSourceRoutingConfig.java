@@ -0,0 +1,86 @@
+package zerobase.weather.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import zerobase.weather.support.ReadWriteRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))을 replica 로 보낸다.
+ * 쓰기와 날씨 저장 job 처럼 readOnly 가 아닌 트랜잭션, flyway migration 은 항상 primary(spring.datasource.*)를 쓴다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "diary.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * replica 마다 별도 pool 을 만든다. 기동 시 replica 가 내려가 있어도 실패하지 않고 health check 에서 빠진다.
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${diary.datasource.replica-urls:}") String[] replicaUrls,
+            @Value("${diary.datasource.replica-username:${spring.datasource.username:}}") String username,
+            @Value("${diary.datasource.replica-password:${spring.datasource.password:}}") String password,
+            @Value("${diary.datasource.replica-pool-size:10}") int poolSize,
+            @Value("${diary.datasource.replica-connection-timeout-ms:1000}") long connectionTimeoutMillis,
+            @Value("${diary.datasource.replica-health-timeout-seconds:1}") int healthCheckTimeoutSeconds,
+            @Value("${diary.datasource.read-your-writes-ms:0}") long readYourWritesMillis,
+            MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.length);
+        for (int i = 0; i < replicaUrls.length; i++) {
+            String url = replicaUrls[i].trim();
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(url);
+            // 내보내기/검색 재생성의 streaming 읽기와 batch 설정을 primary URL 과 맞춘다.
+            // 모르는 연결 속성을 거부하는 드라이버(H2 등)가 있어서 MySQL 일 때만 넣는다.
+            if (url.startsWith("jdbc:mysql:")) {
+                replica.addDataSourceProperty("useCursorFetch", "true");
+                replica.addDataSourceProperty("rewriteBatchedStatements", "true");
+            }
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeoutMillis);
+            replica.setReadOnly(true);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(
+                primaryDataSource, replicas, healthCheckTimeoutSeconds, readYourWritesMillis);
+        Gauge.builder("datasource.replicas.healthy", routingDataSource,
+                        ReadWriteRoutingDataSource::getHealthyReplicaCount)
+                .description("health check 를 통과한 replica 수").register(meterRegistry);
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        // 첫 SQL 을 실행할 때 연결을 가져와서 그 시점의 트랜잭션 readOnly 속성으로 primary/replica 를 고른다.
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
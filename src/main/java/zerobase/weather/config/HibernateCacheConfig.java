@@ -0,0 +1,68 @@
+package zerobase.weather.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zerobase.weather.domain.DateWeather;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+
+/**
+ * hibernate 2차 캐시. date_weather entity 와 findAllByDate 결과를 JVM heap 에 개수 제한을 두고 보관한다.
+ * date_weather 는 JDBC 로 직접 쓰므로 쓸 때마다 DateWeatherInvalidator 가 region 을 비운다.
+ * 적중률은 hibernate 통계로 모아서 /actuator/metrics 의 hibernate.second.level.cache.*, hibernate.query.cache.* 로 노출된다.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    // hibernate 기본 region. update timestamps 는 테이블 수만큼만 쓰인다.
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${cache.date-weather.max-entries:10000}") long maxEntries,
+            @Value("${cache.date-weather.query-max-entries:1000}") long queryMaxEntries,
+            @Value("${cache.date-weather.ttl-seconds:3600}") long ttlSeconds) {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager();
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        // 다른 인스턴스의 무효화를 놓치더라도 ttl 이 지나면 DB 에서 다시 읽는다.
+        cacheManager.createCache(DateWeather.CACHE_REGION, boundedCache(maxEntries, ttl));
+        cacheManager.createCache(DateWeather.QUERY_CACHE_REGION, boundedCache(queryMaxEntries, ttl));
+        cacheManager.createCache(DEFAULT_QUERY_REGION, boundedCache(100, ttl));
+        cacheManager.createCache(TIMESTAMPS_REGION, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                        ResourcePoolsBuilder.heap(1000))));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // 위에서 만들지 않은 region 을 쓰면 크기 제한 없는 캐시가 생기지 않도록 기동을 실패시킨다.
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> boundedCache(long maxEntries, Duration ttl) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                                ResourcePoolsBuilder.heap(maxEntries))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl)));
+    }
+}
@@ -0,0 +1,50 @@
+package zerobase.weather.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.service.WeatherCollector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서비스 메서드(@Timed), 날씨 캐시, 스케줄 job 지표를 등록한다.
+ * 수집한 지표는 /actuator/prometheus 로 노출된다.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder dateWeatherCacheMetrics(DateWeatherCache dateWeatherCache) {
+        return registry -> {
+            FunctionCounter.builder("weather.cache.hits", dateWeatherCache, DateWeatherCache::getHitCount)
+                    .register(registry);
+            FunctionCounter.builder("weather.cache.misses", dateWeatherCache, DateWeatherCache::getMissCount)
+                    .register(registry);
+            FunctionCounter.builder("weather.cache.evictions", dateWeatherCache, DateWeatherCache::getEvictionCount)
+                    .register(registry);
+            Gauge.builder("weather.cache.size", dateWeatherCache, DateWeatherCache::size)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder weatherJobMetrics(WeatherCollector weatherCollector) {
+        return registry -> TimeGauge.builder("weather.job.last.duration", weatherCollector,
+                        TimeUnit.MILLISECONDS, WeatherCollector::getLastWeatherJobMillis)
+                .tag("job", "saveWeatherDate")
+                .description("마지막 날씨 저장 job 수행 시간")
+                .register(registry);
+    }
+}
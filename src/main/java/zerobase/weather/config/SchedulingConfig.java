@@ -0,0 +1,15 @@
+package zerobase.weather.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled job(날씨 수집, 색인 커밋, 내보내기 정리 등)을 켠다.
+ * benchmark 처럼 측정 중에 job 이 끼어들면 안 되는 실행은 diary.scheduling.enabled=false 로 끈다.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "diary.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
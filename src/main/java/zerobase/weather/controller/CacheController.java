@@ -0,0 +1,34 @@
+package zerobase.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zerobase.weather.cache.DateWeatherInvalidator;
+
+import java.time.LocalDate;
+
+@RestController
+public class CacheController {
+    private final DateWeatherInvalidator dateWeatherInvalidator;
+
+    public CacheController(DateWeatherInvalidator dateWeatherInvalidator) {
+        this.dateWeatherInvalidator = dateWeatherInvalidator;
+    }
+
+    @ApiOperation(value = "날씨 캐시 무효화", notes =
+                    "- DB 에서 직접 고친 날씨를 모든 서버의 캐시에서 지움\n" +
+                    "- 다른 서버에는 cache.invalidation.poll-interval-ms 안에 반영") // api 설명
+    @PostMapping("/cache/date-weather/invalidate")
+    void invalidateDateWeather(
+            @RequestParam @ApiParam(value = "도시", example = "seoul") String city,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-01") LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-30") LocalDate endDate
+    ) {
+        dateWeatherInvalidator.recordChange(city, startDate, endDate);
+    }
+}
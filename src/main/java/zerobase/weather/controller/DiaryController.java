@@ -1,5 +1,6 @@
 package zerobase.weather.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -7,83 +8,179 @@ import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import zerobase.weather.domain.Diary;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import zerobase.weather.dto.CreateDiary;
 import zerobase.weather.dto.DeleteDiary;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryPage;
+import zerobase.weather.dto.DiaryVersion;
 import zerobase.weather.dto.UpdateDiary;
 import zerobase.weather.exception.DiaryException;
+import zerobase.weather.service.AsyncDiaryWriter;
+import zerobase.weather.service.DiaryBulkDeleter;
 import zerobase.weather.service.DiaryService;
+import zerobase.weather.type.ErrorCode;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Slf4j
 @RestController // HTTP status code 를 지정해서 내려줄 수 있음.
 public class DiaryController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
     private final DiaryService diaryService;
-    public DiaryController(DiaryService diaryService) {
+    private final DiaryBulkDeleter diaryBulkDeleter;
+    private final AsyncDiaryWriter asyncDiaryWriter;
+    private final ObjectMapper objectMapper;
+    // 일기 작성 요청을 기다리는 최대 시간. 넘으면 503
+    @Value("${diary.async.create-timeout-ms:10000}")
+    private long createTimeoutMillis;
+    // false 면 일기 작성을 thread pool 에 넘기지 않고 요청 thread 에서 처리한다.
+    @Value("${diary.async.enabled:true}")
+    private boolean asyncCreate;
+    public DiaryController(DiaryService diaryService, DiaryBulkDeleter diaryBulkDeleter,
+                           AsyncDiaryWriter asyncDiaryWriter, ObjectMapper objectMapper) {
         this.diaryService = diaryService;
+        this.diaryBulkDeleter = diaryBulkDeleter;
+        this.asyncDiaryWriter = asyncDiaryWriter;
+        this.objectMapper = objectMapper;
     }
 
     @ApiOperation(value = "일기 생성", notes =
                     "- 날짜 형식(yyyy-MM-dd)으로 조회\n" +
                     "- text parameter 로 일기 글을 입력\n" +
-                    "- 외부 API 에서 받아온 날씨 데이터와 함께 DB에 저장.") // api 설명
+                    "- 외부 API 에서 받아온 날씨 데이터와 함께 DB에 저장.\n" +
+                    "- 요청 thread 를 반환하고 별도 thread pool 에서 처리, 대기열이 가득 차면 503\n" +
+                    "- 시간 안에 저장을 시작하지 못하면 503 이고 일기는 저장되지 않음\n" +
+                    "- diary.async.enabled=false 면 요청 thread 에서 바로 처리") // api 설명
     @PostMapping("/create/diary")
-    public CreateDiary.CreateDiaryResponse createDiary(
+    public DeferredResult<CreateDiary.CreateDiaryResponse> createDiary(
             @RequestParam @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-02")
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestBody CreateDiary.CreateDiaryRequest request
     ) {
-        return CreateDiary.CreateDiaryResponse.from(diaryService.createDiary(
-                date,
-                request.getText()));
+        DeferredResult<CreateDiary.CreateDiaryResponse> result = new DeferredResult<>(createTimeoutMillis);
+        if (!asyncCreate) {
+            result.setResult(CreateDiary.CreateDiaryResponse.from(diaryService.createDiary(date, request.getText())));
+            return result;
+        }
+        // 503 으로 끝난 요청의 일기가 뒤늦게 저장되면 클라이언트가 재시도할 때 중복된다.
+        AtomicBoolean expired = new AtomicBoolean();
+        result.onTimeout(() -> expired.set(true));
+        asyncDiaryWriter.createDiary(date, request.getText(), expired::get).whenComplete((diaryDto, e) -> {
+            if (e != null) {
+                result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else {
+                result.setResult(CreateDiary.CreateDiaryResponse.from(diaryDto));
+            }
+        });
+        return result;
+    }
+
+    @ApiOperation(value = "일기 여러 건 생성", notes =
+                    "- diaries 배열에 날짜(yyyy-MM-dd)와 일기 글을 함께 입력\n" +
+                    "- 날씨 데이터는 날짜별로 한번만 조회\n" +
+                    "- 한번의 요청으로 모두 저장하고 저장된 순서대로 반환.") // api 설명
+    @PostMapping("/create/diaries")
+    public List<CreateDiary.CreateDiaryResponse> createDiaries(
+            @RequestBody CreateDiary.CreateDiariesRequest request
+    ) {
+        return diaryService.createDiaries(request.getDiaries())
+                .stream().map(CreateDiary.CreateDiaryResponse::from)
+                .collect(Collectors.toList());
     }
 
     @ApiOperation(value = "일기 조회",
             notes = "" +
             "- 날짜 형식(yyyy-MM-dd)으로 조회\n" +
-            "- 해당 날짜의 일기를 List 형태로 반환") // api 설명
+            "- 해당 날짜의 일기를 List 형태로 반환\n" +
+            "- If-None-Match 가 현재 버전과 같으면 조회 없이 304") // api 설명
     @GetMapping("/read/diary")
-    List<Diary> readDiary(
+    List<DiaryDto> readDiary(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
-            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-01") LocalDate date
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-01") LocalDate date,
+            WebRequest webRequest
     ) throws DiaryException {
-        return diaryService.readDiary(date)
-                .stream().map(diaryDto ->
-                        Diary.builder()
-                                .id(diaryDto.getId())
-                                .weather(diaryDto.getWeather())
-                                .icon(diaryDto.getIcon())
-                                .text(diaryDto.getText())
-                                .date(diaryDto.getDate())
-                                .build())
-                .collect(Collectors.toList());
+        // 바뀐 것이 없으면 일기를 읽지 않고 304 로 끝낸다.
+        DiaryVersion version = diaryService.getDiaryVersion(date);
+        if (webRequest.checkNotModified(version.getETag())) {
+            return null;
+        }
+        return diaryService.readDiary(date, version);
     }
 
     @ApiOperation(value = "해당 기간의 일기 조회", notes =
                     "- 조회할 날짜 기간의 시작일/종료일 입력\n" +
-                    "- 해당 기간의 일기를 List 형태로 반환.") // api 설명
+                    "- 해당 기간의 일기를 List 형태로 반환.\n" +
+                    "- If-None-Match 가 현재 버전과 같으면 조회 없이 304") // api 설명
     @GetMapping("/read/diaries")
-    List<Diary> readDiaries(
+    List<DiaryDto> readDiaries(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-01") LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-02") LocalDate endDate,
+            WebRequest webRequest
+    ) throws DiaryException {
+        DiaryVersion version = diaryService.getDiariesVersion(startDate, endDate);
+        if (webRequest.checkNotModified(version.getETag())) {
+            return null;
+        }
+        return diaryService.readDiaries(startDate, endDate, version);
+    }
+
+    @ApiOperation(value = "해당 기간의 일기 페이지 조회", notes =
+                    "- 조회할 날짜 기간의 시작일/종료일 입력, 기간 제한 없음\n" +
+                    "- 날짜, id 순으로 size 만큼 반환\n" +
+                    "- 응답의 nextCursor 를 cursor 로 넘기면 다음 페이지 조회.") // api 설명
+    @GetMapping("/read/diaries/page")
+    DiaryPage readDiaryPage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2020-01-01") LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-02") LocalDate endDate,
+            @RequestParam(required = false) @ApiParam(value = "이전 응답의 nextCursor") String cursor,
+            @RequestParam(defaultValue = "100") int size
+    ) throws DiaryException {
+        return diaryService.readDiaryPage(startDate, endDate, cursor, size);
+    }
+
+    @ApiOperation(value = "해당 기간의 일기 스트리밍 조회", notes =
+                    "- 조회할 날짜 기간의 시작일/종료일 입력, 기간 제한 없음\n" +
+                    "- 한 줄에 일기 하나씩 NDJSON 형태로 DB 에서 읽는 대로 전송.") // api 설명
+    @GetMapping(value = "/read/diaries/stream", produces = NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> streamDiaries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2020-01-01") LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-02") LocalDate endDate
     ) throws DiaryException {
-        return diaryService.readDiaries(startDate, endDate)
-                .stream().map(diaryDto ->
-                        Diary.builder()
-                                .id(diaryDto.getId())
-                                .weather(diaryDto.getWeather())
-                                .icon(diaryDto.getIcon())
-                                .text(diaryDto.getText())
-                                .date(diaryDto.getDate())
-                                .build())
-                .collect(Collectors.toList());
+        // 응답을 쓰기 시작한 뒤에는 오류 응답을 줄 수 없어서 미리 검사
+        if (startDate.isAfter(endDate)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        StreamingResponseBody body = out -> diaryService.streamDiaries(startDate, endDate, diaryDto -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(diaryDto));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
     }
 
     @ApiOperation(value = "일기 글 수정", notes =
@@ -99,6 +196,19 @@ public class DiaryController {
         return UpdateDiary.UpdateDiaryResponse.from(diaryService.updateDiary(date, request.getText()));
     }
 
+    @ApiOperation(value = "일기 글 여러 건 수정", notes =
+                    "- diaries 배열에 수정할 날짜(yyyy-MM-dd)와 새 일기 글을 함께 입력\n" +
+                    "- 날짜마다 첫번째 일기 글을 수정\n" +
+                    "- 하나의 트랜잭션으로 처리하며, 일기가 없는 날짜가 있으면 모두 취소.") // api 설명
+    @PutMapping("/update/diaries")
+    List<UpdateDiary.UpdateDiaryResponse> updateDiaries(
+            @RequestBody UpdateDiary.UpdateDiariesRequest request
+    ) {
+        return diaryService.updateDiaries(request.getDiaries())
+                .stream().map(UpdateDiary.UpdateDiaryResponse::from)
+                .collect(Collectors.toList());
+    }
+
     @ApiOperation(value = "해당 날짜의 일기 삭제", notes = "" +
             "- date parameter 로 삭제할 날짜 입력.\n" +
             "- 해당 날짜의 모든 일기를 삭제.")
@@ -108,7 +218,20 @@ public class DiaryController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
     ) {
         DeleteDiary.DeleteDiaryRequest request = new DeleteDiary.DeleteDiaryRequest(date);
-        diaryService.deleteDiary(request.getDate());
-        return DeleteDiary.DeleteDiaryResponse.from();
+        return DeleteDiary.DeleteDiaryResponse.from(diaryService.deleteDiary(request.getDate()));
+    }
+
+    @ApiOperation(value = "해당 기간의 일기 삭제", notes = "" +
+            "- 삭제할 날짜 기간의 시작일/종료일 입력, 기간 제한 없음\n" +
+            "- 날짜, id 순으로 chunk 단위로 나눠서 삭제하고 chunk 마다 커밋\n" +
+            "- 삭제된 일기 수와 chunk 수를 반환.")
+    @DeleteMapping("/delete/diaries")
+    DeleteDiary.DeleteDiariesResponse deleteDiaries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2020-01-01") LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-02") LocalDate endDate
+    ) {
+        return diaryBulkDeleter.deleteBetween(startDate, endDate);
     }
 }
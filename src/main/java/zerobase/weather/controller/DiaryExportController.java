@@ -0,0 +1,97 @@
+package zerobase.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zerobase.weather.dto.DiaryExport;
+import zerobase.weather.service.DiaryExportService;
+import zerobase.weather.type.DiaryFileFormat;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@RestController
+public class DiaryExportController {
+    // tomcat 의 sendfile 요청 속성 (org.apache.tomcat.util.net.Constants 참고)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final DiaryExportService diaryExportService;
+
+    public DiaryExportController(DiaryExportService diaryExportService) {
+        this.diaryExportService = diaryExportService;
+    }
+
+    @ApiOperation(value = "일기 내보내기 시작", notes =
+                    "- 모든 일기를 gzip 으로 압축한 NDJSON 또는 CSV 파일로 나눠서 저장\n" +
+                    "- 작업은 백그라운드에서 진행되고, 끝나면 manifest 에 파일별 행 수와 SHA-256 을 기록") // api 설명
+    @PostMapping("/export/diary")
+    DiaryExport.Status startExport(
+            @RequestParam(defaultValue = "NDJSON") @ApiParam(value = "NDJSON 또는 CSV") DiaryFileFormat format
+    ) {
+        return diaryExportService.start(format);
+    }
+
+    @ApiOperation(value = "일기 내보내기 진행 상황", notes =
+                    "- 마지막으로 시작한 내보내기의 진행 상황 반환") // api 설명
+    @GetMapping("/export/diary")
+    DiaryExport.Status getExportStatus() {
+        return diaryExportService.getStatus();
+    }
+
+    @ApiOperation(value = "끝난 일기 내보내기 목록", notes =
+                    "- 끝난 내보내기의 manifest 를 최근 것부터 반환") // api 설명
+    @GetMapping("/export/diary/files")
+    List<DiaryExport.Manifest> getExports() {
+        return diaryExportService.getExports();
+    }
+
+    @ApiOperation(value = "일기 내보내기 파일 다운로드", notes =
+                    "- manifest.json 또는 manifest 에 적힌 chunk 파일\n" +
+                    "- 파일 내용은 서버 메모리를 거치지 않고 sendfile 로 전송") // api 설명
+    @GetMapping("/export/diary/files/{exportId}/{file:.+}")
+    void downloadExportFile(
+            @PathVariable @ApiParam(value = "내보내기 id", example = "20230901-020000-000") String exportId,
+            @PathVariable @ApiParam(value = "파일 이름", example = "diary-00001.ndjson.gz") String file,
+            HttpServletRequest request, HttpServletResponse response
+    ) throws IOException {
+        Path path = diaryExportService.getFile(exportId, file);
+        long size = Files.size(path);
+        response.setContentType(file.endsWith(".gz") ? "application/gzip" : MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(file).build().toString());
+        response.setContentLengthLong(size);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // 응답을 마칠 때 tomcat 이 파일을 소켓으로 바로 보낸다. (zero-copy)
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        // sendfile 을 쓸 수 없는 connector 에서는 transferTo 로 복사한다.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
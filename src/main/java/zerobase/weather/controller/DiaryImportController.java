@@ -0,0 +1,57 @@
+package zerobase.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zerobase.weather.dto.DiaryImport;
+import zerobase.weather.service.DiaryImportService;
+import zerobase.weather.type.DiaryFileFormat;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+@RestController
+public class DiaryImportController {
+    private final DiaryImportService diaryImportService;
+
+    public DiaryImportController(DiaryImportService diaryImportService) {
+        this.diaryImportService = diaryImportService;
+    }
+
+    @ApiOperation(value = "가져올 일기 파일 올리기", notes =
+                    "- 요청 본문을 그대로 가져오기 디렉토리에 저장 (multipart 아님)\n" +
+                    "- 이름이 .gz 로 끝나면 gzip 으로 압축된 파일로 읽음") // api 설명
+    @PutMapping("/import/diary/files/{file:.+}")
+    DiaryImport.UploadResponse uploadImportFile(
+            @PathVariable @ApiParam(value = "파일 이름", example = "users.ndjson.gz") String file,
+            HttpServletRequest request
+    ) throws IOException {
+        return diaryImportService.upload(file, request.getInputStream());
+    }
+
+    @ApiOperation(value = "일기 가져오기 시작", notes =
+                    "- 가져오기 디렉토리의 NDJSON 또는 CSV 파일에서 date, text 를 읽어 일기로 저장\n" +
+                    "- 날씨는 저장된 날씨에서 날짜별로 찾고, 없으면 비워 두었다가 날씨 보정 작업이 채움\n" +
+                    "- 같은 importId 로 다시 실행하면 이미 저장된 구간은 건너뜀\n" +
+                    "- 그 사이 파일이나 구간 크기가 바뀌었으면 이어서 가져오지 않고 실패") // api 설명
+    @PostMapping("/import/diary")
+    DiaryImport.Status startImport(
+            @RequestParam @ApiParam(value = "파일 이름", example = "users.ndjson.gz") String file,
+            @RequestParam(required = false) @ApiParam(value = "NDJSON 또는 CSV, 생략하면 확장자로 판단") DiaryFileFormat format,
+            @RequestParam(required = false) @ApiParam(value = "이어서 가져올 때 쓰는 id, 생략하면 파일 이름과 크기, 수정 시각") String importId
+    ) throws IOException {
+        return diaryImportService.start(file, format, importId);
+    }
+
+    @ApiOperation(value = "일기 가져오기 진행 상황", notes =
+                    "- 마지막으로 시작한 가져오기의 처리량과 검증에 실패한 행 반환") // api 설명
+    @GetMapping("/import/diary")
+    DiaryImport.Status getImportStatus() {
+        return diaryImportService.getStatus();
+    }
+}
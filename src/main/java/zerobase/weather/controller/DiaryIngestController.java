@@ -0,0 +1,50 @@
+package zerobase.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import zerobase.weather.dto.CreateDiary;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.service.DiaryIngestLog;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@ConditionalOnProperty(name = "diary.ingest.enabled", havingValue = "true")
+public class DiaryIngestController {
+    private final DiaryIngestLog diaryIngestLog;
+
+    public DiaryIngestController(DiaryIngestLog diaryIngestLog) {
+        this.diaryIngestLog = diaryIngestLog;
+    }
+
+    @ApiOperation(value = "일기 접수", notes =
+                    "- 날짜 형식(yyyy-MM-dd)과 일기 글(500자 이하)을 입력\n" +
+                    "- 디스크의 접수 log 에 기록한 뒤 바로 접수 번호를 반환(202)\n" +
+                    "- 날씨 조회와 DB 저장은 백그라운드에서 진행, 대기열이 가득 차면 503") // api 설명
+    @PostMapping("/ingest/diary")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public CompletableFuture<CreateDiary.IngestDiaryResponse> ingestDiary(
+            @RequestParam @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-02")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody CreateDiary.CreateDiaryRequest request
+    ) {
+        if (request.getText() == null) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        return diaryIngestLog.append(date, request.getText())
+                .thenApply(ingestId -> CreateDiary.IngestDiaryResponse.builder()
+                        .ingestId(ingestId)
+                        .date(date)
+                        .build());
+    }
+}
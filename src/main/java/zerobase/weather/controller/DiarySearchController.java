@@ -0,0 +1,47 @@
+package zerobase.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zerobase.weather.dto.SearchDiary;
+import zerobase.weather.service.DiarySearchService;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+public class DiarySearchController {
+    private final DiarySearchService diarySearchService;
+
+    public DiarySearchController(DiarySearchService diarySearchService) {
+        this.diarySearchService = diarySearchService;
+    }
+
+    @ApiOperation(value = "일기 검색", notes =
+                    "- 검색어의 형태소가 모두 들어 있는 일기를 관련도 순으로 반환\n" +
+                    "- 기간(yyyy-MM-dd)과 날씨로 거를 수 있음, 둘 다 생략 가능\n" +
+                    "- 방금 작성/수정한 일기는 잠시 뒤에 검색됨") // api 설명
+    @GetMapping("/search/diary")
+    public SearchDiary.SearchDiaryResponse searchDiary(
+            @RequestParam @ApiParam(value = "검색어", example = "자전거") String query,
+            @RequestParam(required = false) @ApiParam(value = "조회할 기간의 첫번째날", example = "2023-09-01")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @ApiParam(value = "조회할 기간의 마지막날", example = "2023-09-30")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) @ApiParam(value = "날씨", example = "Clear") String weather,
+            @RequestParam(defaultValue = "20") @ApiParam(value = "최대 결과 수") int size
+    ) {
+        return diarySearchService.search(query, startDate, endDate, weather, size);
+    }
+
+    @ApiOperation(value = "검색 색인 재생성", notes =
+                    "- 검색 색인을 비우고 모든 일기로 다시 만든 뒤 색인한 일기 수를 반환") // api 설명
+    @PostMapping("/search/diary/rebuild")
+    public CompletableFuture<SearchDiary.RebuildResponse> rebuildSearchIndex() {
+        return diarySearchService.rebuild();
+    }
+}
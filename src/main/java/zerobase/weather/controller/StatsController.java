@@ -0,0 +1,46 @@
+package zerobase.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zerobase.weather.dto.DiaryStats;
+import zerobase.weather.service.StatsService;
+import zerobase.weather.type.StatsUnit;
+
+import java.time.LocalDate;
+
+@RestController
+public class StatsController {
+    private final StatsService statsService;
+
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @ApiOperation(value = "월/연 단위 통계", notes =
+                    "- 기간이 걸친 월(연)마다 평균/최저/최고 기온, 날씨별 일수, 일기 수와 하루 평균 일기 수 반환\n" +
+                    "- 도시를 생략하면 일기에 쓰는 기본 도시의 날씨\n" +
+                    "- 미리 집계된 값만 읽으므로 기간이 길어도 일기 행을 훑지 않음") // api 설명
+    @GetMapping("/stats")
+    DiaryStats.StatsResponse getStats(
+            @RequestParam(defaultValue = "MONTH") @ApiParam(value = "MONTH 또는 YEAR") StatsUnit unit,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "조회할 기간의 첫번째날", example = "2023-01-01") LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "조회할 기간의 마지막날", example = "2023-12-31") LocalDate endDate,
+            @RequestParam(required = false) @ApiParam(value = "도시", example = "seoul") String city
+    ) {
+        return statsService.getStats(unit, startDate, endDate, city);
+    }
+
+    @ApiOperation(value = "통계 재계산", notes =
+                    "- 집계 테이블을 일기, 날씨 테이블에서 다시 계산") // api 설명
+    @PostMapping("/stats/rebuild")
+    DiaryStats.RebuildResponse rebuildStats() {
+        return statsService.rebuild();
+    }
+}
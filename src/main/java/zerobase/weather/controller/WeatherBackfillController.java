@@ -0,0 +1,43 @@
+package zerobase.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zerobase.weather.dto.WeatherBackfillStatus;
+import zerobase.weather.service.WeatherBackfillService;
+
+import java.time.LocalDate;
+
+@RestController
+public class WeatherBackfillController {
+    private final WeatherBackfillService weatherBackfillService;
+
+    public WeatherBackfillController(WeatherBackfillService weatherBackfillService) {
+        this.weatherBackfillService = weatherBackfillService;
+    }
+
+    @ApiOperation(value = "지난 날씨 보정 시작", notes =
+                    "- 보정할 날짜 기간의 시작일/종료일 입력, 어제까지만 보정\n" +
+                    "- 설정된 모든 도시의 빈 날씨를 채우고 날씨 없이 저장된 일기도 보정\n" +
+                    "- 작업은 백그라운드에서 진행되고, 이미 끝난 구간은 다시 실행해도 건너뜀.") // api 설명
+    @PostMapping("/backfill/weather")
+    WeatherBackfillStatus startBackfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2020-01-01") LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "날짜형식 : yyyy-MM-dd", example = "2023-09-01") LocalDate endDate
+    ) {
+        return weatherBackfillService.start(startDate, endDate);
+    }
+
+    @ApiOperation(value = "지난 날씨 보정 진행 상황", notes =
+                    "- 마지막으로 시작한 보정 작업의 진행 상황 반환.") // api 설명
+    @GetMapping("/backfill/weather")
+    WeatherBackfillStatus getBackfillStatus() {
+        return weatherBackfillService.getStatus();
+    }
+}
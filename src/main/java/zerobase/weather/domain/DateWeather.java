@@ -1,11 +1,17 @@
 package zerobase.weather.domain;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 import java.time.LocalDate;
 
 @Getter
@@ -15,10 +21,22 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Builder
 @EntityListeners(AuditingEntityListener.class)
+@IdClass(DateWeatherId.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DateWeather.CACHE_REGION)
 public class DateWeather {
+    public static final String CACHE_REGION = "dateWeather";
+    public static final String QUERY_CACHE_REGION = "dateWeatherQuery";
+
+    @Id
+    private String city;
     @Id
     private LocalDate date;
     private String weather;
     private String icon;
     private double temperature;
+    @Version // 날씨 보정 시 동시 수정 감지
+    private Long version;
+    @Transient // 제공처 장애로 다른 날짜의 날씨를 대신 사용하는 경우
+    private boolean stale;
 }
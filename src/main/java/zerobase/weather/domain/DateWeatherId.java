@@ -0,0 +1,19 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * date_weather 의 기본키 (city, date)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class DateWeatherId implements Serializable {
+    private String city;
+    private LocalDate date;
+}
@@ -14,14 +14,24 @@ import java.time.LocalDate;
 @Entity(name = "diary") //JPA 사용시에 항상 붙이는 annotation
 @EntityListeners(AuditingEntityListener.class)
 public class Diary {
+    // text 열의 최대 길이 (VARCHAR(500))
+    public static final int MAX_TEXT_LENGTH = 500;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY 는 insert 를 batch 로 묶을 수 없어서 id 를 50개씩 미리 할당받는 table 전략 사용
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "diary_id")
+    @TableGenerator(name = "diary_id", table = "id_generator", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "diary", allocationSize = 50)
     private int id;
     private String weather;
     private String icon;
     private double temperature;
     private String text;
     private LocalDate date;
+    // 날씨 제공처 장애로 마지막으로 알려진 날씨를 대신 저장했으면 true. 백그라운드에서 보정된다.
+    private boolean weatherStale;
+    // write-behind 로 접수된 일기의 접수 번호. 바로 저장된 일기는 null
+    private Long ingestId;
 
     public void setDateWeather(DateWeather dateWeather) {
         this.date = dateWeather.getDate();
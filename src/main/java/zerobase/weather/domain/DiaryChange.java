@@ -0,0 +1,28 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 아직 diary_version 에 합치지 않은 일기 변경. 날짜 하나를 바꾸면 startDate 와 endDate 가 같다.
+ */
+@Getter
+@Setter
+@Entity(name = "diary_change")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiaryChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,24 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 날짜별 일기 버전. diary_change 를 합칠 때 그 날짜의 변경 수만큼 version 이 오른다.
+ */
+@Getter
+@Setter
+@Entity(name = "diary_version")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiaryDateVersion {
+    @Id
+    private LocalDate date;
+    private long version;
+    private LocalDateTime changedAt;
+}
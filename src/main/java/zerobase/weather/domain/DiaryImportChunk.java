@@ -0,0 +1,42 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 일기 가져오기에서 파일의 chunkNo 번째 구간(firstRecord 부터 recordCount 행)을 저장했다는 기록.
+ * sourceFingerprint 는 그때 읽은 파일의 크기와 수정 시각이다.
+ */
+@Getter
+@Setter
+@Entity(name = "diary_import_chunk")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(DiaryImportChunk.Key.class)
+public class DiaryImportChunk {
+    @Id
+    private String importId;
+    @Id
+    private int chunkNo;
+    private long firstRecord;
+    private int recordCount;
+    private int importedCount;
+    private int rejectedCount;
+    private LocalDateTime completedAt;
+    private String sourceFingerprint;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String importId;
+        private int chunkNo;
+    }
+}
@@ -0,0 +1,22 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDate;
+
+/**
+ * 날짜별 일기 수 집계.
+ */
+@Getter
+@Setter
+@Entity(name = "diary_stats_day")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiaryStatsDay {
+    @Id
+    private LocalDate date;
+    private int diaryCount;
+}
@@ -0,0 +1,26 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import java.time.LocalDate;
+
+/**
+ * 아직 diary_stats_day 에 합치지 않은 날짜별 일기 수 증감. 작성/삭제할 때 한 행씩 추가된다.
+ */
+@Getter
+@Setter
+@Entity(name = "diary_stats_delta")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiaryStatsDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private LocalDate date;
+    private int delta;
+}
@@ -0,0 +1,44 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 과거 날씨 보정 작업에서 (도시, 월) 구간의 from ~ to 날짜를 모두 채웠다는 기록.
+ */
+@Getter
+@Setter
+@Entity(name = "weather_backfill_checkpoint")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(WeatherBackfillCheckpoint.Key.class)
+public class WeatherBackfillCheckpoint {
+    @Id
+    private String city;
+    @Id
+    private LocalDate monthStart;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private int filledCount;
+    private LocalDateTime completedAt;
+
+    public boolean covers(LocalDate from, LocalDate to) {
+        return !fromDate.isAfter(from) && !toDate.isBefore(to);
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String city;
+        private LocalDate monthStart;
+    }
+}
@@ -0,0 +1,30 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+
+/**
+ * 도시, 월, 날씨별 날씨 집계. statMonth 는 yyyyMM 형식의 정수.
+ */
+@Getter
+@Setter
+@Entity(name = "weather_stats_month")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(WeatherStatsMonthId.class)
+public class WeatherStatsMonth {
+    @Id
+    private String city;
+    @Id
+    private int statMonth;
+    @Id
+    private String weather;
+    private int dayCount;
+    private double temperatureSum;
+    private double temperatureMin;
+    private double temperatureMax;
+}
@@ -0,0 +1,19 @@
+package zerobase.weather.domain;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * weather_stats_month 의 기본키 (city, statMonth, weather)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class WeatherStatsMonthId implements Serializable {
+    private String city;
+    private int statMonth;
+    private String weather;
+}
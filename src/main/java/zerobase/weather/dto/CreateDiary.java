@@ -5,6 +5,7 @@ import lombok.*;
 
 import javax.persistence.Id;
 import java.time.LocalDate;
+import java.util.List;
 
 public class CreateDiary {
     @Getter
@@ -15,6 +16,26 @@ public class CreateDiary {
         @NotNull
         private String text;
     }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CreateDiariesRequest {
+        @NotNull
+        private List<DiaryEntry> diaries;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DiaryEntry {
+        @NotNull
+        private LocalDate date;
+        @NotNull
+        private String text;
+    }
     @Getter
     @Setter
     @AllArgsConstructor
@@ -26,6 +47,7 @@ public class CreateDiary {
         private String weather;
         private String icon;
         private double temperature;
+        private boolean weatherStale;
 
         public static CreateDiaryResponse from (DiaryDto diaryDto){
             return CreateDiaryResponse.builder()
@@ -33,7 +55,17 @@ public class CreateDiary {
                     .weather(diaryDto.getWeather())
                     .icon(diaryDto.getIcon())
                     .temperature(diaryDto.getTemperature())
+                    .weatherStale(diaryDto.isWeatherStale())
                     .build();
         }
     }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @Builder
+    public static class IngestDiaryResponse {
+        private long ingestId;
+        private LocalDate date;
+    }
 }
@@ -22,11 +22,26 @@ public class DeleteDiary {
     @Builder
     public static class DeleteDiaryResponse {
         private String result;
+        private int deletedCount;
 
-        public static DeleteDiaryResponse from() {
+        public static DeleteDiaryResponse from(int deletedCount) {
             return DeleteDiaryResponse.builder()
                     .result("삭제 완료")
+                    .deletedCount(deletedCount)
                     .build();
         }
     }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class DeleteDiariesResponse {
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private long deletedCount;
+        private int chunkCount;
+        private long elapsedMillis;
+    }
 }
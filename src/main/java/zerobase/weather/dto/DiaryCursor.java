@@ -0,0 +1,46 @@
+package zerobase.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.type.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 기간 조회의 이어보기 위치. 마지막으로 내려준 일기의 (date, id) 를 담는다.
+ */
+@Getter
+@AllArgsConstructor
+public class DiaryCursor {
+    private final LocalDate date;
+    private final int id;
+
+    // 시작일의 모든 일기(id >= 1)보다 앞선 위치
+    public static DiaryCursor first(LocalDate startDate) {
+        return new DiaryCursor(startDate, 0);
+    }
+
+    public static DiaryCursor after(DiaryDto diaryDto) {
+        return new DiaryCursor(diaryDto.getDate(), diaryDto.getId());
+    }
+
+    public String encode() {
+        String raw = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static DiaryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new DiaryCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+}
@@ -16,6 +16,7 @@ public class DiaryDto {
     private double temperature;
     private String text;
     private LocalDate date;
+    private boolean weatherStale;
 
     public static DiaryDto fromEntity(Diary diary){
         return DiaryDto.builder()
@@ -25,6 +26,7 @@ public class DiaryDto {
                 .temperature(diary.getTemperature())
                 .text(diary.getText())
                 .date(diary.getDate())
+                .weatherStale(diary.isWeatherStale())
                 .build();
     }
 }
@@ -0,0 +1,55 @@
+package zerobase.weather.dto;
+
+import lombok.*;
+import zerobase.weather.type.DiaryFileFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class DiaryExport {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Status {
+        private String exportId;
+        // RUNNING, COMPLETED, FAILED
+        private String state;
+        private DiaryFileFormat format;
+        private long rowCount;
+        private int chunkCount;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+    }
+
+    /**
+     * 내보내기 디렉토리의 manifest.json. 모든 chunk 를 다 쓴 뒤에 만들어진다.
+     */
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Manifest {
+        private String exportId;
+        private DiaryFileFormat format;
+        private long rowCount;
+        private LocalDateTime startedAt;
+        private LocalDateTime completedAt;
+        private List<Chunk> chunks;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Chunk {
+        private String file;
+        private long rowCount;
+        // gzip 으로 압축된 파일의 크기와 SHA-256 (hex)
+        private long bytes;
+        private String sha256;
+    }
+}
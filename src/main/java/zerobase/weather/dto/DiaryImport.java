@@ -0,0 +1,57 @@
+package zerobase.weather.dto;
+
+import lombok.*;
+import zerobase.weather.type.DiaryFileFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class DiaryImport {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Status {
+        private String importId;
+        private String file;
+        private DiaryFileFormat format;
+        // RUNNING, COMPLETED, FAILED
+        private String state;
+        // 파일에서 읽은 행 수 (건너뛴 구간 포함)
+        private long readRecords;
+        // 저장된 일기 수와 검증에 실패한 행 수. 이전 실행에서 끝난 구간도 포함
+        private long importedRows;
+        private long rejectedRows;
+        private int completedChunks;
+        private int skippedChunks;
+        private int failedChunks;
+        // 이번 실행에서 초당 저장한 일기 수
+        private double rowsPerSecond;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        // 검증에 실패한 행. 앞에서부터 diary.import.max-errors 개까지만
+        private List<RowError> errors;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class RowError {
+        // 파일에서 몇번째 행인지 (header 제외, 1 부터)
+        private long record;
+        private String message;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class UploadResponse {
+        private String file;
+        private long bytes;
+    }
+}
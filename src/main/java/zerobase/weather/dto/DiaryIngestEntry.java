@@ -0,0 +1,18 @@
+package zerobase.weather.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * ingest log 의 한 줄. id 는 log 에 기록된 순서대로 증가하는 접수 번호이고, 모든 서버에서 겹치지 않는다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryIngestEntry {
+    private long id;
+    private LocalDate date;
+    private String text;
+}
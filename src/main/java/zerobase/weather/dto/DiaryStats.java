@@ -0,0 +1,55 @@
+package zerobase.weather.dto;
+
+import lombok.*;
+import zerobase.weather.type.StatsUnit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class DiaryStats {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class StatsResponse {
+        private StatsUnit unit;
+        private String city;
+        private List<Bucket> buckets;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Bucket {
+        // 월 단위면 yyyy-MM, 연 단위면 yyyy
+        private String period;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        // 날씨가 저장된 날 수. 0 이면 기온은 null
+        private int weatherDays;
+        private Double averageTemperature;
+        private Double minTemperature;
+        private Double maxTemperature;
+        private Map<String, Integer> weatherCounts;
+        private long diaryCount;
+        // 일기가 하나 이상 있는 날 수
+        private int diaryDays;
+        // 기간의 전체 날 수로 나눈 하루 평균 일기 수
+        private double diariesPerDay;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class RebuildResponse {
+        private int diaryDays;
+        private int weatherBuckets;
+        private long elapsedMillis;
+    }
+}
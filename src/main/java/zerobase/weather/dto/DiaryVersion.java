@@ -0,0 +1,18 @@
+package zerobase.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 조회 결과의 버전. 조건부 GET(ETag) 에 사용한다.
+ * 변경 시각은 커밋 순서와 다를 수 있어서 Last-Modified 는 쓰지 않는다.
+ */
+@Getter
+@AllArgsConstructor
+public class DiaryVersion {
+    private final String eTag;
+
+    public static DiaryVersion of(String resource, long version) {
+        return new DiaryVersion(resource + "-" + version);
+    }
+}
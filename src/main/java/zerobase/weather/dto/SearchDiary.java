@@ -0,0 +1,42 @@
+package zerobase.weather.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class SearchDiary {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class SearchDiaryResponse {
+        // 일치한 전체 일기 수 (1000 건이 넘으면 하한값)
+        private long totalHits;
+        private List<Hit> hits;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Hit {
+        private int id;
+        private LocalDate date;
+        private String weather;
+        private String text;
+        private float score;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class RebuildResponse {
+        private long indexedCount;
+        private long elapsedMillis;
+    }
+}
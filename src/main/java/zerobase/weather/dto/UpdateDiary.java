@@ -4,6 +4,7 @@ import com.sun.istack.NotNull;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class UpdateDiary {
     @Getter
@@ -15,6 +16,26 @@ public class UpdateDiary {
         private String text;
     }
 
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class UpdateDiariesRequest {
+        @NotNull
+        private List<DiaryEntry> diaries;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DiaryEntry {
+        @NotNull
+        private LocalDate date;
+        @NotNull
+        private String text;
+    }
+
     @Getter
     @Setter
     @NoArgsConstructor
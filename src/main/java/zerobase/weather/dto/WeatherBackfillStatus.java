@@ -0,0 +1,26 @@
+package zerobase.weather.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WeatherBackfillStatus {
+    private String state;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int totalChunks;
+    private int completedChunks;
+    private int skippedChunks;
+    private int failedChunks;
+    private int filledDates;
+    private int failedDates;
+    private int repairedDiaries;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
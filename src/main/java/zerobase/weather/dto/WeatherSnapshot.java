@@ -0,0 +1,17 @@
+package zerobase.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 외부 날씨 응답에서 필요한 값만 뽑아낸 결과.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class WeatherSnapshot {
+    private final String weather;
+    private final String icon;
+    private final double temperature;
+}
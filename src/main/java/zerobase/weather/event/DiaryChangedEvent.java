@@ -0,0 +1,43 @@
+package zerobase.weather.event;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * 일기가 작성/수정/삭제됐다는 이벤트. 변경한 트랜잭션 안에서 발행한다.
+ * 바뀐 날짜를 알면 dates 를, 기간 단위로 바꿨으면 startDate ~ endDate 를 담는다.
+ */
+@Getter
+public class DiaryChangedEvent {
+    private final SortedSet<LocalDate> dates;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    private DiaryChangedEvent(SortedSet<LocalDate> dates, LocalDate startDate, LocalDate endDate) {
+        this.dates = dates;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public static DiaryChangedEvent of(LocalDate date) {
+        return of(Collections.singleton(date));
+    }
+
+    public static DiaryChangedEvent of(Collection<LocalDate> dates) {
+        SortedSet<LocalDate> sorted = new TreeSet<>(dates);
+        return new DiaryChangedEvent(Collections.unmodifiableSortedSet(sorted), sorted.first(), sorted.last());
+    }
+
+    public static DiaryChangedEvent between(LocalDate startDate, LocalDate endDate) {
+        return new DiaryChangedEvent(null, startDate, endDate);
+    }
+
+    public boolean isRange() {
+        return dates == null;
+    }
+}
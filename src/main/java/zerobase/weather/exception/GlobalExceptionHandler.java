@@ -5,7 +5,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import zerobase.weather.dto.ErrorResponse;
+import zerobase.weather.type.ErrorCode;
+
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @RestControllerAdvice
@@ -24,6 +28,15 @@ public class GlobalExceptionHandler {
         return new RuntimeException();
     }
 
+    // 비동기 처리 대기열이 가득 찼거나 시간 안에 끝나지 않은 요청은 기다리지 않고 바로 503 으로 돌려준다.
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler({RejectedExecutionException.class, AsyncRequestTimeoutException.class})
+    public ErrorResponse handleServerBusy(RuntimeException e) {
+        log.warn("request rejected : {}", e.toString());
+
+        return new ErrorResponse(ErrorCode.SERVER_BUSY, ErrorCode.SERVER_BUSY.getDescription());
+    }
+
     @ExceptionHandler(DiaryException.class)
     public ErrorResponse handleDiaryException(DiaryException e) {
         log.error("{} is occurred.", e.getErrorCode());
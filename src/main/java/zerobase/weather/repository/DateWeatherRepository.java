@@ -1,13 +1,36 @@
 package zerobase.weather.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.DateWeatherId;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
 
 @Repository
-public interface DateWeatherRepository extends JpaRepository<DateWeather, LocalDate> {
+public interface DateWeatherRepository extends JpaRepository<DateWeather, DateWeatherId>, DateWeatherRepositoryCustom {
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = DateWeather.QUERY_CACHE_REGION)})
     List<DateWeather> findAllByDate(LocalDate localDate);
+
+    List<DateWeather> findAllByCityAndDateIn(String city, Collection<LocalDate> dates);
+
+    // 해당 날짜 이전에 마지막으로 저장된 날씨
+    Optional<DateWeather> findFirstByCityAndDateBeforeOrderByDateDesc(String city, LocalDate date);
+
+    // 기간 안에서 날씨가 이미 저장된 날짜. 기본키 (city, date) 범위만 읽는다.
+    @Query("select w.date from date_weather w where w.city = :city and w.date between :startDate and :endDate")
+    List<LocalDate> findDatesByCityAndDateBetween(@Param("city") String city,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,17 @@
+package zerobase.weather.repository;
+
+import zerobase.weather.domain.DateWeather;
+
+import java.util.List;
+
+public interface DateWeatherRepositoryCustom {
+    /**
+     * 여러 도시의 날씨를 JDBC batch 한번으로 upsert 한다. 이미 있으면 덮어쓰고 version 을 올린다.
+     */
+    void upsertAll(List<DateWeather> dateWeathers);
+
+    /**
+     * 없는 (도시, 날짜)만 JDBC batch 로 저장한다. 이미 있는 날씨는 그대로 둔다.
+     */
+    void insertAllIfAbsent(List<DateWeather> dateWeathers);
+}
@@ -0,0 +1,77 @@
+package zerobase.weather.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import zerobase.weather.cache.DateWeatherInvalidator;
+import zerobase.weather.domain.DateWeather;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class DateWeatherRepositoryImpl implements DateWeatherRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_SQL = "INSERT INTO date_weather " +
+            "(city, date, weather, icon, temperature, version) VALUES (?, ?, ?, ?, ?, 0) ";
+    private static final String UPSERT_SQL = INSERT_SQL +
+            "ON DUPLICATE KEY UPDATE weather = VALUES(weather), icon = VALUES(icon), " +
+            "temperature = VALUES(temperature), version = version + 1";
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL +
+            "ON DUPLICATE KEY UPDATE version = version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WeatherStatsMonthRepository weatherStatsMonthRepository;
+    private final DateWeatherInvalidator dateWeatherInvalidator;
+
+    public DateWeatherRepositoryImpl(DataSource dataSource, WeatherStatsMonthRepository weatherStatsMonthRepository,
+                                     DateWeatherInvalidator dateWeatherInvalidator) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.weatherStatsMonthRepository = weatherStatsMonthRepository;
+        this.dateWeatherInvalidator = dateWeatherInvalidator;
+    }
+
+    @Override
+    @Transactional
+    public void upsertAll(List<DateWeather> dateWeathers) {
+        batchUpdate(UPSERT_SQL, dateWeathers);
+        afterWrite(dateWeathers);
+    }
+
+    @Override
+    @Transactional
+    public void insertAllIfAbsent(List<DateWeather> dateWeathers) {
+        batchUpdate(INSERT_IF_ABSENT_SQL, dateWeathers);
+        afterWrite(dateWeathers);
+    }
+
+    private void batchUpdate(String sql, List<DateWeather> dateWeathers) {
+        if (dateWeathers.isEmpty()) {
+            return;
+        }
+        // rewriteBatchedStatements 로 MySQL 에는 multi-row insert 한 문장으로 전달된다.
+        jdbcTemplate.batchUpdate(sql, dateWeathers, BATCH_SIZE, (ps, dateWeather) -> {
+            ps.setString(1, dateWeather.getCity());
+            ps.setDate(2, Date.valueOf(dateWeather.getDate()));
+            ps.setString(3, dateWeather.getWeather());
+            ps.setString(4, dateWeather.getIcon());
+            ps.setDouble(5, dateWeather.getTemperature());
+        });
+    }
+
+    // 같은 트랜잭션에서 저장한 (도시, 월)의 통계를 다시 계산하고, 저장한 기간을 캐시 무효화 대상으로 기록한다.
+    // 도시 순서로 갱신해서 lock 순서를 맞춘다.
+    private void afterWrite(List<DateWeather> dateWeathers) {
+        Map<String, List<LocalDate>> datesByCity = dateWeathers.stream()
+                .collect(Collectors.groupingBy(DateWeather::getCity, TreeMap::new,
+                        Collectors.mapping(DateWeather::getDate, Collectors.toList())));
+        datesByCity.forEach((city, dates) -> {
+            weatherStatsMonthRepository.refreshMonths(city, dates);
+            dateWeatherInvalidator.recordChange(city, Collections.min(dates), Collections.max(dates));
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package zerobase.weather.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zerobase.weather.domain.DiaryChange;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DiaryChangeRepository extends JpaRepository<DiaryChange, Long> {
+    // 날짜 행을 갱신하지 않고 추가만 하므로 같은 날짜에 동시에 쓰는 트랜잭션끼리 lock 을 기다리지 않는다.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_change"))
+    @Query(value = "INSERT INTO diary_change (start_date, end_date, changed_at) " +
+            "VALUES (:startDate, :endDate, current_timestamp(3))", nativeQuery = true)
+    int addChange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select c from diary_change c order by c.id")
+    List<DiaryChange> findOldest(Pageable pageable);
+
+    List<DiaryChange> findAllByChangedAtGreaterThanEqual(LocalDateTime since);
+
+    @Modifying
+    @Query("delete from diary_change c where c.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+}
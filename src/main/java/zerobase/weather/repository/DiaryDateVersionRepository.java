@@ -0,0 +1,39 @@
+package zerobase.weather.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zerobase.weather.domain.DiaryDateVersion;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DiaryDateVersionRepository extends JpaRepository<DiaryDateVersion, LocalDate> {
+    // diary_change 를 합칠 때만 호출한다.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_version"))
+    @Query(value = "INSERT INTO diary_version (date, version, changed_at) VALUES (:date, :count, :changedAt) " +
+            "ON DUPLICATE KEY UPDATE version = version + VALUES(version), " +
+            "changed_at = GREATEST(changed_at, VALUES(changed_at))", nativeQuery = true)
+    int addVersion(@Param("date") LocalDate date, @Param("count") long count,
+                   @Param("changedAt") LocalDateTime changedAt);
+
+    // 합친 버전과 아직 합치지 않은 변경 수의 합. 한 문장으로 읽으므로 합치는 중에도 합이 흔들리지 않는다.
+    // 변경마다 하나씩 더해지고 줄지 않으므로, 늦게 커밋된 변경을 포함해서 하나라도 바뀌면 합도 바뀐다.
+    @Query(value = "SELECT (SELECT coalesce(sum(version), 0) FROM diary_version " +
+            "WHERE date BETWEEN :startDate AND :endDate) + " +
+            "(SELECT count(*) FROM diary_change WHERE start_date <= :endDate AND end_date >= :startDate)",
+            nativeQuery = true)
+    long sumVersions(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select v.date from diary_version v where v.changedAt >= :since")
+    List<LocalDate> findDatesChangedSince(@Param("since") LocalDateTime since);
+}
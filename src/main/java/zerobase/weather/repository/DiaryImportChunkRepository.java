@@ -0,0 +1,31 @@
+package zerobase.weather.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zerobase.weather.domain.DiaryImportChunk;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DiaryImportChunkRepository extends JpaRepository<DiaryImportChunk, DiaryImportChunk.Key> {
+    List<DiaryImportChunk> findAllByImportId(String importId);
+
+    // save 는 이미 있는 행을 덮어쓰므로 insert 로 기록한다. 다른 실행이 같은 구간을 먼저 기록했으면 기본키 중복으로 실패한다.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_import_chunk"))
+    @Query(value = "INSERT INTO diary_import_chunk (import_id, chunk_no, first_record, record_count, " +
+            "imported_count, rejected_count, completed_at, source_fingerprint) VALUES (:importId, :chunkNo, " +
+            ":firstRecord, :recordCount, :importedCount, :rejectedCount, current_timestamp(3), :sourceFingerprint)",
+            nativeQuery = true)
+    int insertChunk(@Param("importId") String importId, @Param("chunkNo") int chunkNo,
+                    @Param("firstRecord") long firstRecord, @Param("recordCount") int recordCount,
+                    @Param("importedCount") int importedCount, @Param("rejectedCount") int rejectedCount,
+                    @Param("sourceFingerprint") String sourceFingerprint);
+}
@@ -1,21 +1,129 @@
 package zerobase.weather.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.DiaryCursor;
+import zerobase.weather.dto.DiaryDto;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
 
 @Repository
-public interface DiaryRepository extends JpaRepository<Diary, Integer> {
+public interface DiaryRepository extends JpaRepository<Diary, Integer>, DiaryRepositoryCustom {
+    // 조회 전용 projection. entity 를 영속성 컨텍스트에 올리지 않고 DTO 로 바로 읽는다.
+    String SELECT_DIARY_DTO = "select new zerobase.weather.dto.DiaryDto(" +
+            "d.id, d.weather, d.icon, d.temperature, d.text, d.date, d.weatherStale) from diary d ";
+
     List<Diary> findAllByDate(LocalDate date);
 
     List<Diary> findAllByDateBetween(LocalDate startDate, LocalDate endDate);
 
+    @Query(SELECT_DIARY_DTO + "where d.date = :date order by d.id")
+    List<DiaryDto> findAllDtoByDate(@Param("date") LocalDate date);
+
+    @Query(SELECT_DIARY_DTO + "where d.date between :startDate and :endDate order by d.date, d.id")
+    List<DiaryDto> findAllDtoByDateBetween(@Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+
+    // (date, id) 기준 keyset 페이지 조회. offset 없이 마지막 위치 다음부터 읽는다.
+    @Query(SELECT_DIARY_DTO + "where d.date between :startDate and :endDate " +
+            "and (d.date > :afterDate or (d.date = :afterDate and d.id > :afterId)) " +
+            "order by d.date, d.id")
+    List<DiaryDto> findPageAfter(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                 @Param("afterDate") LocalDate afterDate, @Param("afterId") int afterId,
+                                 Pageable pageable);
+
+    // 전체 결과를 메모리에 올리지 않고 cursor 로 순서대로 읽는다. 트랜잭션 안에서 사용해야 함.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DIARY_DTO + "where d.date between :startDate and :endDate order by d.date, d.id")
+    Stream<DiaryDto> streamAllByDateBetween(@Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
+    // 내보내기용 전체 조회. 기본키 순서로 읽고, MySQL 은 useCursorFetch 로 fetch size 만큼씩 서버 cursor 에서 가져온다.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query(SELECT_DIARY_DTO + "order by d.id")
+    Stream<DiaryDto> streamAllOrderById();
+
     Diary getFirstByDate(LocalDate date);
 
+    // 해당 날짜의 첫번째(id 가 가장 작은) 일기를 잠그고 읽는다. 커밋할 때까지 다른 트랜잭션이 이 행을 바꾸지 못한다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_DIARY_DTO + "where d.id = (select min(f.id) from diary f where f.date = :date)")
+    Optional<DiaryDto> lockFirstDtoByDate(@Param("date") LocalDate date);
+
+    // 날짜별 첫번째 일기를 날짜 순서로 잠그고 읽는다. 일기가 없는 날짜는 결과에서 빠진다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_DIARY_DTO + "where d.id in " +
+            "(select min(f.id) from diary f where f.date in :dates group by f.date) order by d.date")
+    List<DiaryDto> lockFirstDtosByDateIn(@Param("dates") Collection<LocalDate> dates);
+
+    // 잠근 일기의 글을 기본키로 수정. 수정된 행 수를 반환.
+    @Modifying
+    // native 쓰기는 바뀌는 테이블을 알려줘야 hibernate 가 2차 캐시 전체를 비우지 않는다.
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary"))
+    @Query(value = "update diary set text = :text where id = :id", nativeQuery = true)
+    int updateTextById(@Param("id") int id, @Param("text") String text);
+
+    // entity 를 읽지 않고 delete 한 문장으로 삭제. 삭제된 행 수를 반환.
     @Transactional //모두 지우기 위한 annotation
-    void deleteAllByDate(LocalDate date);
+    @Modifying
+    @Query("delete from diary d where d.date = :date")
+    int deleteAllByDate(@Param("date") LocalDate date);
+
+    // 기간 삭제용. (date, id) 인덱스만 읽어서 다음 chunk 의 key 를 가져온다.
+    @Query("select new zerobase.weather.dto.DiaryCursor(d.date, d.id) from diary d " +
+            "where d.date between :startDate and :endDate " +
+            "and (d.date > :afterDate or (d.date = :afterDate and d.id > :afterId)) " +
+            "order by d.date, d.id")
+    List<DiaryCursor> findKeysAfter(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                    @Param("afterDate") LocalDate afterDate, @Param("afterId") int afterId,
+                                    Pageable pageable);
+
+    // 삭제할 행을 잠그고 아직 남아 있는 key 만 반환한다. 날짜별로 실제 삭제된 수를 집계에 반영하는 데 쓴다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new zerobase.weather.dto.DiaryCursor(d.date, d.id) from diary d where d.id in :ids")
+    List<DiaryCursor> lockKeysByIds(@Param("ids") Collection<Integer> ids);
+
+    // 날씨 없이 또는 stale 날씨로 저장된 일기를 date_weather 의 날씨로 보정. 보정된 행 수를 반환.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary"))
+    @Query(value = "update diary d set " +
+            "weather = (select w.weather from date_weather w where w.city = :city and w.date = d.date), " +
+            "icon = (select w.icon from date_weather w where w.city = :city and w.date = d.date), " +
+            "temperature = (select w.temperature from date_weather w where w.city = :city and w.date = d.date), " +
+            "weather_stale = false " +
+            "where d.date between :startDate and :endDate and (d.weather = '' or d.weather_stale = true) " +
+            "and exists (select 1 from date_weather w where w.city = :city and w.date = d.date)",
+            nativeQuery = true)
+    int repairWeather(@Param("city") String city, @Param("startDate") LocalDate startDate,
+                      @Param("endDate") LocalDate endDate);
+
+    // 오늘 날씨는 provider 에서 다시 가져올 수 있고, 지난 날짜는 date_weather 에 날씨가 있어야 보정할 수 있다.
+    @Query("select distinct d.date from diary d where d.weatherStale = true and (d.date = :today or exists " +
+            "(select w.date from date_weather w where w.city = :city and w.date = d.date)) order by d.date")
+    List<LocalDate> findRefreshableStaleDates(@Param("city") String city, @Param("today") LocalDate today);
+
+    // 이미 저장된 접수 번호. unique index (ingest_id) 로 찾는다.
+    @Query("select d.ingestId from diary d where d.ingestId in :ingestIds")
+    List<Long> findIngestIdsIn(@Param("ingestIds") Collection<Long> ingestIds);
+
+    @Modifying
+    @Query("delete from diary d where d.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Integer> ids);
 }
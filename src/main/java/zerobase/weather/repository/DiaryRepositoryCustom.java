@@ -0,0 +1,22 @@
+package zerobase.weather.repository;
+
+import zerobase.weather.domain.Diary;
+
+import java.util.List;
+
+public interface DiaryRepositoryCustom {
+    /**
+     * hibernate 의 diary id 할당과 겹치지 않는 연속된 id count 개를 별도 트랜잭션에서 예약하고 첫번째 id 를 반환한다.
+     */
+    int reserveIds(int count);
+
+    /**
+     * 일기 접수 번호의 앞자리로 쓸 epoch 를 별도 트랜잭션에서 하나 받는다. 호출할 때마다 커지고 서버 간에 겹치지 않는다.
+     */
+    long reserveIngestEpoch();
+
+    /**
+     * id 가 정해진 일기를 JDBC batch 로 저장한다. 호출한 쪽 트랜잭션에 참여한다.
+     */
+    void insertAll(List<Diary> diaries);
+}
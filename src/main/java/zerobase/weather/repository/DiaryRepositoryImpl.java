@@ -0,0 +1,63 @@
+package zerobase.weather.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import zerobase.weather.domain.Diary;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.util.List;
+
+public class DiaryRepositoryImpl implements DiaryRepositoryCustom {
+    private static final int BATCH_SIZE = 1000;
+    // Diary 의 @TableGenerator allocationSize. hibernate(pooled)는 next_val 을 읽으면 next_val - 49 ~ next_val 을 쓴다.
+    private static final int ID_ALLOCATION_SIZE = 50;
+    private static final String INSERT_SQL = "INSERT INTO diary " +
+            "(id, weather, icon, temperature, text, date, weather_stale) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DiaryRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // hibernate 가 지금까지 쓴 id 는 next_val - 50 이하이다. next_val 다음부터 count 개를 쓰고,
+    // hibernate 가 다음에 읽을 구간이 예약한 id 와 겹치지 않도록 한 블록만큼 더 올려 둔다.
+    // id_generator 행의 lock 을 오래 잡지 않도록 일기 저장과 따로 커밋한다.
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int reserveIds(int count) {
+        Long nextVal = jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE name = 'diary' FOR UPDATE", Long.class);
+        jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE name = 'diary'",
+                nextVal + count + ID_ALLOCATION_SIZE);
+        return Math.toIntExact(nextVal + 1);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveIngestEpoch() {
+        Long nextVal = jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE name = 'diary_ingest_epoch' FOR UPDATE", Long.class);
+        jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE name = 'diary_ingest_epoch'", nextVal + 1);
+        return nextVal + 1;
+    }
+
+    @Override
+    public void insertAll(List<Diary> diaries) {
+        if (diaries.isEmpty()) {
+            return;
+        }
+        // rewriteBatchedStatements 로 MySQL 에는 multi-row insert 로 전달된다.
+        jdbcTemplate.batchUpdate(INSERT_SQL, diaries, BATCH_SIZE, (ps, diary) -> {
+            ps.setInt(1, diary.getId());
+            ps.setString(2, diary.getWeather());
+            ps.setString(3, diary.getIcon());
+            ps.setDouble(4, diary.getTemperature());
+            ps.setString(5, diary.getText());
+            ps.setDate(6, Date.valueOf(diary.getDate()));
+            ps.setBoolean(7, diary.isWeatherStale());
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package zerobase.weather.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zerobase.weather.domain.DiaryStatsDay;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DiaryStatsDayRepository extends JpaRepository<DiaryStatsDay, LocalDate> {
+    List<DiaryStatsDay> findAllByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    // diary_stats_delta 를 합칠 때만 호출한다. 읽지 않고 더하기만 하므로 재계산과 겹쳐도 증감을 덮어쓰지 않는다.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_stats_day"))
+    @Query(value = "INSERT INTO diary_stats_day (date, diary_count) VALUES (:date, :delta) " +
+            "ON DUPLICATE KEY UPDATE diary_count = diary_count + VALUES(diary_count)", nativeQuery = true)
+    int addDiaryCount(@Param("date") LocalDate date, @Param("delta") int delta);
+
+    /**
+     * 날짜별 일기 수 증감을 반영한다. 여러 날짜를 바꾸는 트랜잭션끼리 deadlock 이 나지 않도록 날짜 순서로 갱신한다.
+     * 일기를 쓰는 트랜잭션은 diary_stats_delta 에 추가만 하고, 여기는 StatsService 가 주기적으로 합칠 때 쓴다.
+     */
+    default void addDiaryCounts(Map<LocalDate, Integer> deltaByDate) {
+        new TreeMap<>(deltaByDate).forEach((date, delta) -> {
+            if (delta != 0) {
+                addDiaryCount(date, delta);
+            }
+        });
+    }
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_stats_day"))
+    @Query(value = "DELETE FROM diary_stats_day", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_stats_day"))
+    @Query(value = "INSERT INTO diary_stats_day (date, diary_count) " +
+            "SELECT date, count(*) FROM diary GROUP BY date", nativeQuery = true)
+    int insertAllFromDiary();
+}
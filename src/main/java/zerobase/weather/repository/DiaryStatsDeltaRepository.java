@@ -0,0 +1,49 @@
+package zerobase.weather.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zerobase.weather.domain.DiaryStatsDelta;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DiaryStatsDeltaRepository extends JpaRepository<DiaryStatsDelta, Long> {
+    // 날짜 행을 갱신하지 않고 추가만 하므로 같은 날짜에 동시에 쓰는 트랜잭션끼리 lock 을 기다리지 않는다.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_stats_delta"))
+    @Query(value = "INSERT INTO diary_stats_delta (date, delta) VALUES (:date, :delta)", nativeQuery = true)
+    int addDiaryCount(@Param("date") LocalDate date, @Param("delta") int delta);
+
+    default void addDiaryCounts(Map<LocalDate, Integer> deltaByDate) {
+        deltaByDate.forEach((date, delta) -> {
+            if (delta != 0) {
+                addDiaryCount(date, delta);
+            }
+        });
+    }
+
+    List<DiaryStatsDelta> findAllByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query("select d from diary_stats_delta d order by d.id")
+    List<DiaryStatsDelta> findOldest(Pageable pageable);
+
+    @Modifying
+    @Query("delete from diary_stats_delta d where d.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "diary_stats_delta"))
+    @Query(value = "DELETE FROM diary_stats_delta", nativeQuery = true)
+    int deleteAllRows();
+}
@@ -0,0 +1,72 @@
+package zerobase.weather.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zerobase.weather.domain.WeatherStatsMonth;
+import zerobase.weather.domain.WeatherStatsMonthId;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface WeatherStatsMonthRepository extends JpaRepository<WeatherStatsMonth, WeatherStatsMonthId> {
+    String SELECT_MONTH_STATS = "SELECT city, year(date) * 100 + month(date), weather, count(*), " +
+            "sum(temperature), min(temperature), max(temperature) FROM date_weather ";
+    String INSERT_MONTH_STATS = "INSERT INTO weather_stats_month " +
+            "(city, stat_month, weather, day_count, temperature_sum, temperature_min, temperature_max) ";
+
+    List<WeatherStatsMonth> findAllByCityAndStatMonthBetween(String city, int startMonth, int endMonth);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "weather_stats_month"))
+    @Query(value = "DELETE FROM weather_stats_month WHERE city = :city AND stat_month = :statMonth",
+            nativeQuery = true)
+    int deleteMonth(@Param("city") String city, @Param("statMonth") int statMonth);
+
+    // 기본키 (city, date) 범위로 한 달치만 읽어서 다시 계산한다.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "weather_stats_month"))
+    @Query(value = INSERT_MONTH_STATS + SELECT_MONTH_STATS +
+            "WHERE city = :city AND date BETWEEN :startDate AND :endDate " +
+            "GROUP BY city, year(date) * 100 + month(date), weather", nativeQuery = true)
+    int insertMonthFromDateWeather(@Param("city") String city, @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+
+    /**
+     * 날씨가 저장된 (도시, 월)의 집계를 date_weather 에서 다시 계산한다.
+     * 덮어쓴 날씨가 최저/최고 기온이었을 수도 있어서 증감 대신 월 단위로 다시 계산한다.
+     */
+    default void refreshMonths(String city, Collection<LocalDate> dates) {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        dates.forEach(date -> months.add(YearMonth.from(date)));
+        for (YearMonth month : months) {
+            deleteMonth(city, toStatMonth(month));
+            insertMonthFromDateWeather(city, month.atDay(1), month.atEndOfMonth());
+        }
+    }
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "weather_stats_month"))
+    @Query(value = "DELETE FROM weather_stats_month", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "weather_stats_month"))
+    @Query(value = INSERT_MONTH_STATS + SELECT_MONTH_STATS +
+            "GROUP BY city, year(date) * 100 + month(date), weather", nativeQuery = true)
+    int insertAllFromDateWeather();
+
+    static int toStatMonth(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+}
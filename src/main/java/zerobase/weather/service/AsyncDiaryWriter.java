@@ -0,0 +1,82 @@
+package zerobase.weather.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.dto.DiaryDto;
+
+import java.time.LocalDate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 일기 작성을 요청 thread 밖에서 처리한다.
+ * 날씨 조회(외부 API I/O)와 저장(DB)은 크기가 다른 별도 thread pool 에서 실행해서,
+ * provider 가 느려도 DB 연결과 Tomcat worker 를 붙잡지 않는다.
+ * 외부 API 를 부르지 않는 날짜의 날씨 조회는 DB 만 읽으므로 db pool 에서 실행해서 DB 연결 수가 db-threads 를 넘지 않게 한다.
+ * 대기열이 가득 차면 RejectedExecutionException 으로 바로 거절한다.
+ */
+@Component
+public class AsyncDiaryWriter implements DisposableBean {
+    private final DiaryService diaryService;
+    private final ThreadPoolExecutor ioExecutor;
+    private final ThreadPoolExecutor dbExecutor;
+
+    public AsyncDiaryWriter(DiaryService diaryService,
+                            @Value("${diary.async.io-threads:32}") int ioThreads,
+                            @Value("${diary.async.io-queue-capacity:256}") int ioQueueCapacity,
+                            @Value("${diary.async.db-threads:8}") int dbThreads,
+                            @Value("${diary.async.db-queue-capacity:256}") int dbQueueCapacity,
+                            MeterRegistry meterRegistry) {
+        this.diaryService = diaryService;
+        this.ioExecutor = new ThreadPoolExecutor(ioThreads, ioThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(ioQueueCapacity), new CustomizableThreadFactory("diary-io-"));
+        this.dbExecutor = new ThreadPoolExecutor(dbThreads, dbThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(dbQueueCapacity), new CustomizableThreadFactory("diary-db-"));
+
+        Gauge.builder("diary.async.queue", ioExecutor, executor -> executor.getQueue().size())
+                .tag("pool", "io").description("날씨 조회 대기열 크기").register(meterRegistry);
+        Gauge.builder("diary.async.queue", dbExecutor, executor -> executor.getQueue().size())
+                .tag("pool", "db").description("일기 저장 대기열 크기").register(meterRegistry);
+        Gauge.builder("diary.async.active", ioExecutor, ThreadPoolExecutor::getActiveCount)
+                .tag("pool", "io").register(meterRegistry);
+        Gauge.builder("diary.async.active", dbExecutor, ThreadPoolExecutor::getActiveCount)
+                .tag("pool", "db").register(meterRegistry);
+    }
+
+    /**
+     * io pool 에서 날씨를 조회한 뒤 db pool 에서 일기를 저장한다. 외부 API 를 부르지 않는 날짜는 조회와 저장을 모두 db pool 에서 한다.
+     * 처음 맡긴 pool 의 대기열이 가득 차면 호출한 thread 에서 바로 RejectedExecutionException 이 발생하고,
+     * io 조회 뒤에 db 대기열이 가득 차면 반환된 future 가 같은 예외로 실패한다.
+     * 저장하기 전에 expired 가 true 면(요청이 이미 시간 초과로 끝났으면) 저장하지 않고 CancellationException 으로 실패한다.
+     */
+    public CompletableFuture<DiaryDto> createDiary(LocalDate date, String text, BooleanSupplier expired) {
+        if (!diaryService.mayFetchWeather(date)) {
+            return CompletableFuture.supplyAsync(
+                    () -> save(date, text, diaryService.getDateWeather(date), expired), dbExecutor);
+        }
+        return CompletableFuture.supplyAsync(() -> diaryService.getDateWeather(date), ioExecutor)
+                .thenApplyAsync(dateWeather -> save(date, text, dateWeather, expired), dbExecutor);
+    }
+
+    private DiaryDto save(LocalDate date, String text, DateWeather dateWeather, BooleanSupplier expired) {
+        if (expired.getAsBoolean()) {
+            throw new CancellationException("create diary request expired before saving : " + date);
+        }
+        return diaryService.saveDiary(date, text, dateWeather);
+    }
+
+    @Override
+    public void destroy() {
+        ioExecutor.shutdownNow();
+        dbExecutor.shutdownNow();
+    }
+}
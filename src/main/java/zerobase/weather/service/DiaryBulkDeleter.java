@@ -0,0 +1,102 @@
+package zerobase.weather.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.dto.DeleteDiary;
+import zerobase.weather.dto.DiaryCursor;
+import zerobase.weather.event.DiaryChangedEvent;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.repository.DiaryStatsDeltaRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 기간의 일기를 chunk 단위로 나눠서 삭제한다.
+ * chunk 마다 트랜잭션을 따로 커밋해서 한 트랜잭션이 많은 행의 lock 을 오래 잡고 있지 않도록 한다.
+ */
+@Slf4j
+@Component
+public class DiaryBulkDeleter {
+    private final DiaryRepository diaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DiaryStatsDeltaRepository diaryStatsDeltaRepository;
+    private final int chunkSize;
+
+    public DiaryBulkDeleter(DiaryRepository diaryRepository, PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher,
+                            DiaryStatsDeltaRepository diaryStatsDeltaRepository,
+                            @Value("${diary.delete.chunk-size:1000}") int chunkSize) {
+        this.diaryRepository = diaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.diaryStatsDeltaRepository = diaryStatsDeltaRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Timed("diary.delete")
+    public DeleteDiary.DeleteDiariesResponse deleteBetween(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        long startedAt = System.nanoTime();
+        long deletedCount = 0;
+        int chunkCount = 0;
+
+        // 지운 위치 다음부터 읽어서 이미 지운 범위의 인덱스를 다시 훑지 않는다.
+        DiaryCursor after = DiaryCursor.first(startDate);
+        while (true) {
+            List<DiaryCursor> keys = diaryRepository.findKeysAfter(startDate, endDate,
+                    after.getDate(), after.getId(), PageRequest.of(0, chunkSize));
+            if (keys.isEmpty()) {
+                break;
+            }
+            List<Integer> ids = keys.stream().map(DiaryCursor::getId).collect(Collectors.toList());
+            Integer deleted = transactionTemplate.execute(status -> {
+                // 다른 요청이 먼저 지운 일기는 빼고 날짜별 삭제 수를 센다.
+                List<DiaryCursor> locked = diaryRepository.lockKeysByIds(ids);
+                if (locked.isEmpty()) {
+                    return 0;
+                }
+                int count = diaryRepository.deleteAllByIds(
+                        locked.stream().map(DiaryCursor::getId).collect(Collectors.toList()));
+                Map<LocalDate, Integer> deletedByDate = new HashMap<>();
+                locked.forEach(key -> deletedByDate.merge(key.getDate(), -1, Integer::sum));
+                diaryStatsDeltaRepository.addDiaryCounts(deletedByDate);
+                eventPublisher.publishEvent(DiaryChangedEvent.of(deletedByDate.keySet()));
+                return count;
+            });
+            deletedCount += deleted == null ? 0 : deleted;
+            chunkCount++;
+            after = keys.get(keys.size() - 1);
+            log.info("deleting diaries {} ~ {} : {} deleted in {} chunks, reached {}",
+                    startDate, endDate, deletedCount, chunkCount, after.getDate());
+            if (keys.size() < chunkSize) {
+                break;
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info("deleted {} diaries between {} and {} in {} ms", deletedCount, startDate, endDate, elapsedMillis);
+        return DeleteDiary.DeleteDiariesResponse.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .deletedCount(deletedCount)
+                .chunkCount(chunkCount)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package zerobase.weather.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.domain.DiaryChange;
+import zerobase.weather.domain.DiaryDateVersion;
+import zerobase.weather.dto.DiaryVersion;
+import zerobase.weather.event.DiaryChangedEvent;
+import zerobase.weather.repository.DiaryChangeRepository;
+import zerobase.weather.repository.DiaryDateVersionRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 일기 변경을 기록하고, 날짜(기간)의 버전을 일기를 읽지 않고 계산한다.
+ * 변경한 트랜잭션은 diary_change 에 한 행씩 추가만 하므로 같은 날짜에 쓰는 트랜잭션끼리 lock 을 기다리지 않는다.
+ * 버전은 diary_version 의 합과 아직 합치지 않은 변경 수의 합이라서 먼저 시작했지만 늦게 커밋된 변경도 커밋되는 순간 보이고,
+ * diary_change 는 주기적으로 날짜별로 모아 diary_version 에 합친다.
+ */
+@Component
+public class DiaryChangeTracker {
+    private final DiaryChangeRepository diaryChangeRepository;
+    private final DiaryDateVersionRepository diaryDateVersionRepository;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${diary.change.fold.batch-size:1000}")
+    private int foldBatchSize;
+
+    public DiaryChangeTracker(DiaryChangeRepository diaryChangeRepository,
+                              DiaryDateVersionRepository diaryDateVersionRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.diaryChangeRepository = diaryChangeRepository;
+        this.diaryDateVersionRepository = diaryDateVersionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onDiaryChanged(DiaryChangedEvent event) {
+        if (event.isRange()) {
+            diaryChangeRepository.addChange(event.getStartDate(), event.getEndDate());
+            return;
+        }
+        for (LocalDate date : event.getDates()) {
+            diaryChangeRepository.addChange(date, date);
+        }
+    }
+
+    /**
+     * 기간 안의 날짜별 버전 합으로 만든 strong ETag.
+     */
+    public DiaryVersion getVersion(String resource, LocalDate startDate, LocalDate endDate) {
+        return DiaryVersion.of(resource, diaryDateVersionRepository.sumVersions(startDate, endDate));
+    }
+
+    /**
+     * since 이후 일기가 바뀐 날짜.
+     */
+    public List<LocalDate> findDatesChangedSince(LocalDateTime since) {
+        // 두 조회 사이에 합쳐진 변경도 diary_version 쪽에서 보이도록 diary_change 를 먼저 읽는다.
+        SortedSet<LocalDate> dates = new TreeSet<>();
+        for (DiaryChange change : diaryChangeRepository.findAllByChangedAtGreaterThanEqual(since)) {
+            for (LocalDate date = change.getStartDate(); !date.isAfter(change.getEndDate()); date = date.plusDays(1)) {
+                dates.add(date);
+            }
+        }
+        dates.addAll(diaryDateVersionRepository.findDatesChangedSince(since));
+        return new ArrayList<>(dates);
+    }
+
+    /**
+     * 쌓인 변경을 날짜별로 세어 diary_version 에 합친다. 한번에 foldBatchSize 행씩, 남은 행이 없을 때까지 반복한다.
+     * 날짜 하나의 변경은 그 날짜 버전에 그대로 옮겨지므로 ETag 가 바뀌지 않는다.
+     * 기간 변경은 기간 안의 날짜마다 1 씩 더하므로, 여러 날짜를 묶은 ETag 는 합칠 때 한번 더 바뀔 수 있다. (줄지는 않는다)
+     */
+    @Scheduled(initialDelayString = "${diary.change.fold.interval-ms:1000}",
+            fixedDelayString = "${diary.change.fold.interval-ms:1000}")
+    public int foldChanges() {
+        int folded = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<DiaryChange> changes = diaryChangeRepository.findOldest(PageRequest.of(0, foldBatchSize));
+                if (changes.isEmpty()) {
+                    return 0;
+                }
+                // 읽은 행을 먼저 지운다. 다른 서버가 먼저 합쳐서 지운 행이 있으면 두번 더하지 않도록 되돌린다.
+                List<Long> ids = changes.stream().map(DiaryChange::getId).collect(Collectors.toList());
+                if (diaryChangeRepository.deleteAllByIds(ids) != ids.size()) {
+                    status.setRollbackOnly();
+                    return 0;
+                }
+                // 날짜 순서로 갱신해서 다른 서버에서 합치는 트랜잭션과 deadlock 이 나지 않게 한다.
+                Map<LocalDate, DiaryDateVersion> versionByDate = new TreeMap<>();
+                for (DiaryChange change : changes) {
+                    for (LocalDate date = change.getStartDate(); !date.isAfter(change.getEndDate());
+                         date = date.plusDays(1)) {
+                        DiaryDateVersion version = versionByDate.computeIfAbsent(date,
+                                key -> new DiaryDateVersion(key, 0, change.getChangedAt()));
+                        version.setVersion(version.getVersion() + 1);
+                        if (change.getChangedAt().isAfter(version.getChangedAt())) {
+                            version.setChangedAt(change.getChangedAt());
+                        }
+                    }
+                }
+                versionByDate.values().forEach(version -> diaryDateVersionRepository.addVersion(
+                        version.getDate(), version.getVersion(), version.getChangedAt()));
+                return changes.size();
+            });
+            folded += count == null ? 0 : count;
+            if (count == null || count < foldBatchSize) {
+                return folded;
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryExport;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.support.SingleRun;
+import zerobase.weather.type.DiaryFileFormat;
+import zerobase.weather.type.DiaryFileName;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * diary 테이블 전체를 gzip 으로 압축한 NDJSON/CSV 파일로 내보낸다. (데이터 웨어하우스 적재용)
+ * 읽기 전용 트랜잭션에서 cursor 로 한 줄씩 읽어서 chunk 파일에 바로 쓰므로 일기 수와 상관없이 heap 사용량이 일정하다.
+ * {exportId}.tmp 디렉토리에 chunk 와 manifest.json 을 모두 쓴 뒤 {exportId} 로 이름을 바꾸므로,
+ * 목록과 다운로드에는 끝난 내보내기만 보인다.
+ */
+@Slf4j
+@Service
+public class DiaryExportService implements DisposableBean {
+    static final String MANIFEST_FILE = "manifest.json";
+    private static final String WORK_SUFFIX = ".tmp";
+    private static final DateTimeFormatter EXPORT_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final DiaryRepository diaryRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter diaryWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService exporter;
+    private final Path directory;
+    private final SingleRun<ExportRun> currentRun = new SingleRun<>(ExportRun::isRunning);
+    @Value("${diary.export.chunk-rows:1000000}")
+    private long chunkRows;
+    // 남겨둘 내보내기 수. 오래된 것부터 지운다.
+    @Value("${diary.export.keep:7}")
+    private int keep;
+    @Value("${diary.export.format:NDJSON}")
+    private DiaryFileFormat scheduledFormat;
+
+    public DiaryExportService(DiaryRepository diaryRepository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${diary.export.dir:./data/export}") String dir) {
+        this.diaryRepository = diaryRepository;
+        this.objectMapper = objectMapper;
+        this.diaryWriter = objectMapper.writerFor(DiaryDto.class);
+        // 오래 걸리는 읽기이므로 replica 를 쓰도록 읽기 전용으로 연다.
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.exporter = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("diary-export-"));
+        this.directory = Paths.get(dir);
+    }
+
+    /**
+     * 내보내기를 시작하고 바로 반환한다. 한번에 하나만 실행된다.
+     */
+    public DiaryExport.Status start(DiaryFileFormat format) {
+        ExportRun run = new ExportRun(LocalDateTime.now().format(EXPORT_ID_FORMAT), format);
+        if (!currentRun.tryStart(run)) {
+            throw new DiaryException(ErrorCode.EXPORT_ALREADY_RUNNING);
+        }
+        log.info("diary export {} started : {}", run.exportId, format);
+        CompletableFuture.runAsync(() -> export(run), exporter);
+        return run.toStatus();
+    }
+
+    public DiaryExport.Status getStatus() {
+        ExportRun run = currentRun.get();
+        if (run == null) {
+            throw new DiaryException(ErrorCode.NULL_DATA_ERROR, "실행한 내보내기 작업이 없습니다.");
+        }
+        return run.toStatus();
+    }
+
+    @Scheduled(cron = "${diary.export.cron:0 0 2 * * *}")
+    public void scheduledExport() {
+        try {
+            start(scheduledFormat);
+        } catch (DiaryException e) {
+            log.warn("scheduled diary export skipped : {}", e.getErrorMessage());
+        }
+    }
+
+    /**
+     * 끝난 내보내기의 manifest 목록. 최근 것부터
+     */
+    public List<DiaryExport.Manifest> getExports() {
+        List<DiaryExport.Manifest> manifests = new ArrayList<>();
+        for (Path exportDirectory : completedExports()) {
+            manifests.add(readManifest(exportDirectory));
+        }
+        manifests.sort(Comparator.comparing(DiaryExport.Manifest::getExportId).reversed());
+        return manifests;
+    }
+
+    /**
+     * 다운로드할 파일의 경로. manifest 와 manifest 에 적힌 chunk 만 내려준다.
+     */
+    public Path getFile(String exportId, String file) {
+        if (!DiaryFileName.isValid(exportId) || exportId.endsWith(WORK_SUFFIX) || !DiaryFileName.isValid(file)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        Path exportDirectory = directory.resolve(exportId);
+        if (!Files.isRegularFile(exportDirectory.resolve(MANIFEST_FILE))) {
+            throw new DiaryException(ErrorCode.NULL_DATA_ERROR, "내보내기가 없습니다.");
+        }
+        boolean listed = file.equals(MANIFEST_FILE) || readManifest(exportDirectory).getChunks().stream()
+                .anyMatch(chunk -> chunk.getFile().equals(file));
+        if (!listed) {
+            throw new DiaryException(ErrorCode.NULL_DATA_ERROR, "내보내기 파일이 없습니다.");
+        }
+        return exportDirectory.resolve(file);
+    }
+
+    private void export(ExportRun run) {
+        Path workDirectory = directory.resolve(run.exportId + WORK_SUFFIX);
+        try {
+            deleteUnfinishedExports();
+            Files.createDirectories(workDirectory);
+            try (DiaryExportWriter writer = new DiaryExportWriter(workDirectory, run.format, diaryWriter, chunkRows)) {
+                run.writer = writer;
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<DiaryDto> diaries = diaryRepository.streamAllOrderById()) {
+                        for (DiaryDto diary : (Iterable<DiaryDto>) diaries::iterator) {
+                            writer.write(diary);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                List<DiaryExport.Chunk> chunks = writer.finish();
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(
+                        workDirectory.resolve(MANIFEST_FILE).toFile(),
+                        DiaryExport.Manifest.builder()
+                                .exportId(run.exportId)
+                                .format(run.format)
+                                .rowCount(writer.getTotalRows())
+                                .startedAt(run.startedAt)
+                                .completedAt(LocalDateTime.now())
+                                .chunks(chunks)
+                                .build());
+                run.chunkCount = chunks.size();
+            }
+            Files.move(workDirectory, directory.resolve(run.exportId), StandardCopyOption.ATOMIC_MOVE);
+            run.finish("COMPLETED");
+            log.info("diary export {} completed : {} rows in {} chunks",
+                    run.exportId, run.getRowCount(), run.chunkCount);
+            deleteOldExports();
+        } catch (IOException | RuntimeException e) {
+            run.finish("FAILED");
+            log.error("diary export {} failed", run.exportId, e);
+            deleteQuietly(workDirectory);
+        }
+    }
+
+    private List<Path> completedExports() {
+        List<Path> exports = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return exports;
+        }
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            for (Path child : children) {
+                if (Files.isRegularFile(child.resolve(MANIFEST_FILE))
+                        && !child.getFileName().toString().endsWith(WORK_SUFFIX)) {
+                    exports.add(child);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return exports;
+    }
+
+    private DiaryExport.Manifest readManifest(Path exportDirectory) {
+        try {
+            return objectMapper.readValue(exportDirectory.resolve(MANIFEST_FILE).toFile(), DiaryExport.Manifest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 내보내기는 한번에 하나만 실행되므로 남아 있는 작업 디렉토리는 이전 실행이 중간에 멈춘 흔적이다.
+    private void deleteUnfinishedExports() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory, "*" + WORK_SUFFIX)) {
+            for (Path child : children) {
+                deleteQuietly(child);
+            }
+        }
+    }
+
+    private void deleteOldExports() {
+        List<Path> exports = completedExports();
+        exports.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed());
+        for (int i = keep; i < exports.size(); i++) {
+            deleteQuietly(exports.get(i));
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            FileSystemUtils.deleteRecursively(path);
+        } catch (IOException e) {
+            log.warn("failed to delete {} : {}", path, e.toString());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        exporter.shutdownNow();
+    }
+
+    private static class ExportRun {
+        private final String exportId;
+        private final DiaryFileFormat format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile DiaryExportWriter writer;
+        private volatile long rowCount;
+        private volatile int chunkCount;
+        private volatile String state = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+
+        private ExportRun(String exportId, DiaryFileFormat format) {
+            this.exportId = exportId;
+            this.format = format;
+        }
+
+        private boolean isRunning() {
+            return finishedAt == null;
+        }
+
+        private long getRowCount() {
+            DiaryExportWriter current = writer;
+            return current == null ? rowCount : current.getTotalRows();
+        }
+
+        private void finish(String state) {
+            this.rowCount = getRowCount();
+            this.writer = null;
+            this.state = state;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        private DiaryExport.Status toStatus() {
+            return DiaryExport.Status.builder()
+                    .exportId(exportId)
+                    .state(state)
+                    .format(format)
+                    .rowCount(getRowCount())
+                    .chunkCount(chunkCount)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
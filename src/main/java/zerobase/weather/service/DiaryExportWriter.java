@@ -0,0 +1,150 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryExport;
+import zerobase.weather.type.DiaryFileFormat;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 일기를 chunkRows 개씩 gzip 파일로 나눠 쓴다. 파일마다 압축된 바이트의 SHA-256 을 쓰면서 같이 계산한다.
+ * 한번에 한 줄씩만 메모리에 두므로 전체 일기 수와 상관없이 buffer 크기만큼만 쓴다.
+ */
+class DiaryExportWriter implements Closeable {
+    static final String CSV_HEADER = "id,date,weather,icon,temperature,weather_stale,text\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final DiaryFileFormat format;
+    private final ObjectWriter jsonWriter;
+    private final long chunkRows;
+    private final List<DiaryExport.Chunk> chunks = new ArrayList<>();
+
+    private Writer writer;
+    private MessageDigest digest;
+    private Path file;
+    private long rows;
+    // 진행 상황 조회용으로 다른 thread 에서 읽는다.
+    private volatile long totalRows;
+
+    DiaryExportWriter(Path directory, DiaryFileFormat format, ObjectWriter jsonWriter, long chunkRows) {
+        this.directory = directory;
+        this.format = format;
+        this.jsonWriter = jsonWriter;
+        this.chunkRows = chunkRows;
+    }
+
+    void write(DiaryDto diary) throws IOException {
+        if (writer == null) {
+            openChunk();
+        }
+        if (format == DiaryFileFormat.NDJSON) {
+            writer.write(jsonWriter.writeValueAsString(diary));
+            writer.write('\n');
+        } else {
+            writeCsv(diary);
+        }
+        rows++;
+        totalRows++;
+        if (rows >= chunkRows) {
+            closeChunk();
+        }
+    }
+
+    /**
+     * 쓰던 chunk 를 닫고 지금까지 쓴 chunk 목록을 반환한다.
+     */
+    List<DiaryExport.Chunk> finish() throws IOException {
+        closeChunk();
+        return Collections.unmodifiableList(chunks);
+    }
+
+    long getTotalRows() {
+        return totalRows;
+    }
+
+    private void openChunk() throws IOException {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        file = directory.resolve(String.format("diary-%05d.%s.gz", chunks.size() + 1, format.getExtension()));
+        rows = 0;
+        writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE), digest),
+                BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == DiaryFileFormat.CSV) {
+            // chunk 마다 header 를 넣어서 파일 하나만 받아도 읽을 수 있게 한다.
+            writer.write(CSV_HEADER);
+        }
+    }
+
+    private void closeChunk() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.close();
+        writer = null;
+        chunks.add(DiaryExport.Chunk.builder()
+                .file(file.getFileName().toString())
+                .rowCount(rows)
+                .bytes(Files.size(file))
+                .sha256(String.format("%064x", new BigInteger(1, digest.digest())))
+                .build());
+    }
+
+    private void writeCsv(DiaryDto diary) throws IOException {
+        writer.write(Integer.toString(diary.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(diary.getDate()));
+        writer.write(',');
+        writer.write(csvField(diary.getWeather()));
+        writer.write(',');
+        writer.write(csvField(diary.getIcon()));
+        writer.write(',');
+        writer.write(Double.toString(diary.getTemperature()));
+        writer.write(',');
+        writer.write(Boolean.toString(diary.isWeatherStale()));
+        writer.write(',');
+        writer.write(csvField(diary.getText()));
+        writer.write('\n');
+    }
+
+    // RFC 4180 : 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두번 쓴다.
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // 실패해서 finish 하지 못한 경우 열려 있는 파일을 닫는다.
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
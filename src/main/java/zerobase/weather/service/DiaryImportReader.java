@@ -0,0 +1,259 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.type.DiaryFileFormat;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 가져올 파일을 앞에서부터 한 행씩 읽어서 검증한다. .gz 로 끝나면 압축을 풀면서 읽는다.
+ * NDJSON 은 줄마다 date, text 가 있는 JSON 객체, CSV 는 header 에 date, text 열이 있어야 한다. (내보내기 형식과 같음)
+ * 나머지 열은 무시하고 날씨는 date_weather 에서 다시 찾는다.
+ */
+class DiaryImportReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 따옴표가 닫히지 않은 CSV 가 나머지 파일을 한 칸으로 읽어 들이지 않도록 칸 길이를 제한한다.
+    private static final int MAX_FIELD_LENGTH = 8 * 1024;
+    private static final LocalDate MAX_DATE = LocalDate.ofYearDay(3050, 1);
+
+    private final BufferedReader reader;
+    private final DiaryFileFormat format;
+    private final ObjectMapper objectMapper;
+    private int dateColumn = -1;
+    private int textColumn = -1;
+    private long recordNo;
+    // 마지막으로 읽은 CSV 행의 오류. 정상이면 null
+    private String csvRowError;
+
+    private DiaryImportReader(BufferedReader reader, DiaryFileFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    static DiaryImportReader open(Path file, DiaryFileFormat format, ObjectMapper objectMapper) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        DiaryImportReader importReader = new DiaryImportReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE),
+                format, objectMapper);
+        try {
+            importReader.skipByteOrderMark();
+            if (format == DiaryFileFormat.CSV) {
+                importReader.readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            importReader.close();
+            throw e;
+        }
+        return importReader;
+    }
+
+    /**
+     * 다음 행. 파일 끝이면 null. 빈 줄은 건너뛰고 행 번호도 세지 않는다.
+     */
+    Record next() throws IOException {
+        return format == DiaryFileFormat.NDJSON ? nextJson() : nextCsv();
+    }
+
+    private Record nextJson() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+        recordNo++;
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return Record.rejected(recordNo, "JSON 형식이 아닙니다.");
+        }
+        if (!node.isObject()) {
+            return Record.rejected(recordNo, "JSON 객체가 아닙니다.");
+        }
+        return toRecord(textOf(node, "date"), textOf(node, "text"));
+    }
+
+    private Record nextCsv() throws IOException {
+        List<String> row;
+        do {
+            row = readCsvRow();
+            if (row == null) {
+                return null;
+            }
+        } while (row.size() == 1 && row.get(0).isEmpty() && csvRowError == null);
+        recordNo++;
+        if (csvRowError != null) {
+            return Record.rejected(recordNo, csvRowError);
+        }
+        return toRecord(column(row, dateColumn), column(row, textColumn));
+    }
+
+    private Record toRecord(String dateText, String text) {
+        LocalDate date;
+        try {
+            date = dateText == null ? null : LocalDate.parse(dateText.trim());
+        } catch (DateTimeParseException e) {
+            date = null;
+        }
+        if (date == null || date.isAfter(MAX_DATE)) {
+            return Record.rejected(recordNo, "날짜가 없거나 형식(yyyy-MM-dd)이 잘못되었습니다.");
+        }
+        if (text == null || text.trim().isEmpty()) {
+            return Record.rejected(recordNo, "일기 내용이 없습니다.");
+        }
+        if (text.codePointCount(0, text.length()) > Diary.MAX_TEXT_LENGTH) {
+            return Record.rejected(recordNo, "일기 내용은 " + Diary.MAX_TEXT_LENGTH + "자를 넘을 수 없습니다.");
+        }
+        return new Record(recordNo, date, text, null);
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readCsvRow();
+        if (header != null && csvRowError == null) {
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase();
+                if (name.equals("date")) {
+                    dateColumn = i;
+                } else if (name.equals("text")) {
+                    textColumn = i;
+                }
+            }
+        }
+        if (dateColumn < 0 || textColumn < 0) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST, "CSV 첫 줄에 date, text 열이 있어야 합니다.");
+        }
+    }
+
+    // RFC 4180 한 행. 따옴표 안의 쉼표와 줄바꿈은 값으로 읽는다. 파일 끝이면 null
+    private List<String> readCsvRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        csvRowError = null;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    csvRowError = "따옴표가 닫히지 않았습니다.";
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                append(field, c);
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c != '\r') {
+                append(field, c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private void append(StringBuilder field, int c) {
+        if (field.length() < MAX_FIELD_LENGTH) {
+            field.append((char) c);
+        } else {
+            csvRowError = "값이 너무 깁니다.";
+        }
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    private static String textOf(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String column(List<String> row, int index) {
+        return index < row.size() ? row.get(index) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static class Record {
+        private final long recordNo;
+        private final LocalDate date;
+        private final String text;
+        // 검증에 실패한 이유. 정상이면 null
+        private final String error;
+
+        private Record(long recordNo, LocalDate date, String text, String error) {
+            this.recordNo = recordNo;
+            this.date = date;
+            this.text = text;
+            this.error = error;
+        }
+
+        private static Record rejected(long recordNo, String error) {
+            return new Record(recordNo, null, null, error);
+        }
+
+        long getRecordNo() {
+            return recordNo;
+        }
+
+        LocalDate getDate() {
+            return date;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        String getError() {
+            return error;
+        }
+
+        boolean isValid() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.domain.DiaryImportChunk;
+import zerobase.weather.dto.DiaryImport;
+import zerobase.weather.event.DiaryChangedEvent;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryImportChunkRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.repository.DiaryStatsDeltaRepository;
+import zerobase.weather.support.SingleRun;
+import zerobase.weather.type.DiaryFileFormat;
+import zerobase.weather.type.DiaryFileName;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 다른 앱에서 옮겨오는 대량의 일기를 NDJSON/CSV 파일에서 가져온다.
+ * 파일은 한 thread 가 앞에서부터 읽으면서 chunkRows 행씩 나누고, 구간마다 worker 가
+ * 날씨를 날짜별로 한번에 찾아서 JDBC batch 로 저장한다. 구간마다 따로 커밋하고 diary_import_chunk 에 기록을 남기므로,
+ * 중간에 멈춰도 같은 importId 로 다시 실행하면 끝난 구간을 건너뛴다.
+ * 구간 기록에는 파일의 크기와 수정 시각을 함께 남겨서, 파일이나 구간 크기가 바뀐 뒤에는 이어서 가져오지 않는다.
+ * 읽는 쪽은 worker 가 처리 중인 구간이 threads * 2 개를 넘으면 기다리므로 파일 크기와 상관없이 메모리 사용량이 일정하다.
+ */
+@Slf4j
+@Service
+public class DiaryImportService implements DisposableBean {
+    private final DiaryRepository diaryRepository;
+    private final DateWeatherRepository dateWeatherRepository;
+    private final DiaryImportChunkRepository diaryImportChunkRepository;
+    private final DiaryStatsDeltaRepository diaryStatsDeltaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService reader;
+    private final ExecutorService workers;
+    private final int threads;
+    private final Path directory;
+    private final SingleRun<ImportRun> currentRun = new SingleRun<>(ImportRun::isRunning);
+    @Value("${diary.import.chunk-rows:5000}")
+    private int chunkRows;
+    @Value("${diary.import.max-errors:100}")
+    private int maxErrors;
+    // 일기는 기본 도시의 날씨로 저장한다.
+    @Value("${openweathermap.city:seoul}")
+    private String city;
+
+    public DiaryImportService(DiaryRepository diaryRepository, DateWeatherRepository dateWeatherRepository,
+                              DiaryImportChunkRepository diaryImportChunkRepository,
+                              DiaryStatsDeltaRepository diaryStatsDeltaRepository,
+                              ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${diary.import.dir:./data/import}") String dir,
+                              @Value("${diary.import.threads:4}") int threads) {
+        this.diaryRepository = diaryRepository;
+        this.dateWeatherRepository = dateWeatherRepository;
+        this.diaryImportChunkRepository = diaryImportChunkRepository;
+        this.diaryStatsDeltaRepository = diaryStatsDeltaRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reader = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("diary-import-reader-"));
+        this.workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("diary-import-"));
+        this.threads = threads;
+        this.directory = Paths.get(dir);
+    }
+
+    /**
+     * 요청 본문을 가져오기 디렉토리에 파일로 저장한다. 다 받은 뒤에 이름을 바꾸므로 받는 중인 파일은 가져올 수 없다.
+     */
+    public DiaryImport.UploadResponse upload(String file, InputStream body) throws IOException {
+        Path target = DiaryFileName.resolve(directory, file);
+        Path temporary = directory.resolve(file + ".uploading");
+        Files.createDirectories(directory);
+        try {
+            long bytes = Files.copy(body, temporary, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("diary import file uploaded : {} ({} bytes)", file, bytes);
+            return DiaryImport.UploadResponse.builder().file(file).bytes(bytes).build();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * 가져오기를 시작하고 바로 반환한다. 한번에 하나만 실행된다.
+     * importId 를 생략하면 파일 이름과 크기, 수정 시각을 쓰므로 같은 이름으로 다시 올린 파일은 처음부터 가져온다.
+     * 같은 importId 로 다시 실행하면 끝난 구간은 건너뛰는데, 그 사이 파일이나 구간 크기가 바뀌었으면 거절한다.
+     */
+    public DiaryImport.Status start(String file, DiaryFileFormat format, String importId) throws IOException {
+        Path path = DiaryFileName.resolve(directory, file);
+        if (!Files.isRegularFile(path)) {
+            throw new DiaryException(ErrorCode.NULL_DATA_ERROR, "가져올 파일이 없습니다.");
+        }
+        DiaryFileFormat fileFormat = format != null ? format : formatOf(file);
+        String fingerprint = Files.size(path) + "-" + Files.getLastModifiedTime(path).toMillis();
+        String id = importId == null || importId.trim().isEmpty() ? file + "@" + fingerprint : importId.trim();
+        if (id.length() > 100) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        checkResumable(id, fingerprint);
+
+        ImportRun run = new ImportRun(id, file, fingerprint, fileFormat);
+        if (!currentRun.tryStart(run)) {
+            throw new DiaryException(ErrorCode.IMPORT_ALREADY_RUNNING);
+        }
+        log.info("diary import {} started : {} ({})", id, file, fileFormat);
+        reader.execute(() -> read(run, path));
+        return run.toStatus();
+    }
+
+    public DiaryImport.Status getStatus() {
+        ImportRun run = currentRun.get();
+        if (run == null) {
+            throw new DiaryException(ErrorCode.NULL_DATA_ERROR, "실행한 가져오기 작업이 없습니다.");
+        }
+        return run.toStatus();
+    }
+
+    // 남은 구간 기록이 지금 파일과 chunkRows 로 나눈 구간과 같아야 건너뛸 수 있다.
+    private void checkResumable(String importId, String fingerprint) {
+        List<DiaryImportChunk> chunks = diaryImportChunkRepository.findAllByImportId(importId);
+        int lastChunkNo = chunks.stream().mapToInt(DiaryImportChunk::getChunkNo).max().orElse(-1);
+        for (DiaryImportChunk chunk : chunks) {
+            if (chunk.getSourceFingerprint() != null && !chunk.getSourceFingerprint().equals(fingerprint)) {
+                throw new DiaryException(ErrorCode.IMPORT_NOT_RESUMABLE,
+                        "이전 실행 뒤에 파일이 바뀌었습니다. 다른 importId 로 가져와야 합니다.");
+            }
+            boolean sameChunk = chunk.getFirstRecord() == (long) chunk.getChunkNo() * chunkRows + 1
+                    && (chunk.getRecordCount() == chunkRows
+                    || (chunk.getChunkNo() == lastChunkNo && chunk.getRecordCount() < chunkRows));
+            if (!sameChunk) {
+                throw new DiaryException(ErrorCode.IMPORT_NOT_RESUMABLE,
+                        "이전 실행과 구간 크기(diary.import.chunk-rows)가 다릅니다.");
+            }
+        }
+    }
+
+    private void read(ImportRun run, Path path) {
+        // 구간 하나가 chunkRows 행을 들고 있으므로 동시에 메모리에 올라가는 구간 수를 제한한다.
+        int maxInFlight = threads * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        boolean readFailed = false;
+        try (DiaryImportReader importReader = DiaryImportReader.open(path, run.format, objectMapper)) {
+            Map<Integer, DiaryImportChunk> completed = diaryImportChunkRepository.findAllByImportId(run.importId)
+                    .stream().collect(Collectors.toMap(DiaryImportChunk::getChunkNo, Function.identity()));
+            int chunkNo = 0;
+            List<DiaryImportReader.Record> records = new ArrayList<>();
+            DiaryImportReader.Record record;
+            while ((record = importReader.next()) != null) {
+                run.readRecords.incrementAndGet();
+                // 끝난 구간도 행 번호로 구간을 나누기 위해 끝까지 읽지만 보관하지는 않는다.
+                if (!completed.containsKey(chunkNo)) {
+                    records.add(record);
+                    if (!record.isValid()) {
+                        run.addError(record.getRecordNo(), record.getError(), maxErrors);
+                    }
+                }
+                if (record.getRecordNo() % chunkRows == 0) {
+                    dispatch(run, chunkNo, chunkRows, records, completed.get(chunkNo), inFlight);
+                    chunkNo++;
+                    records = new ArrayList<>();
+                }
+            }
+            if (run.readRecords.get() % chunkRows != 0) {
+                dispatch(run, chunkNo, (int) (run.readRecords.get() % chunkRows), records,
+                        completed.get(chunkNo), inFlight);
+            }
+        } catch (IOException | RuntimeException e) {
+            readFailed = true;
+            log.error("diary import {} failed while reading {}", run.importId, path, e);
+        } catch (InterruptedException e) {
+            readFailed = true;
+            Thread.currentThread().interrupt();
+        }
+        // 처리 중인 구간이 모두 끝날 때까지 기다린다.
+        inFlight.acquireUninterruptibly(maxInFlight);
+        run.finish(readFailed || run.failedChunks.get() > 0 ? "FAILED" : "COMPLETED");
+        log.info("diary import {} finished : {} imported, {} rejected, {} failed chunks, {} rows/s",
+                run.importId, run.importedRows.get(), run.rejectedRows.get(), run.failedChunks.get(),
+                String.format("%.1f", run.rowsPerSecond()));
+    }
+
+    private void dispatch(ImportRun run, int chunkNo, int recordCount, List<DiaryImportReader.Record> records,
+                          DiaryImportChunk completed, Semaphore inFlight) throws InterruptedException {
+        if (completed != null) {
+            // 크기와 수정 시각을 유지한 채 내용만 바뀐 경우. 이미 저장한 구간과 행이 어긋나므로 더 읽지 않는다.
+            if (completed.getRecordCount() != recordCount) {
+                throw new IllegalStateException("chunk " + chunkNo + " had " + completed.getRecordCount()
+                        + " records but now has " + recordCount);
+            }
+            run.skippedChunks.incrementAndGet();
+            run.importedRows.addAndGet(completed.getImportedCount());
+            run.rejectedRows.addAndGet(completed.getRejectedCount());
+            return;
+        }
+        inFlight.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    importChunk(run, chunkNo, records);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void importChunk(ImportRun run, int chunkNo, List<DiaryImportReader.Record> records) {
+        try {
+            List<Diary> diaries = new ArrayList<>(records.size());
+            Set<LocalDate> dates = new TreeSet<>();
+            int rejected = 0;
+            for (DiaryImportReader.Record record : records) {
+                if (record.isValid()) {
+                    dates.add(record.getDate());
+                } else {
+                    rejected++;
+                }
+            }
+            // 날씨는 구간 안의 날짜를 한번에 조회한다. 없는 날짜는 빈 날씨로 저장하고 날씨 보정 작업이 채운다.
+            Map<LocalDate, DateWeather> dateWeatherByDate = new HashMap<>();
+            if (!dates.isEmpty()) {
+                for (DateWeather dateWeather : dateWeatherRepository.findAllByCityAndDateIn(city, dates)) {
+                    dateWeatherByDate.put(dateWeather.getDate(), dateWeather);
+                }
+            }
+            Map<LocalDate, Integer> countByDate = new TreeMap<>();
+            for (DiaryImportReader.Record record : records) {
+                if (!record.isValid()) {
+                    continue;
+                }
+                DateWeather dateWeather = dateWeatherByDate.get(record.getDate());
+                diaries.add(Diary.builder()
+                        .date(record.getDate())
+                        .text(record.getText())
+                        .weather(dateWeather == null ? "" : dateWeather.getWeather())
+                        .icon(dateWeather == null ? "" : dateWeather.getIcon())
+                        .temperature(dateWeather == null ? 0 : dateWeather.getTemperature())
+                        .build());
+                countByDate.merge(record.getDate(), 1, Integer::sum);
+            }
+            if (!diaries.isEmpty()) {
+                int id = diaryRepository.reserveIds(diaries.size());
+                for (Diary diary : diaries) {
+                    diary.setId(id++);
+                }
+            }
+
+            int rejectedCount = rejected;
+            long firstRecord = (long) chunkNo * chunkRows + 1;
+            transactionTemplate.executeWithoutResult(status -> {
+                // 구간 기록을 먼저 남겨서 같은 구간을 동시에 가져오는 실행은 여기서 기다렸다가 실패한다.
+                diaryImportChunkRepository.insertChunk(run.importId, chunkNo, firstRecord, records.size(),
+                        diaries.size(), rejectedCount, run.fingerprint);
+                diaryRepository.insertAll(diaries);
+                diaryStatsDeltaRepository.addDiaryCounts(countByDate);
+                if (!countByDate.isEmpty()) {
+                    eventPublisher.publishEvent(DiaryChangedEvent.of(countByDate.keySet()));
+                }
+            });
+            run.importedRows.addAndGet(diaries.size());
+            run.rejectedRows.addAndGet(rejectedCount);
+            run.newRows.addAndGet(diaries.size());
+            run.completedChunks.incrementAndGet();
+        } catch (RuntimeException e) {
+            run.failedChunks.incrementAndGet();
+            log.error("diary import {} chunk {} failed", run.importId, chunkNo, e);
+        }
+    }
+
+    // users.ndjson, users.csv.gz 처럼 확장자로 형식을 정한다.
+    private static DiaryFileFormat formatOf(String file) {
+        String name = file.endsWith(".gz") ? file.substring(0, file.length() - ".gz".length()) : file;
+        for (DiaryFileFormat format : DiaryFileFormat.values()) {
+            if (name.endsWith("." + format.getExtension())) {
+                return format;
+            }
+        }
+        throw new DiaryException(ErrorCode.INVALID_REQUEST, "파일 형식(NDJSON, CSV)을 지정해야 합니다.");
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        reader.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static class ImportRun {
+        private final String importId;
+        private final String file;
+        private final String fingerprint;
+        private final DiaryFileFormat format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong readRecords = new AtomicLong();
+        private final AtomicLong importedRows = new AtomicLong();
+        private final AtomicLong rejectedRows = new AtomicLong();
+        // 이번 실행에서 저장한 일기 수. 처리량 계산용
+        private final AtomicLong newRows = new AtomicLong();
+        private final AtomicInteger completedChunks = new AtomicInteger();
+        private final AtomicInteger skippedChunks = new AtomicInteger();
+        private final AtomicInteger failedChunks = new AtomicInteger();
+        private final AtomicInteger errorCount = new AtomicInteger();
+        private final ConcurrentLinkedQueue<DiaryImport.RowError> errors = new ConcurrentLinkedQueue<>();
+        private volatile String state = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+
+        private ImportRun(String importId, String file, String fingerprint, DiaryFileFormat format) {
+            this.importId = importId;
+            this.file = file;
+            this.fingerprint = fingerprint;
+            this.format = format;
+        }
+
+        private boolean isRunning() {
+            return finishedAt == null;
+        }
+
+        // 읽는 thread 에서만 추가하므로 파일 앞쪽의 오류부터 남는다.
+        private void addError(long record, String message, int maxErrors) {
+            if (errorCount.incrementAndGet() <= maxErrors) {
+                errors.add(new DiaryImport.RowError(record, message));
+            }
+        }
+
+        private double rowsPerSecond() {
+            long end = finishedAt == null ? System.nanoTime() : finishedNanos;
+            double seconds = (end - startedNanos) / 1_000_000_000.0;
+            return seconds <= 0 ? 0 : newRows.get() / seconds;
+        }
+
+        private void finish(String state) {
+            this.finishedNanos = System.nanoTime();
+            this.state = state;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        private DiaryImport.Status toStatus() {
+            return DiaryImport.Status.builder()
+                    .importId(importId)
+                    .file(file)
+                    .format(format)
+                    .state(state)
+                    .readRecords(readRecords.get())
+                    .importedRows(importedRows.get())
+                    .rejectedRows(rejectedRows.get())
+                    .completedChunks(completedChunks.get())
+                    .skippedChunks(skippedChunks.get())
+                    .failedChunks(failedChunks.get())
+                    .rowsPerSecond(rowsPerSecond())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .errors(new ArrayList<>(errors))
+                    .build();
+        }
+    }
+}
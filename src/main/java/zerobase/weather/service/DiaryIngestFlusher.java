@@ -0,0 +1,86 @@
+package zerobase.weather.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.dto.DiaryIngestEntry;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ingest log 에 쌓인 일기를 batch 로 DB 에 반영한다.
+ * 날씨는 batch 안의 날짜별로 한번만 조회하고, 저장이 끝나면 offset 을 남긴다.
+ * 실패하면 log 에 그대로 남아 있으므로 다음 주기에 같은 batch 부터 다시 시도한다.
+ * 다만 DB 가 거부한 batch(제약 조건 위반 등)는 다시 해도 실패하므로 한 건씩 저장하고, 저장되지 않는 접수는 dead-letter 로 옮긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "diary.ingest.enabled", havingValue = "true")
+public class DiaryIngestFlusher {
+    private final DiaryIngestLog diaryIngestLog;
+    private final DiaryService diaryService;
+    private final int batchSize;
+
+    public DiaryIngestFlusher(DiaryIngestLog diaryIngestLog, DiaryService diaryService,
+                              @Value("${diary.ingest.batch-size:500}") int batchSize) {
+        this.diaryIngestLog = diaryIngestLog;
+        this.diaryService = diaryService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${diary.ingest.flush-interval-ms:200}")
+    public void flush() {
+        try {
+            List<DiaryIngestEntry> entries;
+            while (!(entries = diaryIngestLog.peekUnflushed(batchSize)).isEmpty()) {
+                flushBatch(entries);
+            }
+        } catch (RuntimeException | IOException e) {
+            log.warn("failed to flush ingested diaries, will retry : {}", e.toString());
+        }
+    }
+
+    private void flushBatch(List<DiaryIngestEntry> entries) throws IOException {
+        // 날씨 조회는 트랜잭션 밖에서 하고 저장만 한번의 트랜잭션으로 묶는다.
+        Map<LocalDate, DateWeather> dateWeatherByDate = new HashMap<>();
+        for (DiaryIngestEntry entry : entries) {
+            dateWeatherByDate.computeIfAbsent(entry.getDate(), diaryService::getDateWeather);
+        }
+        int saved;
+        try {
+            saved = diaryService.saveIngestedDiaries(entries, dateWeatherByDate);
+        } catch (NonTransientDataAccessException e) {
+            log.warn("failed to flush {} ingested diaries as a batch, retrying one by one : {}",
+                    entries.size(), e.toString());
+            saved = flushEach(entries, dateWeatherByDate);
+        }
+        long lastId = entries.get(entries.size() - 1).getId();
+        diaryIngestLog.markFlushed(lastId);
+        log.debug("flushed {} ingested diaries up to {}", saved, lastId);
+    }
+
+    // 한 건씩 저장해서 DB 가 거부하는 접수만 dead-letter 로 옮긴다.
+    // 그 밖의 오류(연결 실패 등)는 flush 까지 올라가고, 다음 주기에 아직 반영하지 않은 접수부터 다시 시도한다.
+    private int flushEach(List<DiaryIngestEntry> entries, Map<LocalDate, DateWeather> dateWeatherByDate)
+            throws IOException {
+        int saved = 0;
+        for (DiaryIngestEntry entry : entries) {
+            try {
+                saved += diaryService.saveIngestedDiaries(Collections.singletonList(entry), dateWeatherByDate);
+            } catch (NonTransientDataAccessException e) {
+                diaryIngestLog.deadLetter(entry, e.getMostSpecificCause().toString());
+            }
+            diaryIngestLog.markFlushed(entry.getId());
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,474 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.DiaryIngestEntry;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * write-behind 일기 접수용 append-only log.
+ * 접수된 일기는 한 줄짜리 JSON 으로 log 파일 끝에 쓰고, 동시에 들어온 접수는 한번의 fsync 로 묶어서(group commit)
+ * 디스크에 남긴 뒤에 접수 번호를 돌려준다. DB 에 반영된 마지막 접수 번호는 offset 파일에 남기고,
+ * 재시작하면 offset 이후의 접수를 다시 읽어서 반영 대기 목록에 올린다.
+ * log 는 segmentBytes 마다 첫 접수 번호를 이름에 붙인 segment 파일로 나누고, 모두 반영된 segment 는 지운다.
+ * 접수 번호는 log 를 열 때 DB 에서 받은 epoch 를 앞 32 bit 에, log 안의 순번을 뒤 32 bit 에 둔다.
+ * 그래서 여러 서버가 같은 DB 에 반영하거나 log 디렉토리가 지워져도 번호가 겹치지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "diary.ingest.enabled", havingValue = "true")
+public class DiaryIngestLog implements DisposableBean {
+    // segment 로 나누기 전의 log 파일. 남아 있으면 가장 앞의 segment 로 읽는다.
+    private static final String LEGACY_LOG_FILE = "diary-ingest.log";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("diary-ingest-(\\d+)\\.log");
+    private static final String OFFSET_FILE = "diary-ingest.offset";
+    private static final String DEAD_LETTER_FILE = "diary-ingest.dead";
+    private static final int MAX_GROUP_COMMIT = 1000;
+    private static final int EPOCH_SHIFT = 32;
+
+    private final ObjectMapper objectMapper;
+    private final DiaryRepository diaryRepository;
+    private final Path directory;
+    private final Path offsetPath;
+    private final Path deadLetterPath;
+    private final long segmentBytes;
+    private final Counter deadLetterCounter;
+    private final BlockingQueue<PendingAppend> appendQueue;
+    // fsync 가 끝났지만 아직 DB 에 반영되지 않은 접수. 접수 번호 순서.
+    private final Deque<DiaryIngestEntry> unflushed = new ArrayDeque<>();
+    // 다 써서 닫은 segment. 오래된 순서.
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    // 아래 값은 this 로 잠그고 읽고 쓴다.
+    private Path activePath;
+    private FileChannel channel;
+    private long flushedId;
+    // 아래 값은 생성 중에는 생성자가, 그 뒤에는 writer thread 만 바꾼다.
+    private long lastId;
+    // 다음에 줄 접수 번호와 지금 epoch 에서 줄 수 있는 마지막 번호
+    private long nextId;
+    private long epochLastId;
+
+    public DiaryIngestLog(ObjectMapper objectMapper,
+                          @Value("${diary.ingest.dir:./data/ingest}") String dir,
+                          @Value("${diary.ingest.queue-capacity:10000}") int queueCapacity,
+                          @Value("${diary.ingest.segment-bytes:67108864}") long segmentBytes,
+                          DiaryRepository diaryRepository,
+                          MeterRegistry meterRegistry) throws IOException {
+        this.objectMapper = objectMapper;
+        this.diaryRepository = diaryRepository;
+        this.directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        this.offsetPath = directory.resolve(OFFSET_FILE);
+        this.deadLetterPath = directory.resolve(DEAD_LETTER_FILE);
+        this.segmentBytes = segmentBytes;
+        this.appendQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.flushedId = readOffset();
+        this.lastId = flushedId;
+        try {
+            replay();
+            useEpoch(reserveEpoch());
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            throw e;
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("diary-ingest-writer-");
+        threadFactory.setDaemon(true);
+        this.writer = threadFactory.newThread(this::writeLoop);
+        writer.start();
+
+        Gauge.builder("diary.ingest.unflushed", this, DiaryIngestLog::unflushedCount)
+                .description("log 에 기록됐지만 DB 에 반영되지 않은 일기 수").register(meterRegistry);
+        Gauge.builder("diary.ingest.queue", appendQueue, BlockingQueue::size)
+                .description("log 기록을 기다리는 접수 수").register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("diary.ingest.dead.letters")
+                .description("DB 에 저장하지 못해 dead-letter 파일로 옮긴 접수 수").register(meterRegistry);
+    }
+
+    /**
+     * log 에 기록하고 fsync 가 끝나면 접수 번호로 완료되는 future 를 반환한다.
+     * 기록 대기열이 가득 차면 RejectedExecutionException 으로 바로 거절한다.
+     * DB 에 넣을 수 없는 접수가 log 에 남아 뒤의 접수를 막지 않도록 날짜와 길이는 여기서 검증한다.
+     */
+    public CompletableFuture<Long> append(LocalDate date, String text) {
+        if (date == null || date.isAfter(LocalDate.ofYearDay(3050, 1))) {
+            throw new DiaryException(ErrorCode.INVALID_DATE);
+        }
+        if (text == null || text.codePointCount(0, text.length()) > Diary.MAX_TEXT_LENGTH) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST,
+                    "일기 내용은 " + Diary.MAX_TEXT_LENGTH + "자를 넘을 수 없습니다.");
+        }
+        PendingAppend pending = new PendingAppend(date, text);
+        if (!running || !appendQueue.offer(pending)) {
+            throw new RejectedExecutionException("diary ingest queue is full");
+        }
+        return pending.future;
+    }
+
+    /**
+     * DB 에 반영할 접수를 접수 번호 순서로 최대 limit 개 반환한다. 반영이 끝나면 markFlushed 를 호출해야 목록에서 빠진다.
+     */
+    public synchronized List<DiaryIngestEntry> peekUnflushed(int limit) {
+        List<DiaryIngestEntry> entries = new ArrayList<>(Math.min(limit, unflushed.size()));
+        for (DiaryIngestEntry entry : unflushed) {
+            if (entries.size() == limit) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * upToId 까지 DB 에 반영했음을 offset 파일에 남긴다. 닫은 segment 중 모두 반영된 것은 지운다.
+     */
+    public synchronized void markFlushed(long upToId) throws IOException {
+        while (!unflushed.isEmpty() && unflushed.peekFirst().getId() <= upToId) {
+            unflushed.pollFirst();
+        }
+        flushedId = Math.max(flushedId, upToId);
+        writeOffset(flushedId);
+        // offset 을 남긴 뒤에 지우므로 지운 segment 의 접수를 다시 읽어야 하는 경우는 없다.
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastId <= flushedId) {
+            Files.deleteIfExists(closedSegments.pollFirst().path);
+        }
+    }
+
+    /**
+     * DB 에 저장할 수 없는 접수를 이유와 함께 dead-letter 파일에 남긴다. 그 뒤에 markFlushed 로 대기 목록에서 뺀다.
+     */
+    public synchronized void deadLetter(DiaryIngestEntry entry, String reason) throws IOException {
+        ObjectNode line = objectMapper.valueToTree(entry);
+        line.put("reason", reason);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(objectMapper.writeValueAsBytes(line));
+        bytes.write('\n');
+        try (FileChannel out = FileChannel.open(deadLetterPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        }
+        deadLetterCounter.increment();
+        log.error("moved ingested diary {} to dead-letter file : {}", entry.getId(), reason);
+    }
+
+    public synchronized int unflushedCount() {
+        return unflushed.size();
+    }
+
+    public synchronized long getFlushedId() {
+        return flushedId;
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        while (running) {
+            try {
+                PendingAppend first = appendQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // fsync 하는 동안 쌓인 접수를 한번에 기록한다.
+                appendQueue.drainTo(batch, MAX_GROUP_COMMIT - 1);
+                // 지금 epoch 의 번호가 모자라면 this 를 잡기 전에 다음 epoch 를 받아 둔다.
+                // DB 를 기다리는 동안 flusher 의 peekUnflushed, markFlushed 가 막히지 않는다.
+                Long nextEpoch = null;
+                if (epochLastId - nextId + 1 < batch.size()) {
+                    try {
+                        nextEpoch = reserveEpoch();
+                    } catch (RuntimeException e) {
+                        log.error("failed to reserve ingest epoch for {} diaries", batch.size(), e);
+                        failBatch(batch);
+                        continue;
+                    }
+                }
+                writeBatch(batch, nextEpoch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        failAll(appendQueue);
+    }
+
+    private synchronized void writeBatch(List<PendingAppend> batch, Long nextEpoch) {
+        // 쓰기 시작한 위치. 쓰기 전에 실패하면 -1 이라 잘라낼 것이 없다.
+        long position = -1;
+        List<DiaryIngestEntry> entries = new ArrayList<>(batch.size());
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (PendingAppend pending : batch) {
+                if (nextId > epochLastId) {
+                    useEpoch(nextEpoch);
+                }
+                // 기록에 실패해도 쓴 번호는 되돌리지 않는다. 건너뛴 번호는 쓰이지 않을 뿐이다.
+                DiaryIngestEntry entry = new DiaryIngestEntry(nextId++, pending.date, pending.text);
+                lines.write(objectMapper.writeValueAsBytes(entry));
+                lines.write('\n');
+                entries.add(entry);
+            }
+            if (channel == null || channel.size() >= segmentBytes) {
+                rollSegment(entries.get(0).getId());
+            }
+            position = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            long writePosition = position;
+            while (buffer.hasRemaining()) {
+                writePosition += channel.write(buffer, writePosition);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            log.error("failed to append {} diaries to ingest log", batch.size(), e);
+            truncateQuietly(position);
+            failBatch(batch);
+            return;
+        }
+        lastId = entries.get(entries.size() - 1).getId();
+        unflushed.addAll(entries);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(entries.get(i).getId());
+        }
+    }
+
+    // DB 에서 새 epoch 를 받는다. epoch 는 계속 커지므로 이 log 의 이전 번호보다 크다.
+    private long reserveEpoch() {
+        long epoch = diaryRepository.reserveIngestEpoch();
+        if ((epoch << EPOCH_SHIFT) + 1 <= lastId) {
+            // log 디렉토리는 그대로인데 DB 가 초기화된 경우. 이어서 쓰면 offset 이하의 번호가 다시 나온다.
+            throw new IllegalStateException("ingest log " + directory + " is ahead of id_generator : " + lastId);
+        }
+        return epoch;
+    }
+
+    // 받은 epoch 구간의 번호를 쓰기 시작한다.
+    private void useEpoch(long epoch) {
+        nextId = (epoch << EPOCH_SHIFT) + 1;
+        epochLastId = ((epoch + 1) << EPOCH_SHIFT) - 1;
+    }
+
+    // 쓰던 segment 를 닫고 firstId 부터 기록할 새 segment 를 연다.
+    private void rollSegment(long firstId) throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            closedSegments.addLast(new Segment(activePath, lastId));
+        }
+        activePath = directory.resolve("diary-ingest-" + firstId + ".log");
+        channel = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    // offset 이후의 기록을 반영 대기 목록에 올리고, 마지막 segment 는 이어서 쓰도록 연다.
+    // 다음 segment 의 첫 번호까지 반영된 segment 는 읽지 않고 지운다.
+    private void replay() throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            boolean last = i == segments.size() - 1;
+            if (!last && firstIdOf(segments.get(i + 1)) <= flushedId + 1) {
+                Files.delete(segment);
+                continue;
+            }
+            long segmentLastId = replaySegment(segment);
+            if (last) {
+                activePath = segment;
+                channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } else {
+                closedSegments.addLast(new Segment(segment, segmentLastId));
+            }
+        }
+        if (!unflushed.isEmpty()) {
+            log.info("replaying {} unflushed diaries from ingest log", unflushed.size());
+        }
+    }
+
+    // 한 줄씩 읽어서 segment 의 마지막 접수 번호를 반환한다. 마지막 줄이 쓰다 만 줄이면 잘라낸다.
+    private long replaySegment(Path segment) throws IOException {
+        long segmentLastId = 0;
+        long completeBytes = 0;
+        long readBytes = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(segment)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                int lineStart = 0;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != '\n') {
+                        continue;
+                    }
+                    line.write(buffer, lineStart, i - lineStart);
+                    DiaryIngestEntry entry = objectMapper.readValue(line.toByteArray(), DiaryIngestEntry.class);
+                    line.reset();
+                    lineStart = i + 1;
+                    completeBytes = readBytes + lineStart;
+                    segmentLastId = entry.getId();
+                    lastId = Math.max(lastId, entry.getId());
+                    if (entry.getId() > flushedId) {
+                        unflushed.addLast(entry);
+                    }
+                }
+                line.write(buffer, lineStart, read - lineStart);
+                readBytes += read;
+            }
+        }
+        if (completeBytes < readBytes) {
+            log.warn("discarding torn tail of ingest log {} : {} bytes", segment, readBytes - completeBytes);
+            try (FileChannel out = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                out.truncate(completeBytes);
+                out.force(true);
+            }
+        }
+        return segmentLastId;
+    }
+
+    // segment 를 첫 접수 번호 순서로 반환한다. 나누기 전의 log 파일이 있으면 가장 앞에 둔다.
+    private List<Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            });
+        }
+        List<Path> ordered = new ArrayList<>(segments.size() + 1);
+        Path legacy = directory.resolve(LEGACY_LOG_FILE);
+        if (Files.exists(legacy)) {
+            ordered.add(legacy);
+        }
+        ordered.addAll(segments.values());
+        return ordered;
+    }
+
+    private static long firstIdOf(Path segment) {
+        Matcher matcher = SEGMENT_FILE.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private long readOffset() throws IOException {
+        if (!Files.exists(offsetPath)) {
+            return 0;
+        }
+        String offset = new String(Files.readAllBytes(offsetPath), StandardCharsets.UTF_8).trim();
+        return offset.isEmpty() ? 0 : Long.parseLong(offset);
+    }
+
+    // 임시 파일에 쓰고 교체해서 offset 파일이 반쯤 쓰인 상태로 남지 않게 한다.
+    private void writeOffset(long offset) throws IOException {
+        Path temp = offsetPath.resolveSibling(OFFSET_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(String.valueOf(offset).getBytes(StandardCharsets.UTF_8)));
+            out.force(true);
+        }
+        Files.move(temp, offsetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void truncateQuietly(long position) {
+        if (position < 0 || channel == null) {
+            return;
+        }
+        try {
+            channel.truncate(position);
+        } catch (IOException e) {
+            log.error("failed to truncate ingest log to {}", position, e);
+        }
+    }
+
+    private static void failBatch(List<PendingAppend> batch) {
+        for (PendingAppend pending : batch) {
+            pending.future.completeExceptionally(new DiaryException(ErrorCode.INGEST_LOG_ERROR));
+        }
+    }
+
+    private static void failAll(BlockingQueue<PendingAppend> queue) {
+        List<PendingAppend> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingAppend pending : remaining) {
+            pending.future.completeExceptionally(new DiaryException(ErrorCode.INGEST_LOG_ERROR));
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        synchronized (this) {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    private static class Segment {
+        private final Path path;
+        private final long lastId;
+
+        private Segment(Path path, long lastId) {
+            this.path = path;
+            this.lastId = lastId;
+        }
+    }
+
+    private static class PendingAppend {
+        private final LocalDate date;
+        private final String text;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private PendingAppend(LocalDate date, String text) {
+            this.date = date;
+            this.text = text;
+        }
+    }
+}
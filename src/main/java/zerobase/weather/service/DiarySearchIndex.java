@@ -0,0 +1,191 @@
+package zerobase.weather.service;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.ko.KoreanAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.SearchDiary;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 일기 본문의 역색인(Lucene). 한국어는 nori 형태소 분석기로 나눈다.
+ * 일기 한 건이 문서 하나이고, 날짜 단위로 지우고 다시 넣어서 갱신한다.
+ * 쓰기는 DiarySearchService 의 단일 thread 에서만 호출된다.
+ */
+@Component
+public class DiarySearchIndex implements DisposableBean {
+    private static final String ID = "id";
+    private static final String DATE = "date";
+    private static final String EPOCH_DAY = "epochDay";
+    private static final String WEATHER = "weather";
+    private static final String TEXT = "text";
+    private static final String COMMITTED_AT = "committedAt";
+
+    private final Analyzer analyzer = new KoreanAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    // index-dir 이 비어 있으면 메모리에만 둔다. (테스트)
+    public DiarySearchIndex(@Value("${diary.search.index-dir:}") String indexDir) throws IOException {
+        this.directory = indexDir.isEmpty() ? new ByteBuffersDirectory() : FSDirectory.open(Paths.get(indexDir));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, new SearcherFactory());
+    }
+
+    /**
+     * 해당 날짜의 문서를 모두 지우고 diaries 로 바꾼다.
+     */
+    public void replaceDate(LocalDate date, List<DiaryDto> diaries) throws IOException {
+        writer.deleteDocuments(new Term(DATE, date.toString()));
+        addAll(diaries);
+    }
+
+    public void replaceBetween(LocalDate startDate, LocalDate endDate, List<DiaryDto> diaries) throws IOException {
+        writer.deleteDocuments(LongPoint.newRangeQuery(EPOCH_DAY, startDate.toEpochDay(), endDate.toEpochDay()));
+        addAll(diaries);
+    }
+
+    public void deleteAll() throws IOException {
+        writer.deleteAll();
+    }
+
+    public void add(DiaryDto diaryDto) throws IOException {
+        writer.addDocument(toDocument(diaryDto));
+    }
+
+    /**
+     * 지금까지 반영한 내용을 검색에 보이게 한다. (디스크에 남기지는 않음)
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * 반영한 내용을 디스크에 남기고 커밋 시각을 함께 기록한다.
+     */
+    public void commit() throws IOException {
+        if (!writer.hasUncommittedChanges()) {
+            return;
+        }
+        writer.setLiveCommitData(Collections.singletonMap(COMMITTED_AT, LocalDateTime.now().toString()).entrySet());
+        writer.commit();
+    }
+
+    /**
+     * 마지막 커밋 시각. 재시작 후 그 이후에 바뀐 날짜만 다시 색인하는 데 쓴다.
+     */
+    public Optional<LocalDateTime> getLastCommittedAt() throws IOException {
+        if (!DirectoryReader.indexExists(directory)) {
+            return Optional.empty();
+        }
+        Map<String, String> userData = SegmentInfos.readLatestCommit(directory).getUserData();
+        return Optional.ofNullable(userData.get(COMMITTED_AT)).map(LocalDateTime::parse);
+    }
+
+    public int numDocs() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * 본문에 검색어의 형태소가 모두 들어 있는 일기를 BM25 점수 순으로 찾는다.
+     * 날짜 기간과 날씨는 점수에 영향을 주지 않는 filter 로 건다.
+     */
+    public SearchDiary.SearchDiaryResponse search(String query, LocalDate startDate, LocalDate endDate,
+                                                  String weather, int size) throws IOException {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(parser.parse(query), BooleanClause.Occur.MUST);
+        if (startDate != null || endDate != null) {
+            builder.add(LongPoint.newRangeQuery(EPOCH_DAY,
+                    startDate == null ? Long.MIN_VALUE : startDate.toEpochDay(),
+                    endDate == null ? Long.MAX_VALUE : endDate.toEpochDay()), BooleanClause.Occur.FILTER);
+        }
+        if (weather != null && !weather.isEmpty()) {
+            builder.add(new TermQuery(new Term(WEATHER, weather)), BooleanClause.Occur.FILTER);
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(builder.build(), size);
+            List<SearchDiary.Hit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                Document document = searcher.doc(scoreDoc.doc);
+                hits.add(SearchDiary.Hit.builder()
+                        .id(Integer.parseInt(document.get(ID)))
+                        .date(LocalDate.parse(document.get(DATE)))
+                        .weather(document.get(WEATHER))
+                        .text(document.get(TEXT))
+                        .score(scoreDoc.score)
+                        .build());
+            }
+            return SearchDiary.SearchDiaryResponse.builder()
+                    .totalHits(topDocs.totalHits.value)
+                    .hits(hits)
+                    .build();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private void addAll(List<DiaryDto> diaries) throws IOException {
+        for (DiaryDto diaryDto : diaries) {
+            writer.addDocument(toDocument(diaryDto));
+        }
+    }
+
+    private static Document toDocument(DiaryDto diaryDto) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(diaryDto.getId()), Field.Store.YES));
+        document.add(new StringField(DATE, diaryDto.getDate().toString(), Field.Store.YES));
+        document.add(new LongPoint(EPOCH_DAY, diaryDto.getDate().toEpochDay()));
+        document.add(new StringField(WEATHER, diaryDto.getWeather() == null ? "" : diaryDto.getWeather(),
+                Field.Store.YES));
+        document.add(new TextField(TEXT, diaryDto.getText() == null ? "" : diaryDto.getText(), Field.Store.YES));
+        return document;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        searcherManager.close();
+        commit();
+        writer.close();
+        directory.close();
+        analyzer.close();
+    }
+}
@@ -0,0 +1,234 @@
+package zerobase.weather.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.SearchDiary;
+import zerobase.weather.event.DiaryChangedEvent;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.support.ReadWriteRoutingDataSource;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 일기 전문 검색.
+ * 일기가 바뀐 트랜잭션이 커밋되면 바뀐 날짜를 모아 두었다가 단일 thread 에서 DB 의 현재 내용으로 다시 색인한다.
+ * 같은 날짜에 몰린 변경은 한번의 재색인으로 합쳐진다. 색인은 주기적으로 커밋하고,
+ * 재시작하면 마지막 커밋 이후 바뀐 날짜를 DiaryChangeTracker 에서 찾아 다시 색인한다.
+ * 변경 반영은 커밋 직후의 내용을 읽어야 하므로 replica 를 쓰더라도 primary 에서 읽는다.
+ * DB 나 색인 오류로 반영하지 못한 날짜는 버리지 않고 retryDelayMillis 뒤에 다시 시도한다.
+ */
+@Slf4j
+@Service
+public class DiarySearchService implements DisposableBean {
+    private static final LocalDate FIRST_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+    // 커밋 직전에 시작해서 늦게 커밋된 트랜잭션도 다시 색인하도록 여유를 둔다.
+    private static final long CATCH_UP_MARGIN_MINUTES = 5;
+
+    private final DiarySearchIndex diarySearchIndex;
+    private final DiaryRepository diaryRepository;
+    private final DiaryChangeTracker diaryChangeTracker;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ScheduledThreadPoolExecutor indexer;
+    private final long retryDelayMillis;
+    private final Counter failureCounter;
+    private final ConcurrentSkipListSet<LocalDate> pendingDates = new ConcurrentSkipListSet<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    @Value("${diary.search.max-size:100}")
+    private int maxSize;
+    @Value("${diary.search.rebuild-if-empty:false}")
+    private boolean rebuildIfEmpty;
+
+    public DiarySearchService(DiarySearchIndex diarySearchIndex, DiaryRepository diaryRepository,
+                              DiaryChangeTracker diaryChangeTracker,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${diary.search.retry-delay-ms:5000}") long retryDelayMillis,
+                              MeterRegistry meterRegistry) {
+        this.diarySearchIndex = diarySearchIndex;
+        this.diaryRepository = diaryRepository;
+        this.diaryChangeTracker = diaryChangeTracker;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.indexer = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("diary-search-indexer-"));
+        // 종료할 때 기다리던 재시도는 버린다. 다음 기동의 catch-up 이 다시 색인한다.
+        indexer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.retryDelayMillis = retryDelayMillis;
+        this.failureCounter = Counter.builder("diary.search.reindex.failures")
+                .description("색인 반영에 실패해서 다시 시도한 횟수")
+                .register(meterRegistry);
+    }
+
+    @Timed("diary.search")
+    public SearchDiary.SearchDiaryResponse search(String query, LocalDate startDate, LocalDate endDate,
+                                                  String weather, int size) {
+        if (query == null || query.trim().isEmpty() || size <= 0
+                || (startDate != null && endDate != null && startDate.isAfter(endDate))) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        try {
+            return diarySearchIndex.search(query, startDate, endDate, weather, Math.min(size, maxSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onDiaryChanged(DiaryChangedEvent event) {
+        if (event.isRange()) {
+            indexer.execute(() -> reindexBetween(event.getStartDate(), event.getEndDate()));
+        } else {
+            enqueue(event.getDates());
+        }
+    }
+
+    /**
+     * 색인을 비우고 diary 테이블 전체로 다시 만든다. 진행 중인 변경 반영과 같은 thread 에서 순서대로 실행된다.
+     */
+    public CompletableFuture<SearchDiary.RebuildResponse> rebuild() {
+        return CompletableFuture.supplyAsync(this::rebuildNow, indexer);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        indexer.execute(() -> {
+            try {
+                Optional<LocalDateTime> lastCommittedAt = diarySearchIndex.getLastCommittedAt();
+                if (lastCommittedAt.isPresent()) {
+                    List<LocalDate> dates = findDatesChangedSince(lastCommittedAt.get());
+                    log.info("search index catch-up : {} dates changed since {}", dates.size(), lastCommittedAt.get());
+                    enqueue(dates);
+                } else if (rebuildIfEmpty && diarySearchIndex.numDocs() == 0) {
+                    rebuildNow();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("search index catch-up failed", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${diary.search.commit-interval-ms:5000}")
+    public void commit() {
+        indexer.execute(() -> {
+            try {
+                diarySearchIndex.commit();
+            } catch (IOException e) {
+                log.error("failed to commit search index", e);
+            }
+        });
+    }
+
+    private void enqueue(Collection<LocalDate> dates) {
+        pendingDates.addAll(dates);
+        if (drainScheduled.compareAndSet(false, true)) {
+            indexer.execute(this::drainPendingDates);
+        }
+    }
+
+    private void drainPendingDates() {
+        drainScheduled.set(false);
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate date;
+        while ((date = pendingDates.pollFirst()) != null) {
+            dates.add(date);
+        }
+        try {
+            for (LocalDate changed : dates) {
+                diarySearchIndex.replaceDate(changed, ReadWriteRoutingDataSource.readFromPrimary(
+                        () -> diaryRepository.findAllDtoByDate(changed)));
+            }
+            diarySearchIndex.refresh();
+        } catch (IOException | RuntimeException e) {
+            failureCounter.increment();
+            log.error("failed to reindex {} dates, retry in {} ms", dates.size(), retryDelayMillis, e);
+            // 날짜 단위 재색인은 여러 번 해도 같으므로 이미 반영한 날짜도 함께 다시 넣는다.
+            pendingDates.addAll(dates);
+            if (drainScheduled.compareAndSet(false, true)) {
+                indexer.schedule(this::drainPendingDates, retryDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void reindexBetween(LocalDate startDate, LocalDate endDate) {
+        try {
+            diarySearchIndex.replaceBetween(startDate, endDate, ReadWriteRoutingDataSource.readFromPrimary(
+                    () -> diaryRepository.findAllDtoByDateBetween(startDate, endDate)));
+            diarySearchIndex.refresh();
+        } catch (IOException | RuntimeException e) {
+            failureCounter.increment();
+            log.error("failed to reindex {} ~ {}, retry in {} ms", startDate, endDate, retryDelayMillis, e);
+            indexer.schedule(() -> reindexBetween(startDate, endDate), retryDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private List<LocalDate> findDatesChangedSince(LocalDateTime since) {
+        return ReadWriteRoutingDataSource.readFromPrimary(() ->
+                diaryChangeTracker.findDatesChangedSince(since.minusMinutes(CATCH_UP_MARGIN_MINUTES)));
+    }
+
+    private SearchDiary.RebuildResponse rebuildNow() {
+        long startedAt = System.nanoTime();
+        LocalDateTime rebuildStartedAt = LocalDateTime.now();
+        try {
+            diarySearchIndex.deleteAll();
+            // 전체를 한번에 올리지 않고 fetch size 단위로 읽으면서 색인한다.
+            Long indexed = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<DiaryDto> diaries = diaryRepository.streamAllByDateBetween(FIRST_DATE, LAST_DATE)) {
+                    for (DiaryDto diaryDto : (Iterable<DiaryDto>) diaries::iterator) {
+                        diarySearchIndex.add(diaryDto);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            diarySearchIndex.commit();
+            diarySearchIndex.refresh();
+            // 전체 색인은 replica 에서 읽으므로 복제가 늦은 날짜는 primary 에서 다시 색인한다.
+            enqueue(findDatesChangedSince(rebuildStartedAt));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            log.info("rebuilt search index : {} diaries in {} ms", indexed, elapsedMillis);
+            return SearchDiary.RebuildResponse.builder()
+                    .indexedCount(indexed == null ? 0 : indexed)
+                    .elapsedMillis(elapsedMillis)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        indexer.shutdown();
+        indexer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
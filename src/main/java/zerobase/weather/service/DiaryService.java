@@ -1,35 +1,54 @@
 package zerobase.weather.service;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional; // readOnly 사용가능.
+import org.springframework.transaction.support.TransactionTemplate;
 import zerobase.weather.WeatherApplication;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.client.WeatherPayloadParser;
 import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.DateWeatherId;
 import zerobase.weather.domain.Diary;
-import zerobase.weather.dto.DateWeatherDto;
+import zerobase.weather.dto.CreateDiary;
+import zerobase.weather.dto.DiaryCursor;
 import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryIngestEntry;
+import zerobase.weather.dto.DiaryPage;
+import zerobase.weather.dto.DiaryVersion;
+import zerobase.weather.dto.UpdateDiary;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.event.DiaryChangedEvent;
 import zerobase.weather.exception.DiaryException;
 import zerobase.weather.repository.DateWeatherRepository;
 import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.repository.DiaryStatsDeltaRepository;
+import zerobase.weather.support.ReadWriteRoutingDataSource;
+import zerobase.weather.support.SingleFlight;
 import zerobase.weather.type.ErrorCode;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static zerobase.weather.type.ErrorCode.TOO_FAR_FROM_END_DATE;
 
@@ -40,184 +59,421 @@ import static zerobase.weather.type.ErrorCode.TOO_FAR_FROM_END_DATE;
 @Transactional
 public class DiaryService {
     private static final Logger logger = LoggerFactory.getLogger(WeatherApplication.class);
+    // method, exception 태그로 메서드별 지연 시간/처리량/오류 수를 구분
+    private static final String DIARY_SERVICE_METRIC = "diary.service";
     private final DiaryRepository diaryRepository;
     private final DateWeatherRepository dateWeatherRepository;
-    @Value("${openweathermap.key}")
-    private String apiKey;
+    private final DateWeatherCache dateWeatherCache;
+    private final WeatherApiClient weatherApiClient;
+    private final WeatherPayloadParser weatherPayloadParser;
+    private final DiaryChangeTracker diaryChangeTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DiaryStatsDeltaRepository diaryStatsDeltaRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // 같은 (도시, 날짜)에 대한 외부 API 호출은 동시에 하나만 진행
+    private final SingleFlight<String, DateWeather> weatherFetches = new SingleFlight<>();
+    @Value("${openweathermap.city:seoul}")
+    private String city;
+    @Value("${diary.batch.max-size:500}")
+    private int maxBatchSize;
+    @Value("${diary.page.max-size:1000}")
+    private int maxPageSize;
 
-    public DiaryService(DiaryRepository diaryRepository, DateWeatherRepository dateWeatherRepository) {
+    public DiaryService(DiaryRepository diaryRepository, DateWeatherRepository dateWeatherRepository,
+                        DateWeatherCache dateWeatherCache, WeatherApiClient weatherApiClient,
+                        WeatherPayloadParser weatherPayloadParser, DiaryChangeTracker diaryChangeTracker,
+                        ApplicationEventPublisher eventPublisher, DiaryStatsDeltaRepository diaryStatsDeltaRepository,
+                        PlatformTransactionManager transactionManager) {
         this.diaryRepository = diaryRepository;
         this.dateWeatherRepository = dateWeatherRepository;
+        this.dateWeatherCache = dateWeatherCache;
+        this.weatherApiClient = weatherApiClient;
+        this.weatherPayloadParser = weatherPayloadParser;
+        this.diaryChangeTracker = diaryChangeTracker;
+        this.eventPublisher = eventPublisher;
+        this.diaryStatsDeltaRepository = diaryStatsDeltaRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
     }
 
-    @Scheduled(cron = "0 0 1 * * *")
-    public void saveWeatherDate() {
-        DateWeather dateWeather = getWeatherFromApi();
-        DateWeatherDto.fromDateWeatherEntity(
-                dateWeatherRepository.save(dateWeather.builder()
-                        .date(dateWeather.getDate())
-                        .weather(dateWeather.getWeather())
-                        .icon(dateWeather.getIcon())
-                        .temperature(dateWeather.getTemperature())
-                        .build()
-                ));
-        logger.info("schedule is successfully finished");
-    }
-
-    @Transactional(isolation = Isolation.SERIALIZABLE) //readOnly = false,
+    // date_weather 는 insertAllIfAbsent 로 중복 저장을 막으므로 기본 격리 수준으로 충분하다.
+    @Timed(DIARY_SERVICE_METRIC)
     public DiaryDto createDiary(LocalDate date, String text) {
         //open weather map 에서 날씨 데이터 가져오기 or DB에서 가져오기
         logger.info("started to create diary");
         DateWeather dateWeather = getDateWeather(date);
         logger.info("end to create diary");
-        return DiaryDto.fromEntity(
+        return saveDiary(date, text, dateWeather);
+    }
+
+    /**
+     * 이미 조회한 날씨로 일기를 저장한다.
+     */
+    @Timed(DIARY_SERVICE_METRIC)
+    public DiaryDto saveDiary(LocalDate date, String text, DateWeather dateWeather) {
+        DiaryDto diaryDto = DiaryDto.fromEntity(
                 diaryRepository.save(Diary.builder()
                         .text(text)
                         .weather(dateWeather.getWeather())
                         .icon(dateWeather.getIcon())
                         .date(date)
                         .temperature(dateWeather.getTemperature())
+                        .weatherStale(dateWeather.isStale())
                         .build()
                 ));
+        diaryStatsDeltaRepository.addDiaryCount(date, 1);
+        eventPublisher.publishEvent(DiaryChangedEvent.of(date));
+        return diaryDto;
+    }
+
+    @Timed(DIARY_SERVICE_METRIC)
+    public List<DiaryDto> createDiaries(List<CreateDiary.DiaryEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        if (entries.size() > maxBatchSize) {
+            throw new DiaryException(ErrorCode.TOO_MANY_DIARIES);
+        }
+
+        // 날씨는 날짜별로 한번만 조회하고, insert 는 hibernate jdbc batch 로 묶어서 저장
+        Map<LocalDate, DateWeather> dateWeatherByDate = new HashMap<>();
+        List<Diary> diaries = new ArrayList<>(entries.size());
+        for (CreateDiary.DiaryEntry entry : entries) {
+            if (entry.getDate() == null || entry.getText() == null) {
+                throw new DiaryException(ErrorCode.INVALID_REQUEST);
+            }
+            DateWeather dateWeather = dateWeatherByDate.computeIfAbsent(entry.getDate(), this::getDateWeather);
+            diaries.add(Diary.builder()
+                    .text(entry.getText())
+                    .weather(dateWeather.getWeather())
+                    .icon(dateWeather.getIcon())
+                    .date(entry.getDate())
+                    .temperature(dateWeather.getTemperature())
+                    .weatherStale(dateWeather.isStale())
+                    .build());
+        }
+        List<DiaryDto> saved = diaryRepository.saveAll(diaries).stream()
+                .map(DiaryDto::fromEntity)
+                .collect(Collectors.toList());
+        diaryStatsDeltaRepository.addDiaryCounts(countByDate(diaries));
+        eventPublisher.publishEvent(DiaryChangedEvent.of(dateWeatherByDate.keySet()));
+        return saved;
+    }
+
+    /**
+     * ingest log 에서 꺼낸 일기를 한번에 저장한다. 날씨는 날짜별로 미리 조회해서 넘겨받는다.
+     * 이전 flush 가 저장까지 하고 offset 을 남기지 못했으면 이미 저장된 접수 번호는 건너뛴다.
+     */
+    @Timed(DIARY_SERVICE_METRIC)
+    public int saveIngestedDiaries(List<DiaryIngestEntry> entries, Map<LocalDate, DateWeather> dateWeatherByDate) {
+        Set<Long> saved = new HashSet<>(diaryRepository.findIngestIdsIn(
+                entries.stream().map(DiaryIngestEntry::getId).collect(Collectors.toList())));
+        List<Diary> diaries = new ArrayList<>(entries.size());
+        for (DiaryIngestEntry entry : entries) {
+            if (saved.contains(entry.getId())) {
+                continue;
+            }
+            DateWeather dateWeather = dateWeatherByDate.get(entry.getDate());
+            diaries.add(Diary.builder()
+                    .text(entry.getText())
+                    .weather(dateWeather.getWeather())
+                    .icon(dateWeather.getIcon())
+                    .date(entry.getDate())
+                    .temperature(dateWeather.getTemperature())
+                    .weatherStale(dateWeather.isStale())
+                    .ingestId(entry.getId())
+                    .build());
+        }
+        if (!diaries.isEmpty()) {
+            diaryRepository.saveAll(diaries);
+            Map<LocalDate, Integer> countByDate = countByDate(diaries);
+            diaryStatsDeltaRepository.addDiaryCounts(countByDate);
+            eventPublisher.publishEvent(DiaryChangedEvent.of(countByDate.keySet()));
+        }
+        return diaries.size();
     }
 
+    // 외부 API 를 기다리는 동안 DB 연결을 붙잡지 않도록 트랜잭션 밖에서 실행한다. (내부 호출은 호출한 쪽 트랜잭션을 따름)
+    @Timed(DIARY_SERVICE_METRIC)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DateWeather getDateWeather(LocalDate date) {
-        List<DateWeather> dateWeatherListFromDB = dateWeatherRepository.findAllByDate(date);
+        DateWeather cached = dateWeatherCache.get(city, date);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<DateWeather> dateWeatherFromDB = dateWeatherRepository.findById(new DateWeatherId(city, date));
+
+        if (!dateWeatherFromDB.isPresent() && mayFetchWeather(date)) {
+            // 새로 api에서 날씨 정보를 가져와야 한다. 동시에 들어온 요청은 먼저 시작된 호출의 결과를 같이 사용.
+            try {
+                return weatherFetches.execute(city + ":" + date, () -> {
+                    // 앞선 호출이 방금 끝났다면 캐시에 결과가 있다.
+                    DateWeather fetched = dateWeatherCache.get(city, date);
+                    return fetched != null ? fetched : fetchAndSaveDateWeather(date);
+                });
+            } catch (DiaryException e) {
+                if (!isWeatherApiFailure(e.getErrorCode())) {
+                    throw e;
+                }
+                logger.warn("weather api unavailable, serving last known weather : {}", e.getErrorCode());
+                return lastKnownWeather(date);
+            }
+        } else if (!dateWeatherFromDB.isPresent()) {
+            return DateWeather.builder()
+                    .city(city)
+                    .date(date)
+                    .weather("")
+                    .icon("")
+                    .temperature(0)
+                    .build();
+        }
+
+        DateWeather dateWeather = dateWeatherFromDB.get();
+        dateWeatherCache.put(dateWeather);
+        return dateWeather;
+    }
+
+    /**
+     * getDateWeather 가 외부 API 를 부를 수 있는 날짜인지. 현재 날씨만 가져오므로 오늘만 해당하고,
+     * 다른 날짜는 캐시나 DB 만 읽는다.
+     */
+    public boolean mayFetchWeather(LocalDate date) {
+        return date.equals(LocalDate.now());
+    }
+
+    private DateWeather fetchAndSaveDateWeather(LocalDate date) {
+        DateWeather dateWeather = getWeatherFromApi();
+        // 다른 서버가 먼저 저장했다면 그 값을 유지한다.
+        dateWeatherRepository.insertAllIfAbsent(Collections.singletonList(dateWeather));
+        // 방금 저장한 값으로 캐시를 갱신해서 호출이 끝난 직후 들어온 요청도 다시 API 를 부르지 않도록 한다.
+        dateWeatherCache.invalidate(city, date);
+        dateWeatherCache.put(dateWeather);
+        return dateWeather;
+    }
 
-        if (dateWeatherListFromDB.size() == 0 &&  date == LocalDate.now()) {
-            // 새로 api에서 날씨 정보를 가져와야 한다.
-            DateWeather dateWeather = getWeatherFromApi();
-            DateWeatherDto.fromDateWeatherEntity(
-                    dateWeatherRepository.save(dateWeather.builder()
-                            .date(date)
-                            .weather(dateWeather.getWeather())
-                            .icon(dateWeather.getIcon())
-                            .temperature(dateWeather.getTemperature())
-                            .build()
-                    ));
-            return dateWeather;
-        } else if (dateWeatherListFromDB.size() == 0 && date != LocalDate.now()){
-            return new DateWeather(date,  "", "", 0);
+    /**
+     * stale 날씨로 저장된 날짜의 일기를 다시 가져온 날씨로 보정한다. 보정된 일기 수를 반환.
+     */
+    @Timed(DIARY_SERVICE_METRIC)
+    public int refreshStaleWeather(LocalDate date) {
+        DateWeather dateWeather = getDateWeather(date);
+        if (dateWeather.isStale()) {
+            return 0; // 아직 provider 가 복구되지 않음
+        }
+        int repaired = diaryRepository.repairWeather(city, date, date);
+        if (repaired > 0) {
+            eventPublisher.publishEvent(DiaryChangedEvent.of(date));
         }
+        return repaired;
+    }
 
-        return dateWeatherListFromDB.get(0);
+    // provider 장애 중에는 마지막으로 알려진 날씨를 stale 로 표시해서 돌려준다. 캐시나 DB 에는 저장하지 않는다.
+    private DateWeather lastKnownWeather(LocalDate date) {
+        Optional<DateWeather> lastKnown = dateWeatherRepository.findFirstByCityAndDateBeforeOrderByDateDesc(city, date);
+        return DateWeather.builder()
+                .city(city)
+                .date(date)
+                .weather(lastKnown.map(DateWeather::getWeather).orElse(""))
+                .icon(lastKnown.map(DateWeather::getIcon).orElse(""))
+                .temperature(lastKnown.map(DateWeather::getTemperature).orElse(0d))
+                .stale(true)
+                .build();
+    }
+
+    private static boolean isWeatherApiFailure(ErrorCode errorCode) {
+        return errorCode == ErrorCode.WEATHER_API_ERROR
+                || errorCode == ErrorCode.WEATHER_API_TIMEOUT
+                || errorCode == ErrorCode.WEATHER_API_UNAVAILABLE;
     }
 
     public DateWeather getWeatherFromApi() {
-        //open weather map 에서 날씨 데이터 가져오기
-        String weatherData = getWeatherString();
+        //open weather map 에서 날씨 데이터를 받아오면서 바로 필요한 값만 파싱
+        WeatherSnapshot weatherSnapshot = weatherApiClient.getCurrentWeather(city, weatherPayloadParser::parse);
 
-        // 받아온 날씨 json 파싱
-        Map<String, Object> parsedWeather = parseWeather(weatherData);
         DateWeather dateWeather = new DateWeather();
+        dateWeather.setCity(city);
         dateWeather.setDate(LocalDate.now());
-        dateWeather.setWeather(parsedWeather.get("main").toString());
-        dateWeather.setIcon(parsedWeather.get("icon").toString());
-        dateWeather.setTemperature((Double) parsedWeather.get("temp"));
+        dateWeather.setWeather(weatherSnapshot.getWeather());
+        dateWeather.setIcon(weatherSnapshot.getIcon());
+        dateWeather.setTemperature(weatherSnapshot.getTemperature());
 
         return dateWeather;
     }
 
+    /**
+     * 해당 날짜 일기 목록의 버전. 일기를 읽지 않고 날짜별 버전만 본다.
+     * 304 로 끝낼지 정하는 값이므로 복제가 늦은 replica 가 아니라 primary 에서 읽는다.
+     */
+    @Transactional(readOnly = true)
+    public DiaryVersion getDiaryVersion(LocalDate date) {
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> diaryVersion(date));
+    }
+
     @Transactional(readOnly = true)
+    public DiaryVersion getDiariesVersion(LocalDate startDate, LocalDate endDate) {
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> diariesVersion(startDate, endDate));
+    }
+
+    /**
+     * version 을 ETag 로 붙여서 내려줄 일기 목록. replica 가 version 까지 따라왔으면 replica 에서, 아니면 primary 에서 읽는다.
+     * 오래된 목록이 새 ETag 로 캐시되면 다음 변경 전까지 304 만 받게 된다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Timed(DIARY_SERVICE_METRIC)
+    public List<DiaryDto> readDiary(LocalDate date, DiaryVersion version) throws DiaryException {
+        return readNotOlderThan(version, () -> diaryVersion(date), () -> readDiary(date));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Timed(DIARY_SERVICE_METRIC)
+    public List<DiaryDto> readDiaries(LocalDate startDate, LocalDate endDate, DiaryVersion version)
+            throws DiaryException {
+        return readNotOlderThan(version, () -> diariesVersion(startDate, endDate),
+                () -> readDiaries(startDate, endDate));
+    }
+
+    private DiaryVersion diaryVersion(LocalDate date) {
+        return diaryChangeTracker.getVersion("diary-" + date, date, date);
+    }
+
+    private DiaryVersion diariesVersion(LocalDate startDate, LocalDate endDate) {
+        return diaryChangeTracker.getVersion("diaries-" + startDate + "-" + endDate, startDate, endDate);
+    }
+
+    // 같은 트랜잭션(같은 연결)에서 버전과 목록을 읽어야 둘이 어긋나지 않는다.
+    private <T> T readNotOlderThan(DiaryVersion version, Supplier<DiaryVersion> currentVersion, Supplier<T> read) {
+        Optional<T> fromReplica = readOnlyTransaction.execute(status ->
+                currentVersion.get().getETag().equals(version.getETag())
+                        ? Optional.of(read.get())
+                        : Optional.<T>empty());
+        if (fromReplica != null && fromReplica.isPresent()) {
+            return fromReplica.get();
+        }
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> readOnlyTransaction.execute(status -> read.get()));
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(DIARY_SERVICE_METRIC)
     public List<DiaryDto> readDiary(LocalDate date) throws DiaryException {
         if (date.isAfter(LocalDate.ofYearDay(3050, 1))) {
             throw new DiaryException(ErrorCode.INVALID_DATE);
         }
-        List<Diary> result = diaryRepository.findAllByDate(date);
+        List<DiaryDto> result = diaryRepository.findAllDtoByDate(date);
         if (result.isEmpty())
             throw new DiaryException(ErrorCode.NULL_LIST_ERROR); //throw new DiaryException(ErrorCode.NULL_LIST_ERROR);
-        return result.stream().map(DiaryDto::fromEntity).collect(Collectors.toList());
+        return result;
     }
 
+    @Transactional(readOnly = true)
+    @Timed(DIARY_SERVICE_METRIC)
     public List<DiaryDto> readDiaries(LocalDate startDate, LocalDate endDate) throws DiaryException {
         if (startDate.isAfter(endDate)) throw new DiaryException(ErrorCode.INVALID_REQUEST);
         if (endDate.getYear() - startDate.getYear() >= 1 && endDate.getDayOfYear() - startDate.getDayOfYear() > 0) {
             throw new DiaryException(TOO_FAR_FROM_END_DATE);
         }
-        List<Diary> result = diaryRepository.findAllByDateBetween(startDate, endDate);
+        List<DiaryDto> result = diaryRepository.findAllDtoByDateBetween(startDate, endDate);
         if (result.isEmpty()) {
             throw new DiaryException(ErrorCode.NULL_LIST_ERROR);
         }
-        return result.stream().map(DiaryDto::fromEntity).collect(Collectors.toList());
+        return result;
     }
 
-    public DiaryDto updateDiary(LocalDate date, String text) {  //업데이트
-        List<Diary> result = diaryRepository.findAllByDate(date);
-        if (result.isEmpty()) {
-            throw new DiaryException(ErrorCode.NULL_DATA_ERROR);
+    @Transactional(readOnly = true)
+    @Timed(DIARY_SERVICE_METRIC)
+    public DiaryPage readDiaryPage(LocalDate startDate, LocalDate endDate, String cursor, int size) {
+        if (startDate.isAfter(endDate) || size <= 0) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
         }
+        int pageSize = Math.min(size, maxPageSize);
+        DiaryCursor after = cursor == null ? DiaryCursor.first(startDate) : DiaryCursor.decode(cursor);
 
-        Diary nowDiary = diaryRepository.getFirstByDate(date);
-        nowDiary.setText(text);
-//        diaryRepository.save(nowDiary);
-        return DiaryDto.fromEntity(
-                diaryRepository.save(Diary.builder()
-                        .id(nowDiary.getId())
-                        .text(text)
-                        .weather(nowDiary.getWeather())
-                        .icon(nowDiary.getIcon())
-                        .date(date)
-                        .temperature(nowDiary.getTemperature())
-                        .build()
-                ));
+        // 한 건 더 읽어서 다음 페이지가 있는지 확인
+        List<DiaryDto> rows = diaryRepository.findPageAfter(startDate, endDate,
+                after.getDate(), after.getId(), PageRequest.of(0, pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<DiaryDto> diaries = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext
+                ? DiaryCursor.after(diaries.get(diaries.size() - 1)).encode()
+                : null;
+        return new DiaryPage(diaries, nextCursor);
     }
 
-    public String deleteDiary(LocalDate date) {
-        List<Diary> result = diaryRepository.findAllByDate(date);
-        if (result.isEmpty()) {
-            throw new DiaryException(ErrorCode.NULL_DATA_ERROR);
+    @Transactional(readOnly = true)
+    @Timed(DIARY_SERVICE_METRIC)
+    public void streamDiaries(LocalDate startDate, LocalDate endDate, Consumer<DiaryDto> consumer) {
+        if (startDate.isAfter(endDate)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
         }
-        diaryRepository.deleteAllByDate(date);
-        return "삭제 완료";
-    }
-
-    private String getWeatherString() {
-        String apiUrl = "https://api.openweathermap.org/data/2.5/weather?q=seoul&appid=" + apiKey + "&units=metric";
-        //System.out.println(apiUrl);
-        try {
-            URL url = new URL(apiUrl);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            int resCode = conn.getResponseCode();
-            BufferedReader br;
-            if (resCode == 200) {
-                br = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            } else {
-                br = new BufferedReader(new InputStreamReader(conn.getErrorStream()));
-            }
-            String inputLine;
-            StringBuilder response = new StringBuilder();
-
-            while ((inputLine = br.readLine()) != null) {
-                response.append(inputLine);
-            }
-
-            br.close();
-            return response.toString();
-        } catch (Exception e) {
-            return "failed to get response";
+        // DTO projection 이라 영속성 컨텍스트에 entity 가 쌓이지 않는다.
+        try (Stream<DiaryDto> diaries = diaryRepository.streamAllByDateBetween(startDate, endDate)) {
+            diaries.forEach(consumer);
         }
     }
 
-    private Map<String, Object> parseWeather(String jsonString) {
-        JSONParser jsonParser = new JSONParser();
-        JSONObject jsonObject;
+    @Timed(DIARY_SERVICE_METRIC)
+    public DiaryDto updateDiary(LocalDate date, String text) {  //업데이트
+        // 첫번째 일기를 잠그고 id 로 수정한다. 잠근 행에 새 글만 바꿔 반환하므로 다시 읽지 않는다.
+        DiaryDto diary = diaryRepository.lockFirstDtoByDate(date)
+                .orElseThrow(() -> new DiaryException(ErrorCode.NULL_DATA_ERROR));
+        diaryRepository.updateTextById(diary.getId(), text);
+        diary.setText(text);
+        eventPublisher.publishEvent(DiaryChangedEvent.of(date));
+        return diary;
+    }
 
-        try {
-            jsonObject = (JSONObject) jsonParser.parse(jsonString);
-        } catch (ParseException e) {
-            throw new RuntimeException(e);
+    @Timed(DIARY_SERVICE_METRIC)
+    public List<DiaryDto> updateDiaries(List<UpdateDiary.DiaryEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        if (entries.size() > maxBatchSize) {
+            throw new DiaryException(ErrorCode.TOO_MANY_DIARIES);
         }
 
-        Map<String, Object> resultMap = new HashMap<>();
+        // 같은 날짜가 여러번 들어오면 마지막 글로 수정
+        Map<LocalDate, String> textByDate = new LinkedHashMap<>();
+        for (UpdateDiary.DiaryEntry entry : entries) {
+            if (entry.getDate() == null || entry.getText() == null) {
+                throw new DiaryException(ErrorCode.INVALID_REQUEST);
+            }
+            textByDate.put(entry.getDate(), entry.getText());
+        }
+        // 날짜별 첫번째 일기를 한번에 잠근다. 하나라도 없는 날짜가 있으면 아무것도 수정하지 않고 예외.
+        List<DiaryDto> diaries = diaryRepository.lockFirstDtosByDateIn(textByDate.keySet());
+        if (diaries.size() != textByDate.size()) {
+            Set<LocalDate> found = diaries.stream().map(DiaryDto::getDate).collect(Collectors.toSet());
+            for (LocalDate date : textByDate.keySet()) {
+                if (!found.contains(date)) {
+                    throw new DiaryException(ErrorCode.NULL_DATA_ERROR, "수정할 일기가 없는 날짜입니다 : " + date);
+                }
+            }
+        }
+        // 잠근 행을 id 로 수정하고 새 글로 바꿔 반환한다. (날짜 순서)
+        for (DiaryDto diary : diaries) {
+            String text = textByDate.get(diary.getDate());
+            diaryRepository.updateTextById(diary.getId(), text);
+            diary.setText(text);
+        }
+        eventPublisher.publishEvent(DiaryChangedEvent.of(textByDate.keySet()));
+        return diaries;
+    }
 
-        JSONObject mainData = (JSONObject) jsonObject.get("main");
-        resultMap.put("temp", mainData.get("temp"));
-        JSONArray weatherArray = (JSONArray) jsonObject.get("weather");
-        JSONObject weatherData = (JSONObject) weatherArray.get(0);
-        resultMap.put("main", weatherData.get("main"));
-        resultMap.put("icon", weatherData.get("icon"));
+    @Timed(DIARY_SERVICE_METRIC)
+    public int deleteDiary(LocalDate date) {
+        // 조회 없이 바로 삭제하고, 삭제된 행이 없으면 해당 날짜의 일기가 없는 것
+        int deleted = diaryRepository.deleteAllByDate(date);
+        if (deleted == 0) {
+            throw new DiaryException(ErrorCode.NULL_DATA_ERROR);
+        }
+        diaryStatsDeltaRepository.addDiaryCount(date, -deleted);
+        eventPublisher.publishEvent(DiaryChangedEvent.of(date));
+        return deleted;
+    }
 
-        return resultMap;
+    private static Map<LocalDate, Integer> countByDate(List<Diary> diaries) {
+        Map<LocalDate, Integer> countByDate = new HashMap<>();
+        diaries.forEach(diary -> countByDate.merge(diary.getDate(), 1, Integer::sum));
+        return countByDate;
     }
 }
@@ -0,0 +1,46 @@
+package zerobase.weather.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import zerobase.weather.repository.DiaryRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 날씨 provider 장애 중 stale 날씨로 저장된 일기를 주기적으로 찾아서 보정한다.
+ * circuit 이 열려 있는 동안에는 바로 실패하므로 다음 주기에 다시 시도한다.
+ * 날짜가 지나면 현재 날씨로는 보정할 수 없으므로, date_weather 에 그날 날씨가 생길 때(날씨 보정 작업)까지 건너뛴다.
+ */
+@Slf4j
+@Component
+public class StaleWeatherRefresher {
+    private final DiaryService diaryService;
+    private final DiaryRepository diaryRepository;
+    @Value("${openweathermap.city:seoul}")
+    private String city;
+
+    public StaleWeatherRefresher(DiaryService diaryService, DiaryRepository diaryRepository) {
+        this.diaryService = diaryService;
+        this.diaryRepository = diaryRepository;
+    }
+
+    @Scheduled(initialDelayString = "${weather.stale.refresh-interval-ms:60000}",
+            fixedDelayString = "${weather.stale.refresh-interval-ms:60000}")
+    public void refresh() {
+        List<LocalDate> staleDates = diaryRepository.findRefreshableStaleDates(city, LocalDate.now());
+        int repaired = 0;
+        for (LocalDate date : staleDates) {
+            try {
+                repaired += diaryService.refreshStaleWeather(date);
+            } catch (RuntimeException e) {
+                log.warn("failed to refresh stale weather of {} : {}", date, e.toString());
+            }
+        }
+        if (!staleDates.isEmpty()) {
+            log.info("stale weather refresh : {} dates, {} diaries repaired", staleDates.size(), repaired);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package zerobase.weather.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.domain.DiaryStatsDay;
+import zerobase.weather.domain.DiaryStatsDelta;
+import zerobase.weather.domain.WeatherStatsMonth;
+import zerobase.weather.dto.DiaryStats;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DiaryStatsDayRepository;
+import zerobase.weather.repository.DiaryStatsDeltaRepository;
+import zerobase.weather.repository.WeatherStatsMonthRepository;
+import zerobase.weather.type.ErrorCode;
+import zerobase.weather.type.StatsUnit;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 월/연 단위 일기, 날씨 통계. 일기와 날씨를 저장할 때 같이 갱신되는 집계 테이블만 읽는다.
+ * 월 하나에 날씨 집계는 날씨 종류 수만큼, 일기 집계는 최대 31 행이라 원본 행 수와 관계없이 조회 비용이 일정하다.
+ * 일기 수는 작성/삭제하는 트랜잭션이 diary_stats_delta 에 추가만 하고, 주기적으로 diary_stats_day 에 합친다.
+ * 아직 합치지 않은 증감은 조회할 때 더한다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class StatsService {
+    private final DiaryStatsDayRepository diaryStatsDayRepository;
+    private final DiaryStatsDeltaRepository diaryStatsDeltaRepository;
+    private final WeatherStatsMonthRepository weatherStatsMonthRepository;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${openweathermap.city:seoul}")
+    private String defaultCity;
+    @Value("${stats.max-buckets:120}")
+    private int maxBuckets;
+    @Value("${stats.fold.batch-size:1000}")
+    private int foldBatchSize;
+
+    public StatsService(DiaryStatsDayRepository diaryStatsDayRepository,
+                        DiaryStatsDeltaRepository diaryStatsDeltaRepository,
+                        WeatherStatsMonthRepository weatherStatsMonthRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.diaryStatsDayRepository = diaryStatsDayRepository;
+        this.diaryStatsDeltaRepository = diaryStatsDeltaRepository;
+        this.weatherStatsMonthRepository = weatherStatsMonthRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * startDate ~ endDate 가 걸친 월(연) 전체를 기간 단위로 묶어서 반환한다.
+     */
+    @Timed("diary.stats")
+    public DiaryStats.StatsResponse getStats(StatsUnit unit, LocalDate startDate, LocalDate endDate, String city) {
+        if (unit == null || startDate.isAfter(endDate)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        String statsCity = city == null || city.isEmpty() ? defaultCity : city;
+        YearMonth firstMonth = YearMonth.from(startDate);
+        YearMonth lastMonth = YearMonth.from(endDate);
+        if (unit == StatsUnit.YEAR) {
+            firstMonth = firstMonth.withMonth(1);
+            lastMonth = lastMonth.withMonth(12);
+        }
+
+        Map<String, BucketBuilder> buckets = new LinkedHashMap<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            YearMonth bucketMonth = month;
+            buckets.computeIfAbsent(period(unit, month), period -> unit == StatsUnit.YEAR
+                    ? new BucketBuilder(period, bucketMonth.atDay(1), bucketMonth.withMonth(12).atEndOfMonth())
+                    : new BucketBuilder(period, bucketMonth.atDay(1), bucketMonth.atEndOfMonth()));
+            if (buckets.size() > maxBuckets) {
+                throw new DiaryException(ErrorCode.INVALID_REQUEST,
+                        "한번에 조회할 수 있는 통계 기간은 " + maxBuckets + "개 입니다.");
+            }
+        }
+
+        for (WeatherStatsMonth stats : weatherStatsMonthRepository.findAllByCityAndStatMonthBetween(statsCity,
+                WeatherStatsMonthRepository.toStatMonth(firstMonth),
+                WeatherStatsMonthRepository.toStatMonth(lastMonth))) {
+            YearMonth month = YearMonth.of(stats.getStatMonth() / 100, stats.getStatMonth() % 100);
+            buckets.get(period(unit, month)).addWeather(stats);
+        }
+        // 합치는 작업은 한 트랜잭션에서 delta 를 지우고 day 에 더하므로, 같은 트랜잭션에서 읽은 두 테이블의 합은 일정하다.
+        Map<LocalDate, Integer> diaryCountByDate = new HashMap<>();
+        for (DiaryStatsDay stats : diaryStatsDayRepository.findAllByDateBetween(
+                firstMonth.atDay(1), lastMonth.atEndOfMonth())) {
+            diaryCountByDate.merge(stats.getDate(), stats.getDiaryCount(), Integer::sum);
+        }
+        for (DiaryStatsDelta delta : diaryStatsDeltaRepository.findAllByDateBetween(
+                firstMonth.atDay(1), lastMonth.atEndOfMonth())) {
+            diaryCountByDate.merge(delta.getDate(), delta.getDelta(), Integer::sum);
+        }
+        diaryCountByDate.forEach((date, diaryCount) ->
+                buckets.get(period(unit, YearMonth.from(date))).addDiaries(diaryCount));
+
+        List<DiaryStats.Bucket> result = new ArrayList<>(buckets.size());
+        buckets.values().forEach(bucket -> result.add(bucket.build()));
+        return DiaryStats.StatsResponse.builder()
+                .unit(unit)
+                .city(statsCity)
+                .buckets(result)
+                .build();
+    }
+
+    /**
+     * 집계 테이블을 비우고 diary, date_weather 에서 다시 계산한다. 집계가 어긋났을 때 쓰는 관리용 명령.
+     */
+    @Transactional
+    public DiaryStats.RebuildResponse rebuild() {
+        long startedAt = System.nanoTime();
+        diaryStatsDeltaRepository.deleteAllRows();
+        diaryStatsDayRepository.deleteAllRows();
+        int diaryDays = diaryStatsDayRepository.insertAllFromDiary();
+        weatherStatsMonthRepository.deleteAllRows();
+        int weatherBuckets = weatherStatsMonthRepository.insertAllFromDateWeather();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info("rebuilt stats : {} diary days, {} weather buckets in {} ms", diaryDays, weatherBuckets, elapsedMillis);
+        return DiaryStats.RebuildResponse.builder()
+                .diaryDays(diaryDays)
+                .weatherBuckets(weatherBuckets)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    /**
+     * 쌓인 일기 수 증감을 diary_stats_day 에 합친다. 한번에 foldBatchSize 행씩, 남은 행이 없을 때까지 반복한다.
+     */
+    @Scheduled(initialDelayString = "${stats.fold.interval-ms:1000}",
+            fixedDelayString = "${stats.fold.interval-ms:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int foldDiaryCounts() {
+        int folded = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<DiaryStatsDelta> deltas = diaryStatsDeltaRepository.findOldest(PageRequest.of(0, foldBatchSize));
+                if (deltas.isEmpty()) {
+                    return 0;
+                }
+                // 읽은 행을 먼저 지운다. 다른 서버가 먼저 합쳐서 지운 행이 있으면 두번 더하지 않도록 되돌린다.
+                List<Long> ids = deltas.stream().map(DiaryStatsDelta::getId).collect(Collectors.toList());
+                if (diaryStatsDeltaRepository.deleteAllByIds(ids) != ids.size()) {
+                    status.setRollbackOnly();
+                    return 0;
+                }
+                Map<LocalDate, Integer> deltaByDate = new HashMap<>();
+                deltas.forEach(delta -> deltaByDate.merge(delta.getDate(), delta.getDelta(), Integer::sum));
+                diaryStatsDayRepository.addDiaryCounts(deltaByDate);
+                return deltas.size();
+            });
+            folded += count == null ? 0 : count;
+            if (count == null || count < foldBatchSize) {
+                return folded;
+            }
+        }
+    }
+
+    private static String period(StatsUnit unit, YearMonth month) {
+        return unit == StatsUnit.YEAR ? String.valueOf(month.getYear()) : month.toString();
+    }
+
+    private static class BucketBuilder {
+        private final String period;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final Map<String, Integer> weatherCounts = new TreeMap<>();
+        private int weatherDays;
+        private double temperatureSum;
+        private double temperatureMin = Double.MAX_VALUE;
+        private double temperatureMax = -Double.MAX_VALUE;
+        private long diaryCount;
+        private int diaryDays;
+
+        private BucketBuilder(String period, LocalDate startDate, LocalDate endDate) {
+            this.period = period;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        private void addWeather(WeatherStatsMonth stats) {
+            weatherCounts.merge(stats.getWeather(), stats.getDayCount(), Integer::sum);
+            weatherDays += stats.getDayCount();
+            temperatureSum += stats.getTemperatureSum();
+            temperatureMin = Math.min(temperatureMin, stats.getTemperatureMin());
+            temperatureMax = Math.max(temperatureMax, stats.getTemperatureMax());
+        }
+
+        private void addDiaries(int count) {
+            if (count > 0) {
+                diaryCount += count;
+                diaryDays++;
+            }
+        }
+
+        private DiaryStats.Bucket build() {
+            long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            return DiaryStats.Bucket.builder()
+                    .period(period)
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .weatherDays(weatherDays)
+                    .averageTemperature(weatherDays == 0 ? null : temperatureSum / weatherDays)
+                    .minTemperature(weatherDays == 0 ? null : temperatureMin)
+                    .maxTemperature(weatherDays == 0 ? null : temperatureMax)
+                    .weatherCounts(weatherCounts)
+                    .diaryCount(diaryCount)
+                    .diaryDays(diaryDays)
+                    .diariesPerDay((double) diaryCount / days)
+                    .build();
+        }
+    }
+}
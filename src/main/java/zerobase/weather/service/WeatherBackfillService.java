@@ -0,0 +1,260 @@
+package zerobase.weather.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.client.HistoricalWeatherProvider;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.WeatherBackfillCheckpoint;
+import zerobase.weather.dto.WeatherBackfillStatus;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.event.DiaryChangedEvent;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.repository.WeatherBackfillCheckpointRepository;
+import zerobase.weather.support.SingleRun;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 날씨가 비어 있는 지난 (도시, 날짜)를 찾아서 HistoricalWeatherProvider 로 채우는 작업.
+ * 도시, 월 단위 구간(chunk)을 worker pool 에서 나눠 처리하고, 구간마다 batch 로 저장한 뒤 checkpoint 를 남긴다.
+ * 다시 실행하면 checkpoint 가 있는 구간은 건너뛰고, 날씨 없이 저장된 일기도 함께 보정한다.
+ */
+@Slf4j
+@Component
+public class WeatherBackfillService implements DisposableBean {
+    private final HistoricalWeatherProvider historicalWeatherProvider;
+    private final DateWeatherRepository dateWeatherRepository;
+    private final DiaryRepository diaryRepository;
+    private final WeatherBackfillCheckpointRepository checkpointRepository;
+    private final WeatherCollector weatherCollector;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService workers;
+    private final SingleRun<BackfillRun> currentRun = new SingleRun<>(BackfillRun::isRunning);
+    // 일기는 기본 도시의 날씨로 저장되므로 이 도시의 날씨로만 보정한다.
+    @Value("${openweathermap.city:seoul}")
+    private String diaryCity;
+
+    public WeatherBackfillService(HistoricalWeatherProvider historicalWeatherProvider,
+                                  DateWeatherRepository dateWeatherRepository,
+                                  DiaryRepository diaryRepository,
+                                  WeatherBackfillCheckpointRepository checkpointRepository,
+                                  WeatherCollector weatherCollector,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${weather.backfill.threads:8}") int threads) {
+        this.historicalWeatherProvider = historicalWeatherProvider;
+        this.dateWeatherRepository = dateWeatherRepository;
+        this.diaryRepository = diaryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.weatherCollector = weatherCollector;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("weather-backfill-"));
+    }
+
+    /**
+     * 기간의 보정 작업을 시작하고 바로 반환한다. 어제 이후 날짜는 대상이 아니다.
+     */
+    public WeatherBackfillStatus start(LocalDate startDate, LocalDate endDate) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (startDate.isAfter(endDate) || startDate.isAfter(yesterday)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        LocalDate lastDate = endDate.isAfter(yesterday) ? yesterday : endDate;
+        List<Chunk> chunks = chunks(weatherCollector.getCities(), startDate, lastDate);
+
+        BackfillRun run = new BackfillRun(startDate, lastDate, chunks.size());
+        if (!currentRun.tryStart(run)) {
+            throw new DiaryException(ErrorCode.BACKFILL_ALREADY_RUNNING);
+        }
+        log.info("weather backfill started : {} ~ {}, {} chunks", startDate, lastDate, chunks.size());
+
+        CompletableFuture<?>[] tasks = chunks.stream()
+                .map(chunk -> CompletableFuture.runAsync(() -> process(run, chunk), workers))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).whenComplete((ignored, e) -> {
+            run.finish(e == null ? "COMPLETED" : "FAILED");
+            log.info("weather backfill finished : {} filled, {} failed dates, {} diaries repaired",
+                    run.filledDates.get(), run.failedDates.get(), run.repairedDiaries.get());
+        });
+        return run.toStatus();
+    }
+
+    public WeatherBackfillStatus getStatus() {
+        BackfillRun run = currentRun.get();
+        if (run == null) {
+            throw new DiaryException(ErrorCode.NULL_DATA_ERROR, "실행한 날씨 보정 작업이 없습니다.");
+        }
+        return run.toStatus();
+    }
+
+    private void process(BackfillRun run, Chunk chunk) {
+        try {
+            boolean done = checkpointRepository.findById(new WeatherBackfillCheckpoint.Key(chunk.city, chunk.monthStart))
+                    .filter(checkpoint -> checkpoint.covers(chunk.from, chunk.to))
+                    .isPresent();
+            if (done) {
+                run.skippedChunks.incrementAndGet();
+                return;
+            }
+
+            // 이미 날씨가 있는 날짜는 건너뛰고 빈 날짜만 가져온다.
+            Set<LocalDate> existing = new HashSet<>(
+                    dateWeatherRepository.findDatesByCityAndDateBetween(chunk.city, chunk.from, chunk.to));
+            List<DateWeather> fetched = new ArrayList<>();
+            int failed = 0;
+            for (LocalDate date = chunk.from; !date.isAfter(chunk.to); date = date.plusDays(1)) {
+                if (existing.contains(date)) {
+                    continue;
+                }
+                try {
+                    fetched.add(toDateWeather(chunk.city, date,
+                            historicalWeatherProvider.getWeather(chunk.city, date)));
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("failed to fetch weather of {} {} : {}", chunk.city, date, e.toString());
+                }
+            }
+            int failedDates = failed;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                dateWeatherRepository.insertAllIfAbsent(fetched);
+                if (chunk.city.equals(diaryCity)) {
+                    int repaired = diaryRepository.repairWeather(chunk.city, chunk.from, chunk.to);
+                    if (repaired > 0) {
+                        eventPublisher.publishEvent(DiaryChangedEvent.between(chunk.from, chunk.to));
+                    }
+                    run.repairedDiaries.addAndGet(repaired);
+                }
+                // 실패한 날짜가 남아 있으면 checkpoint 를 남기지 않아서 다음 실행 때 다시 시도한다.
+                if (failedDates == 0) {
+                    checkpointRepository.save(WeatherBackfillCheckpoint.builder()
+                            .city(chunk.city)
+                            .monthStart(chunk.monthStart)
+                            .fromDate(chunk.from)
+                            .toDate(chunk.to)
+                            .filledCount(fetched.size())
+                            .completedAt(LocalDateTime.now())
+                            .build());
+                }
+            });
+            run.filledDates.addAndGet(fetched.size());
+            run.failedDates.addAndGet(failedDates);
+            run.completedChunks.incrementAndGet();
+        } catch (RuntimeException e) {
+            run.failedChunks.incrementAndGet();
+            log.error("weather backfill chunk {} {} ~ {} failed", chunk.city, chunk.from, chunk.to, e);
+        }
+    }
+
+    // 도시마다 기간을 달력의 월 단위로 자른다. 같은 월은 항상 같은 checkpoint 를 사용한다.
+    private static List<Chunk> chunks(List<String> cities, LocalDate startDate, LocalDate endDate) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (String city : cities) {
+            LocalDate monthStart = startDate.withDayOfMonth(1);
+            while (!monthStart.isAfter(endDate)) {
+                LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
+                LocalDate from = startDate.isAfter(monthStart) ? startDate : monthStart;
+                LocalDate to = endDate.isBefore(monthEnd) ? endDate : monthEnd;
+                chunks.add(new Chunk(city, monthStart, from, to));
+                monthStart = monthStart.plusMonths(1);
+            }
+        }
+        return chunks;
+    }
+
+    private static DateWeather toDateWeather(String city, LocalDate date, WeatherSnapshot weatherSnapshot) {
+        return DateWeather.builder()
+                .city(city)
+                .date(date)
+                .weather(weatherSnapshot.getWeather())
+                .icon(weatherSnapshot.getIcon())
+                .temperature(weatherSnapshot.getTemperature())
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    private static class Chunk {
+        private final String city;
+        private final LocalDate monthStart;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        private Chunk(String city, LocalDate monthStart, LocalDate from, LocalDate to) {
+            this.city = city;
+            this.monthStart = monthStart;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private static class BackfillRun {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final int totalChunks;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger completedChunks = new AtomicInteger();
+        private final AtomicInteger skippedChunks = new AtomicInteger();
+        private final AtomicInteger failedChunks = new AtomicInteger();
+        private final AtomicInteger filledDates = new AtomicInteger();
+        private final AtomicInteger failedDates = new AtomicInteger();
+        private final AtomicInteger repairedDiaries = new AtomicInteger();
+        private volatile String state = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+
+        private BackfillRun(LocalDate startDate, LocalDate endDate, int totalChunks) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.totalChunks = totalChunks;
+        }
+
+        private boolean isRunning() {
+            return finishedAt == null;
+        }
+
+        private void finish(String state) {
+            this.state = state;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        private WeatherBackfillStatus toStatus() {
+            return WeatherBackfillStatus.builder()
+                    .state(state)
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .totalChunks(totalChunks)
+                    .completedChunks(completedChunks.get())
+                    .skippedChunks(skippedChunks.get())
+                    .failedChunks(failedChunks.get())
+                    .filledDates(filledDates.get())
+                    .failedDates(failedDates.get())
+                    .repairedDiaries(repairedDiaries.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package zerobase.weather.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.client.WeatherPayloadParser;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.repository.DateWeatherRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 설정된 모든 도시의 오늘 날씨를 모아서 저장한다.
+ * 도시별 호출은 동시에 최대 concurrency 개까지만 진행하고, 모은 결과는 batch upsert 한번으로 저장한다.
+ */
+@Slf4j
+@Component
+public class WeatherCollector {
+    private final WeatherApiClient weatherApiClient;
+    private final WeatherPayloadParser weatherPayloadParser;
+    private final DateWeatherRepository dateWeatherRepository;
+    private final DateWeatherCache dateWeatherCache;
+    private final List<String> cities;
+    private final int concurrency;
+    // 마지막 날씨 저장 job 수행 시간 (gauge 로 노출)
+    private volatile long lastWeatherJobMillis;
+
+    public WeatherCollector(WeatherApiClient weatherApiClient, WeatherPayloadParser weatherPayloadParser,
+                            DateWeatherRepository dateWeatherRepository, DateWeatherCache dateWeatherCache,
+                            @Value("${openweathermap.cities:${openweathermap.city:seoul}}") String[] cities,
+                            @Value("${weather.collect.concurrency:8}") int concurrency) {
+        this.weatherApiClient = weatherApiClient;
+        this.weatherPayloadParser = weatherPayloadParser;
+        this.dateWeatherRepository = dateWeatherRepository;
+        this.dateWeatherCache = dateWeatherCache;
+        this.cities = Collections.unmodifiableList(Arrays.stream(cities)
+                .map(String::trim)
+                .filter(city -> !city.isEmpty())
+                .distinct()
+                .collect(Collectors.toList()));
+        this.concurrency = concurrency;
+    }
+
+    @Scheduled(cron = "0 0 1 * * *")
+    @Timed(value = "weather.job", extraTags = {"job", "saveWeatherDate"})
+    public void saveWeatherDate() {
+        long startedAt = System.nanoTime();
+        try {
+            int saved = collectAll();
+            log.info("schedule is successfully finished : {} / {} cities", saved, cities.size());
+        } finally {
+            lastWeatherJobMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        }
+    }
+
+    public int collectAll() {
+        LocalDate today = LocalDate.now();
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<CompletableFuture<DateWeather>> fetches = new ArrayList<>(cities.size());
+        for (String city : cities) {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("weather collection interrupted after {} cities", fetches.size());
+                break;
+            }
+            fetches.add(weatherApiClient.getCurrentWeatherAsync(city, weatherPayloadParser::parse)
+                    .whenComplete((snapshot, e) -> inFlight.release())
+                    .thenApply(snapshot -> toDateWeather(city, today, snapshot))
+                    .exceptionally(e -> {
+                        // 한 도시의 실패가 다른 도시의 저장을 막지 않도록 건너뛴다.
+                        log.warn("failed to collect weather of {} : {}", city, e.toString());
+                        return null;
+                    }));
+        }
+
+        List<DateWeather> collected = fetches.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        dateWeatherRepository.upsertAll(collected);
+        collected.forEach(dateWeather -> dateWeatherCache.invalidate(dateWeather.getCity(), dateWeather.getDate()));
+        return collected.size();
+    }
+
+    public List<String> getCities() {
+        return cities;
+    }
+
+    public long getLastWeatherJobMillis() {
+        return lastWeatherJobMillis;
+    }
+
+    private static DateWeather toDateWeather(String city, LocalDate date, WeatherSnapshot weatherSnapshot) {
+        return DateWeather.builder()
+                .city(city)
+                .date(date)
+                .weather(weatherSnapshot.getWeather())
+                .icon(weatherSnapshot.getIcon())
+                .temperature(weatherSnapshot.getTemperature())
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package zerobase.weather.support;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 초당 허용 요청 수를 넘지 않도록 호출 간격을 벌린다.
+ * 요청마다 다음 허용 시각을 예약하고, 예약한 시각까지 호출한 thread 를 재운다.
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive : " + permitsPerSecond);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long reserved = Math.max(now, nextFreeNanos);
+            nextFreeNanos = reserved + intervalNanos;
+            waitNanos = reserved - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
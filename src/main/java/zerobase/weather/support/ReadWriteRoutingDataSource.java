@@ -0,0 +1,162 @@
+package zerobase.weather.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 나머지는 primary 로 보내는 DataSource.
+ * 트랜잭션의 readOnly 속성이 정해진 뒤에 연결을 골라야 하므로 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ * replica 는 health check 를 통과한 것 중에서 round robin 으로 고르고, 연결에 실패하면 primary 에서 읽는다.
+ * readYourWritesMillis 가 0 보다 크면 쓰기 트랜잭션이 커밋된 뒤 그 시간 동안은 읽기도 primary 로 보낸다.
+ * 방금 커밋된 내용을 읽어야 하는 작업(검색 색인 반영, ETag 계산)은 readFromPrimary 로 감싸서 primary 에서 읽는다.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    private static final ThreadLocal<Boolean> READ_FROM_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final int healthCheckTimeoutSeconds;
+    private final long readYourWritesNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    // health check 를 통과한 replica 의 index. check 마다 새 목록으로 바꾼다.
+    private volatile List<Integer> healthyReplicas;
+    private volatile long lastWriteCommittedAt = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      int healthCheckTimeoutSeconds, long readYourWritesMillis) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.healthCheckTimeoutSeconds = healthCheckTimeoutSeconds;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        List<Integer> all = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            all.add(i);
+        }
+        this.healthyReplicas = Collections.unmodifiableList(all);
+    }
+
+    /**
+     * action 안에서 새로 가져오는 연결은 읽기 전용 트랜잭션이어도 primary 를 쓴다. 쓰기로 치지 않으므로 read-your-writes 에는 영향이 없다.
+     * 연결은 첫 SQL 을 실행할 때 정해지므로 트랜잭션의 첫 SQL 이 action 안에 있어야 한다. (이미 연결을 고른 트랜잭션에는 효과가 없다)
+     */
+    public static <T> T readFromPrimary(Supplier<T> action) {
+        Boolean previous = READ_FROM_PRIMARY.get();
+        READ_FROM_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                READ_FROM_PRIMARY.remove();
+            } else {
+                READ_FROM_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int replica = selectReplica();
+        if (replica < 0) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(replica).getConnection();
+        } catch (SQLException e) {
+            markUnhealthy(replica, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * replica 마다 연결을 하나 빌려서 확인한다. 실패한 replica 는 다음 check 를 통과할 때까지 읽기에서 빠진다.
+     */
+    @Scheduled(fixedDelayString = "${diary.datasource.replica-health-interval-ms:5000}")
+    public void checkReplicas() {
+        List<Integer> healthy = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    healthy.add(i);
+                }
+            } catch (SQLException e) {
+                log.warn("replica-{} health check failed : {}", i, e.toString());
+            }
+        }
+        if (!healthy.equals(healthyReplicas)) {
+            log.info("healthy replicas changed : {} -> {}", healthyReplicas, healthy);
+        }
+        healthyReplicas = Collections.unmodifiableList(healthy);
+    }
+
+    public int getHealthyReplicaCount() {
+        return healthyReplicas.size();
+    }
+
+    // 읽을 replica 의 index. primary 를 써야 하면 -1
+    private int selectReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return -1;
+        }
+        if (READ_FROM_PRIMARY.get() != null) {
+            return -1;
+        }
+        if (readYourWritesNanos > 0 && System.nanoTime() - lastWriteCommittedAt < readYourWritesNanos) {
+            return -1;
+        }
+        List<Integer> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            return -1;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    private void recordWriteOnCommit() {
+        if (readYourWritesNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteCommittedAt = System.nanoTime();
+            }
+        });
+    }
+
+    private synchronized void markUnhealthy(int replica, SQLException e) {
+        log.warn("replica-{} connection failed, reading from primary : {}", replica, e.toString());
+        List<Integer> healthy = new ArrayList<>(healthyReplicas);
+        healthy.remove(Integer.valueOf(replica));
+        healthyReplicas = Collections.unmodifiableList(healthy);
+    }
+
+    // replica pool 은 이 DataSource 가 만들고 닫는다. primary 는 bean 으로 따로 닫힌다.
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable) {
+                ((AutoCloseable) replica).close();
+            }
+        }
+    }
+}
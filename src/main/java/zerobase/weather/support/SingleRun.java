@@ -0,0 +1,35 @@
+package zerobase.weather.support;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * 한번에 하나만 실행되는 작업의 마지막 실행을 들고 있는다.
+ * 이전 실행이 끝났을 때만 새 실행으로 바꾸고, 동시에 시작하면 하나만 성공한다.
+ */
+public class SingleRun<R> {
+    private final AtomicReference<R> current = new AtomicReference<>();
+    private final Predicate<R> running;
+
+    public SingleRun(Predicate<R> running) {
+        this.running = running;
+    }
+
+    /**
+     * 진행 중인 실행이 없으면 run 을 현재 실행으로 두고 true, 있으면 false
+     * 읽어 둔 이전 실행이 끝났는지 확인한 뒤 compareAndSet 으로 바꾸므로, 그 사이 다른 thread 가 먼저 시작했으면
+     * 현재 실행이 달라져서 실패한다. 동시에 시작해도 하나만 성공한다.
+     * 한번 끝난 실행이 다시 running 이 되지는 않아야 한다.
+     */
+    public boolean tryStart(R run) {
+        R previous = current.get();
+        return (previous == null || !running.test(previous)) && current.compareAndSet(previous, run);
+    }
+
+    /**
+     * 마지막으로 시작한 실행. 없으면 null
+     */
+    public R get() {
+        return current.get();
+    }
+}
@@ -0,0 +1,19 @@
+package zerobase.weather.type;
+
+/**
+ * 일기를 파일로 주고받을 때의 형식. 한 줄에 일기 하나
+ */
+public enum DiaryFileFormat {
+    NDJSON("ndjson"),
+    CSV("csv");
+
+    private final String extension;
+
+    DiaryFileFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
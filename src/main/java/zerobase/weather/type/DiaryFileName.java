@@ -0,0 +1,30 @@
+package zerobase.weather.type;
+
+import zerobase.weather.exception.DiaryException;
+
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * 요청으로 받은 가져오기/내보내기 파일 이름. 다른 디렉토리를 가리키지 못하게 한다.
+ */
+public final class DiaryFileName {
+    private static final Pattern PATTERN = Pattern.compile("[0-9A-Za-z][0-9A-Za-z._-]*");
+
+    private DiaryFileName() {
+    }
+
+    public static boolean isValid(String name) {
+        return name != null && PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * directory 바로 아래의 name 경로. 이름이 올바르지 않으면 INVALID_REQUEST
+     */
+    public static Path resolve(Path directory, String name) {
+        if (!isValid(name)) {
+            throw new DiaryException(ErrorCode.INVALID_REQUEST);
+        }
+        return directory.resolve(name);
+    }
+}
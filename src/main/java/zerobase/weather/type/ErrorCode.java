@@ -11,7 +11,17 @@ public enum ErrorCode {
     TOO_FAR_FROM_END_DATE("조회 날짜는 1년을 초과할 수 없습니다."),
     INVALID_DATE("날짜 형식에 오류가 있습니다."),
     NULL_DATA_ERROR("해당 날짜에 기록이 없습니다."),
-    INVALID_REQUEST("잘못된 요청입니다.");
+    INVALID_REQUEST("잘못된 요청입니다."),
+    WEATHER_API_ERROR("날씨 정보를 가져오지 못했습니다."),
+    WEATHER_API_TIMEOUT("날씨 정보 요청 시간이 초과되었습니다."),
+    WEATHER_API_UNAVAILABLE("날씨 정보 제공처가 일시적으로 응답하지 않습니다."),
+    TOO_MANY_DIARIES("한번에 저장할 수 있는 일기 수를 초과했습니다."),
+    BACKFILL_ALREADY_RUNNING("날씨 보정 작업이 이미 진행 중입니다."),
+    SERVER_BUSY("요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해 주세요."),
+    INGEST_LOG_ERROR("일기 접수 기록에 실패했습니다."),
+    EXPORT_ALREADY_RUNNING("일기 내보내기 작업이 이미 진행 중입니다."),
+    IMPORT_ALREADY_RUNNING("일기 가져오기 작업이 이미 진행 중입니다."),
+    IMPORT_NOT_RESUMABLE("이전 가져오기와 파일 또는 구간 크기가 달라 이어서 가져올 수 없습니다.");
 
     private final String description;
 }
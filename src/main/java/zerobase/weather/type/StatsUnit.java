@@ -0,0 +1,9 @@
+package zerobase.weather.type;
+
+/**
+ * 통계를 묶는 기간 단위
+ */
+public enum StatsUnit {
+    MONTH,
+    YEAR
+}
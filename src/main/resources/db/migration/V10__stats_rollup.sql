@@ -0,0 +1,29 @@
+-- 통계용 집계 테이블. 일기/날씨를 저장할 때 같이 갱신해서 통계 조회가 원본 행을 훑지 않도록 한다.
+-- 날짜별 일기 수. diary_stats_delta 를 주기적으로 합쳐서 갱신한다.
+create table diary_stats_day(
+                      date DATE NOT NULL primary key,
+                      diary_count INT NOT NULL
+);
+-- 아직 합치지 않은 날짜별 일기 수 증감. 작성/삭제하는 트랜잭션은 +n / -n 행을 추가만 해서 같은 날짜의 행 lock 을 기다리지 않는다.
+create table diary_stats_delta(
+                      id BIGINT NOT NULL AUTO_INCREMENT primary key,
+                      date DATE NOT NULL,
+                      delta INT NOT NULL
+);
+create index idx_diary_stats_delta_date on diary_stats_delta (date);
+-- 도시, 월(yyyyMM), 날씨별 날씨 집계. 날씨가 저장된 월은 date_weather 에서 다시 계산한다. (한 달 최대 31 행)
+create table weather_stats_month(
+                      city VARCHAR(50) NOT NULL,
+                      stat_month INT NOT NULL,
+                      weather VARCHAR(50) NOT NULL,
+                      day_count INT NOT NULL,
+                      temperature_sum DOUBLE NOT NULL,
+                      temperature_min DOUBLE NOT NULL,
+                      temperature_max DOUBLE NOT NULL,
+                      primary key (city, stat_month, weather)
+);
+
+insert into diary_stats_day (date, diary_count) select date, count(*) from diary group by date;
+insert into weather_stats_month (city, stat_month, weather, day_count, temperature_sum, temperature_min, temperature_max)
+select city, year(date) * 100 + month(date), weather, count(*), sum(temperature), min(temperature), max(temperature)
+from date_weather group by city, year(date) * 100 + month(date), weather;
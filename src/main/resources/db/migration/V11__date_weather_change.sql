@@ -0,0 +1,10 @@
+-- date_weather 를 보정했다는 기록. 각 인스턴스가 주기적으로 읽어서 자기 2차 캐시와 날씨 캐시에서 해당 날짜를 지운다.
+-- 무효화에만 쓰므로 하루가 지난 행은 지운다.
+create table date_weather_change(
+                      id BIGINT NOT NULL AUTO_INCREMENT primary key,
+                      city VARCHAR(50) NOT NULL,
+                      start_date DATE NOT NULL,
+                      end_date DATE NOT NULL,
+                      changed_at DATETIME(3) NOT NULL
+);
+create index idx_date_weather_change_changed_at on date_weather_change (changed_at);
@@ -0,0 +1,12 @@
+-- 일기 가져오기 진행 기록. 파일을 chunk_rows 행씩 나눈 구간마다 일기와 같은 트랜잭션에서 한 줄씩 남긴다.
+-- 같은 import_id 로 다시 실행하면 기록이 있는 구간은 건너뛰고, 기본키가 같은 구간을 두번 저장하지 못하게 막는다.
+create table diary_import_chunk(
+                      import_id VARCHAR(100) NOT NULL,
+                      chunk_no INT NOT NULL,
+                      first_record BIGINT NOT NULL,
+                      record_count INT NOT NULL,
+                      imported_count INT NOT NULL,
+                      rejected_count INT NOT NULL,
+                      completed_at DATETIME(3) NOT NULL,
+                      primary key (import_id, chunk_no)
+);
@@ -0,0 +1,3 @@
+-- 일기 접수 번호의 앞자리(epoch). ingest log 가 열릴 때마다 하나씩 받아서 다른 서버나 초기화된 log 와 번호가 겹치지 않게 한다.
+-- 기존 접수 번호는 log 별로 1 부터 센 값이므로 2^32 보다 작고, epoch 1 부터의 번호와 겹치지 않는다.
+insert into id_generator (name, next_val) values ('diary_ingest_epoch', 0);
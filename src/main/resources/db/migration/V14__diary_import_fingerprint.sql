@@ -0,0 +1,3 @@
+-- 구간을 저장할 때 읽은 파일의 크기와 수정 시각. 이어서 가져올 때 파일이 바뀌었으면 거절한다.
+-- 이전에 남긴 기록은 비워 두고 구간 크기만 확인한다.
+alter table diary_import_chunk add column source_fingerprint VARCHAR(100) NULL;
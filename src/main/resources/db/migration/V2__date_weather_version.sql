@@ -0,0 +1 @@
+alter table date_weather add column version BIGINT NOT NULL DEFAULT 0;
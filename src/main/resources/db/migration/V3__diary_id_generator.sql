@@ -0,0 +1,6 @@
+create table id_generator(
+                     name VARCHAR(50) not null primary key,
+                     next_val BIGINT NOT NULL
+);
+-- 기존 diary id 이후부터 할당되도록 시작값 지정
+insert into id_generator (name, next_val) select 'diary', coalesce(max(id), 0) + 50 from diary;
@@ -0,0 +1,3 @@
+-- findAllByDate, findAllByDateBetween, getFirstByDate, deleteAllByDate 와 기간 페이지 조회가
+-- 모두 date 로 찾고 id 순으로 정렬하므로 (date, id) 인덱스 하나로 full scan 을 피한다.
+create index idx_diary_date_id on diary (date, id);
@@ -0,0 +1,5 @@
+-- 여러 도시의 날씨를 저장하기 위해 date_weather 의 기본키를 (city, date) 로 바꾼다.
+-- 기존 날씨는 기본 도시(seoul)의 날씨로 남긴다.
+alter table date_weather add column city VARCHAR(50) NOT NULL DEFAULT 'seoul';
+alter table date_weather drop primary key;
+alter table date_weather add primary key (city, date);
@@ -0,0 +1,10 @@
+-- 과거 날씨 보정 작업의 진행 기록. 도시, 월 단위로 끝난 구간을 남겨서 재시작 시 건너뛴다.
+create table weather_backfill_checkpoint(
+                      city VARCHAR(50) NOT NULL,
+                      month_start DATE NOT NULL,
+                      from_date DATE NOT NULL,
+                      to_date DATE NOT NULL,
+                      filled_count INT NOT NULL,
+                      completed_at DATETIME NOT NULL,
+                      primary key (city, month_start)
+);
@@ -0,0 +1,3 @@
+-- 날씨 제공처 장애 중 마지막으로 알려진 날씨로 저장한 일기 표시. 백그라운드 보정 대상을 인덱스로 찾는다.
+alter table diary add column weather_stale BOOLEAN NOT NULL DEFAULT FALSE;
+create index idx_diary_weather_stale on diary (weather_stale, date);
@@ -0,0 +1,3 @@
+-- write-behind 로 접수된 일기의 접수 번호. 재시작 후 log 를 다시 반영할 때 중복 저장을 막는다.
+alter table diary add column ingest_id BIGINT NULL;
+create unique index uk_diary_ingest_id on diary (ingest_id);
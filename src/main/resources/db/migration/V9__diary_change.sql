@@ -0,0 +1,18 @@
+-- 날짜별 일기 버전. diary_change 를 주기적으로 날짜별로 세어 더한다.
+create table diary_version(
+                      date DATE NOT NULL primary key,
+                      version BIGINT NOT NULL,
+                      changed_at DATETIME(3) NOT NULL
+);
+-- 아직 diary_version 에 합치지 않은 일기 변경. 작성/수정/삭제마다 한 줄씩 추가만 해서 같은 날짜에 쓰는 트랜잭션끼리 lock 을 기다리지 않는다.
+-- ETag 는 마지막 id 가 아닌 diary_version 의 합과 이 테이블의 행 수로 만들어서, 늦게 커밋된 변경도 커밋되는 순간 반영된다.
+-- 날짜 하나의 변경은 start_date 와 end_date 가 같다.
+create table diary_change(
+                      id BIGINT NOT NULL AUTO_INCREMENT primary key,
+                      start_date DATE NOT NULL,
+                      end_date DATE NOT NULL,
+                      changed_at DATETIME(3) NOT NULL
+);
+create index idx_diary_change_start_date on diary_change (start_date, end_date);
+-- 기존 일기가 있는 날짜도 ETag 를 가지도록 버전 1 로 시작한다.
+insert into diary_version (date, version, changed_at) select distinct date, 1, current_timestamp(3) from diary;
@@ -1,22 +1,4 @@
 create database project;
 use project;
--- create table memo(
---                      id INT not null primary key auto_increment,
---                      text varchar(50) NOT NULL
--- );
-
-create table diary(
-                      id INT not null primary key auto_increment,
-                      weather VARCHAR(50) NOT NULL,
-                      icon VARCHAR(50) NOT NULL,
-                      temperature double NOT NULL,
-                      text VARCHAR(500) NOT NULL,
-                      date DATE NOT NULL
-);
-
-create table date_weather(
-                     date DATE not null primary key,
-                     weather VARCHAR(50) NOT NULL,
-                     icon VARCHAR(50) NOT NULL,
-                     temperature DOUBLE NOT NULL
-);
+-- 테이블은 애플리케이션 시작 시 Flyway 가 src/main/resources/db/migration 의 스크립트로 생성/변경한다.
+-- 이 스크립트로 테이블을 이미 만든 DB 는 spring.flyway.baseline-on-migrate 설정으로 V1 을 건너뛰고 V2 부터 적용된다.
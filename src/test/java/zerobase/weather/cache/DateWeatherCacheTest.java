@@ -0,0 +1,110 @@
+package zerobase.weather.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zerobase.weather.domain.DateWeather;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateWeatherCacheTest {
+    private static final String CITY = "seoul";
+
+    private DateWeather dateWeather(LocalDate date) {
+        return DateWeather.builder()
+                .city(CITY)
+                .date(date)
+                .weather("Clear")
+                .icon("01d")
+                .temperature(21.5)
+                .build();
+    }
+
+    @Test
+    @DisplayName("캐시 적중/미스 카운트")
+    void hitAndMiss() {
+        //given
+        DateWeatherCache cache = new DateWeatherCache(10, 600);
+        LocalDate testDate = LocalDate.of(2023, 8, 1);
+
+        //when
+        assertNull(cache.get(CITY, testDate));
+        cache.put(dateWeather(testDate));
+        DateWeather result = cache.get(CITY, testDate);
+
+        //then
+        assertEquals("Clear", result.getWeather());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("최대 크기를 넘으면 가장 오래 사용하지 않은 날짜부터 제거")
+    void evictLeastRecentlyUsed() {
+        //given
+        DateWeatherCache cache = new DateWeatherCache(2, 600);
+        LocalDate first = LocalDate.of(2023, 8, 1);
+        LocalDate second = LocalDate.of(2023, 8, 2);
+        LocalDate third = LocalDate.of(2023, 8, 3);
+
+        //when
+        cache.put(dateWeather(first));
+        cache.put(dateWeather(second));
+        cache.get(CITY, first);
+        cache.put(dateWeather(third));
+
+        //then
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(CITY, first));
+        assertNull(cache.get(CITY, second));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("오늘 날씨는 TTL 이 지나면 만료, 지난 날짜는 유지")
+    void expireOnlyTodayEntries() {
+        //given
+        DateWeatherCache cache = new DateWeatherCache(10, 0);
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+
+        //when
+        cache.put(dateWeather(today));
+        cache.put(dateWeather(yesterday));
+
+        //then
+        assertNull(cache.get(CITY, today));
+        assertNotNull(cache.get(CITY, yesterday));
+    }
+
+    @Test
+    @DisplayName("같은 날짜라도 도시가 다르면 따로 보관")
+    void separateByCity() {
+        //given
+        DateWeatherCache cache = new DateWeatherCache(10, 600);
+        LocalDate testDate = LocalDate.of(2023, 8, 1);
+
+        //when
+        cache.put(dateWeather(testDate));
+
+        //then
+        assertNotNull(cache.get(CITY, testDate));
+        assertNull(cache.get("busan", testDate));
+    }
+
+    @Test
+    @DisplayName("저장 시 캐시 무효화")
+    void invalidate() {
+        //given
+        DateWeatherCache cache = new DateWeatherCache(10, 600);
+        LocalDate testDate = LocalDate.of(2023, 8, 1);
+        cache.put(dateWeather(testDate));
+
+        //when
+        cache.invalidate(CITY, testDate);
+
+        //then
+        assertNull(cache.get(CITY, testDate));
+    }
+}
@@ -0,0 +1,100 @@
+package zerobase.weather.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.repository.DateWeatherRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 주기적인 poll 이 테스트 중간에 끼어들지 않도록 직접 호출한다.
+@SpringBootTest(properties = "cache.invalidation.poll-interval-ms=3600000")
+class DateWeatherInvalidatorTest {
+    private static final LocalDate DATE = LocalDate.of(2023, 9, 1);
+
+    @Autowired
+    private DateWeatherInvalidator dateWeatherInvalidator;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        dateWeatherRepository.deleteAll();
+        jdbcTemplate.update("delete from date_weather_change");
+        dateWeatherInvalidator.poll();
+    }
+
+    @Test
+    @DisplayName("같은 날짜를 다시 조회하면 DB 대신 캐시에서 읽고, 날씨를 덮어쓰면 새 값을 읽는다")
+    void queryCache() {
+        //given
+        dateWeatherRepository.insertAllIfAbsent(Collections.singletonList(dateWeather("Clear")));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        dateWeatherRepository.findAllByDate(DATE);
+        long hitsBefore = statistics.getQueryCacheHitCount();
+
+        //when
+        String cached = dateWeatherRepository.findAllByDate(DATE).get(0).getWeather();
+        long hitsAfter = statistics.getQueryCacheHitCount();
+        dateWeatherRepository.upsertAll(Collections.singletonList(dateWeather("Rain")));
+        String corrected = dateWeatherRepository.findAllByDate(DATE).get(0).getWeather();
+
+        //then
+        assertEquals("Clear", cached);
+        assertEquals(hitsBefore + 1, hitsAfter);
+        assertEquals("Rain", corrected);
+    }
+
+    @Test
+    @DisplayName("다른 서버가 남긴 보정 기록을 읽으면 캐시를 비운다")
+    void remoteChange() {
+        //given
+        dateWeatherRepository.insertAllIfAbsent(Collections.singletonList(dateWeather("Clear")));
+        dateWeatherRepository.findAllByDate(DATE);
+        // 다른 서버가 날씨를 고치고 기록을 남긴 상황
+        jdbcTemplate.update("update date_weather set weather = 'Snow' where city = 'seoul' and date = ?", DATE);
+        jdbcTemplate.update("insert into date_weather_change (city, start_date, end_date, changed_at) " +
+                "values ('seoul', ?, ?, current_timestamp(3))", DATE, DATE);
+        String beforePoll = dateWeatherRepository.findAllByDate(DATE).get(0).getWeather();
+
+        //when
+        dateWeatherInvalidator.poll();
+        String afterPoll = dateWeatherRepository.findAllByDate(DATE).get(0).getWeather();
+
+        //then
+        assertEquals("Clear", beforePoll);
+        assertEquals("Snow", afterPoll);
+    }
+
+    private static DateWeather dateWeather(String weather) {
+        return DateWeather.builder()
+                .city("seoul")
+                .date(DATE)
+                .weather(weather)
+                .icon("01d")
+                .temperature(20.0)
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package zerobase.weather.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.support.CircuitBreaker;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherApiClientTest {
+    private HttpServer server;
+    private WeatherApiClient client;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/data/2.5/weather", exchange -> {
+            if (exchange.getRequestURI().getQuery().contains("q=down")) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            if (exchange.getRequestURI().getQuery().contains("q=slow")) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = "{\"main\":{\"temp\":21.5}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/data/2.5/history/city", exchange -> {
+            byte[] body = "{\"list\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        client = new WeatherApiClient(baseUrl, baseUrl, "test",
+                500, 500, 1000, 4, 2, 8, 1000, 1000, 3, 30000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("현재 날씨 응답 body 읽기")
+    void getCurrentWeather() {
+        //when
+        String body = client.getCurrentWeather("seoul",
+                in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+
+        //then
+        assertTrue(body.contains("temp"));
+    }
+
+    @Test
+    @DisplayName("응답 코드별 요청 시간 기록")
+    void recordRequestMetrics() {
+        //when
+        client.getCurrentWeather("seoul", in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+
+        //then
+        assertEquals(1, meterRegistry.get("weather.api.requests").tag("status", "200").timer().count());
+        assertEquals(0, meterRegistry.get("weather.api.pool.leased").gauge().value());
+    }
+
+    @Test
+    @DisplayName("비동기 호출")
+    void getCurrentWeatherAsync() {
+        //when
+        String body = client.getCurrentWeatherAsync("seoul",
+                in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8)).join();
+
+        //then
+        assertTrue(body.contains("temp"));
+    }
+
+    @Test
+    @DisplayName("응답이 늦으면 timeout 예외")
+    void timeout() {
+        //when
+        CompletionException e = assertThrows(CompletionException.class, () -> client.getCurrentWeatherAsync("slow",
+                in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8)).join());
+
+        //then
+        assertTrue(e.getCause() instanceof DiaryException);
+        assertEquals(ErrorCode.WEATHER_API_TIMEOUT, ((DiaryException) e.getCause()).getErrorCode());
+        assertEquals(1, meterRegistry.get("weather.api.timeouts").counter().count());
+    }
+
+    @Test
+    @DisplayName("연속 실패가 기준을 넘으면 요청 없이 바로 실패")
+    void openCircuitAfterFailures() {
+        //given
+        for (int i = 0; i < 3; i++) {
+            DiaryException e = assertThrows(DiaryException.class, () -> client.getCurrentWeather("down",
+                    in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8)));
+            assertEquals(ErrorCode.WEATHER_API_ERROR, e.getErrorCode());
+        }
+
+        //when
+        DiaryException e = assertThrows(DiaryException.class, () -> client.getCurrentWeather("seoul",
+                in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8)));
+
+        //then
+        assertEquals(ErrorCode.WEATHER_API_UNAVAILABLE, e.getErrorCode());
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+        assertEquals(1, meterRegistry.get("weather.api.circuit.rejected").tag("endpoint", "current").counter().count());
+    }
+
+    @Test
+    @DisplayName("현재 날씨 circuit 이 열려도 날씨 기록은 조회한다")
+    void separateCircuitPerEndpoint() {
+        //given
+        for (int i = 0; i < 3; i++) {
+            assertThrows(DiaryException.class, () -> client.getCurrentWeather("down",
+                    in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8)));
+        }
+
+        //when
+        String history = client.getHistoricalWeather("seoul", LocalDate.of(2023, 9, 1),
+                in -> StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+
+        //then
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getHistoryCircuitState());
+        assertTrue(history.contains("list"));
+    }
+}
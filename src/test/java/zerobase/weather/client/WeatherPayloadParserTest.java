@@ -0,0 +1,89 @@
+package zerobase.weather.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.exception.DiaryException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherPayloadParserTest {
+    private final WeatherPayloadParser parser = new WeatherPayloadParser();
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("openweathermap 응답에서 기온/날씨/아이콘 추출")
+    void parse() throws Exception {
+        //given
+        String json = "{\"coord\":{\"lon\":126.9778,\"lat\":37.5683},"
+                + "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\",\"icon\":\"01d\"},"
+                + "{\"id\":701,\"main\":\"Mist\",\"icon\":\"50d\"}],"
+                + "\"base\":\"stations\",\"main\":{\"temp\":27.3,\"feels_like\":29.1,\"humidity\":70},"
+                + "\"name\":\"Seoul\",\"cod\":200}";
+
+        //when
+        WeatherSnapshot snapshot = parser.parse(new ByteArrayInputStream(bytes(json)));
+
+        //then
+        assertEquals("Clear", snapshot.getWeather());
+        assertEquals("01d", snapshot.getIcon());
+        assertEquals(27.3, snapshot.getTemperature());
+    }
+
+    @Test
+    @DisplayName("기온이 정수로 와도 파싱")
+    void parseIntegerTemperature() throws Exception {
+        //given
+        String json = "{\"main\":{\"temp\":21},\"weather\":[{\"main\":\"Rain\",\"icon\":\"10d\"}]}";
+
+        //when
+        WeatherSnapshot snapshot = parser.parse(bytes(json));
+
+        //then
+        assertEquals(21.0, snapshot.getTemperature());
+        assertEquals("Rain", snapshot.getWeather());
+    }
+
+    @Test
+    @DisplayName("필요한 값이 없으면 예외")
+    void parseMissingField() {
+        //given
+        String json = "{\"cod\":\"401\",\"message\":\"Invalid API key\",\"weather\":[]}";
+
+        //when
+        //then
+        assertThrows(DiaryException.class, () -> parser.parse(bytes(json)));
+    }
+
+    @Test
+    @DisplayName("history 응답의 첫번째 기록 추출")
+    void parseHistory() throws Exception {
+        //given
+        String json = "{\"message\":\"Count: 2\",\"cod\":\"200\",\"city_id\":1835848,\"cnt\":2,"
+                + "\"list\":[{\"dt\":1690891200,\"main\":{\"temp\":30.1,\"humidity\":60},"
+                + "\"weather\":[{\"id\":500,\"main\":\"Rain\",\"icon\":\"10d\"}]},"
+                + "{\"dt\":1690894800,\"main\":{\"temp\":29.0},"
+                + "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"icon\":\"01d\"}]}]}";
+
+        //when
+        WeatherSnapshot snapshot = parser.parseHistory(new ByteArrayInputStream(bytes(json)));
+
+        //then
+        assertEquals("Rain", snapshot.getWeather());
+        assertEquals("10d", snapshot.getIcon());
+        assertEquals(30.1, snapshot.getTemperature());
+    }
+
+    @Test
+    @DisplayName("history 기록이 없으면 예외")
+    void parseEmptyHistory() {
+        assertThrows(DiaryException.class,
+                () -> parser.parseHistory(new ByteArrayInputStream(bytes("{\"cnt\":0,\"list\":[]}"))));
+    }
+}
@@ -2,25 +2,46 @@ package zerobase.weather.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import zerobase.weather.dto.CreateDiary;
+import zerobase.weather.dto.DeleteDiary;
+import zerobase.weather.dto.DiaryCursor;
 import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryPage;
+import zerobase.weather.dto.DiaryVersion;
+import zerobase.weather.dto.UpdateDiary;
+import zerobase.weather.service.AsyncDiaryWriter;
+import zerobase.weather.service.DiaryBulkDeleter;
 import zerobase.weather.service.DiaryService;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,6 +52,12 @@ class DiaryControllerTest {
     @MockBean
     private DiaryService diaryService;
 
+    @MockBean
+    private DiaryBulkDeleter diaryBulkDeleter;
+
+    @MockBean
+    private AsyncDiaryWriter asyncDiaryWriter;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -47,21 +74,137 @@ class DiaryControllerTest {
                 .text("Hi")
                 .build();
 
-        given(diaryService.createDiary(any(), anyString())).willReturn(diary);
+        given(asyncDiaryWriter.createDiary(any(), anyString(), any()))
+                .willReturn(CompletableFuture.completedFuture(diary));
 
         //when
-        //then
-        mockMvc.perform(post("/create/diary")
+        MvcResult result = mockMvc.perform(post("/create/diary")
                         .content(objectMapper.writeValueAsString(
                                 new CreateDiary.CreateDiaryRequest(diary.getText())
                         ))
                         .param("date", String.valueOf(LocalDate.now()))
                         .contentType(MediaType.APPLICATION_JSON)
-                ).andExpect(status().isOk())
+                ).andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$.date").value(String.valueOf(LocalDate.now())))
                 .andDo(print());
     }
 
+    @Nested
+    @TestPropertySource(properties = "diary.async.enabled=false")
+    class SyncCreate {
+        @Test
+        @DisplayName("일기 작성 - 비동기 처리를 끄면 thread pool 없이 요청 thread 에서 저장")
+        void createDiaryWithoutPool() throws Exception {
+            //given
+            given(diaryService.createDiary(any(), anyString())).willReturn(DiaryDto.builder()
+                    .id(1)
+                    .date(LocalDate.now())
+                    .text("Hi")
+                    .build());
+
+            //when
+            MvcResult result = mockMvc.perform(post("/create/diary")
+                            .content(objectMapper.writeValueAsString(new CreateDiary.CreateDiaryRequest("Hi")))
+                            .param("date", String.valueOf(LocalDate.now()))
+                            .contentType(MediaType.APPLICATION_JSON)
+                    ).andReturn();
+
+            //then
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.date").value(String.valueOf(LocalDate.now())))
+                    .andDo(print());
+            verify(diaryService).createDiary(any(), eq("Hi"));
+            verify(asyncDiaryWriter, never()).createDiary(any(), anyString(), any());
+        }
+    }
+
+    @Test
+    @DisplayName("일기 작성 - 처리 대기열이 가득 차면 503")
+    void createDiaryRejected() throws Exception {
+        //given
+        given(asyncDiaryWriter.createDiary(any(), anyString(), any()))
+                .willThrow(new RejectedExecutionException("queue full"));
+
+        //when
+        //then
+        mockMvc.perform(post("/create/diary")
+                        .content(objectMapper.writeValueAsString(new CreateDiary.CreateDiaryRequest("Hi")))
+                        .param("date", String.valueOf(LocalDate.now()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errorCode").value("SERVER_BUSY"))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("일기 작성 - 시간 초과로 503 을 내려준 요청은 저장하지 않도록 표시")
+    void createDiaryTimeout() throws Exception {
+        //given
+        ArgumentCaptor<BooleanSupplier> expired = ArgumentCaptor.forClass(BooleanSupplier.class);
+        given(asyncDiaryWriter.createDiary(any(), anyString(), expired.capture()))
+                .willReturn(new CompletableFuture<>());
+        MvcResult result = mockMvc.perform(post("/create/diary")
+                        .content(objectMapper.writeValueAsString(new CreateDiary.CreateDiaryRequest("Hi")))
+                        .param("date", String.valueOf(LocalDate.now()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andExpect(request().asyncStarted())
+                .andReturn();
+        boolean expiredBeforeTimeout = expired.getValue().getAsBoolean();
+
+        //when
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        //then
+        assertFalse(expiredBeforeTimeout);
+        assertTrue(expired.getValue().getAsBoolean());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errorCode").value("SERVER_BUSY"));
+    }
+
+    @Test
+    @DisplayName("일기 여러 건 작성")
+    void createDiaries() throws Exception {
+        //given
+        List<DiaryDto> diaryDtoList = Arrays.asList(
+                DiaryDto.builder()
+                        .id(1)
+                        .date(LocalDate.of(2023, 8, 1))
+                        .text("Hello")
+                        .weather("Clear")
+                        .build(),
+                DiaryDto.builder()
+                        .id(2)
+                        .date(LocalDate.of(2023, 8, 2))
+                        .text("World")
+                        .weather("Rain")
+                        .build()
+        );
+        given(diaryService.createDiaries(anyList())).willReturn(diaryDtoList);
+
+        //when
+        //then
+        mockMvc.perform(post("/create/diaries")
+                        .content(objectMapper.writeValueAsString(new CreateDiary.CreateDiariesRequest(Arrays.asList(
+                                new CreateDiary.DiaryEntry(LocalDate.of(2023, 8, 1), "Hello"),
+                                new CreateDiary.DiaryEntry(LocalDate.of(2023, 8, 2), "World")
+                        ))))
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].date").value("2023-08-01"))
+                .andExpect(jsonPath("$[1].weather").value("Rain"))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("일기 조회")
     void readDiary() throws Exception {
@@ -91,7 +234,8 @@ class DiaryControllerTest {
                         .build()
         );
 
-        given(diaryService.readDiary(any())).willReturn(diaryDtoList);
+        given(diaryService.readDiary(any(), any())).willReturn(diaryDtoList);
+        given(diaryService.getDiaryVersion(any())).willReturn(new DiaryVersion("diary-1"));
 
         //when
         //then
@@ -103,7 +247,23 @@ class DiaryControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].icon").value("Sunny"))
                 .andExpect(jsonPath("$[0].weather").value("Sunny"))
-                .andExpect(jsonPath("$[0].temperature").value(String.valueOf(0.0)));
+                .andExpect(jsonPath("$[0].temperature").value(25d));
+    }
+
+    @Test
+    @DisplayName("일기 조회 - 바뀐 것이 없으면 조회 없이 304")
+    void readDiaryNotModified() throws Exception {
+        //given
+        given(diaryService.getDiaryVersion(any())).willReturn(new DiaryVersion("diary-2023-09-01-7"));
+
+        //when
+        //then
+        mockMvc.perform(get("/read/diary?date=2023-09-01")
+                        .header("If-None-Match", "\"diary-2023-09-01-7\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"diary-2023-09-01-7\""));
+        verify(diaryService, never()).readDiary(any(), any());
     }
 
     @Test
@@ -136,7 +296,8 @@ class DiaryControllerTest {
                         .weather("")
                         .build()
         );
-        given(diaryService.readDiaries(any(), any())).willReturn(diaryDtoList);
+        given(diaryService.readDiaries(any(), any(), any())).willReturn(diaryDtoList);
+        given(diaryService.getDiariesVersion(any(), any())).willReturn(new DiaryVersion("diaries-1"));
 
         //when
         //then
@@ -151,6 +312,38 @@ class DiaryControllerTest {
                 .andExpect(jsonPath("$[0].temperature").value(0d));
     }
 
+    @Test
+    @DisplayName("일기 기간 페이지 조회")
+    void readDiaryPage() throws Exception {
+        //given
+        List<DiaryDto> diaryDtoList = Arrays.asList(
+                DiaryDto.builder()
+                        .text("Hello")
+                        .date(LocalDate.of(2021, 8, 1))
+                        .id(1)
+                        .weather("Cloudy")
+                        .build(),
+                DiaryDto.builder()
+                        .text("World")
+                        .date(LocalDate.of(2022, 8, 2))
+                        .id(2)
+                        .weather("")
+                        .build()
+        );
+        String nextCursor = DiaryCursor.after(diaryDtoList.get(1)).encode();
+        given(diaryService.readDiaryPage(any(), any(), any(), anyInt()))
+                .willReturn(new DiaryPage(diaryDtoList, nextCursor));
+
+        //when
+        //then
+        mockMvc.perform(get("/read/diaries/page?startDate=2020-01-01&endDate=2023-08-31&size=2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diaries[0].text").value("Hello"))
+                .andExpect(jsonPath("$.diaries[1].date").value("2022-08-02"))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+    }
+
     @Test
     @DisplayName("일기 내용 수정")
     void updateDiary() throws Exception {
@@ -211,6 +404,39 @@ class DiaryControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    @DisplayName("일기 글 여러 건 수정")
+    void updateDiaries() throws Exception {
+        //given
+        given(diaryService.updateDiaries(anyList())).willReturn(Arrays.asList(
+                DiaryDto.builder()
+                        .id(1)
+                        .date(LocalDate.of(2023, 8, 1))
+                        .text("Hello!")
+                        .weather("Clear")
+                        .build(),
+                DiaryDto.builder()
+                        .id(5)
+                        .date(LocalDate.of(2023, 8, 2))
+                        .text("World!")
+                        .weather("Rain")
+                        .build()
+        ));
+
+        //when
+        //then
+        mockMvc.perform(put("/update/diaries")
+                        .content(objectMapper.writeValueAsString(new UpdateDiary.UpdateDiariesRequest(Arrays.asList(
+                                new UpdateDiary.DiaryEntry(LocalDate.of(2023, 8, 1), "Hello!"),
+                                new UpdateDiary.DiaryEntry(LocalDate.of(2023, 8, 2), "World!")
+                        ))))
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Hello!"))
+                .andExpect(jsonPath("$[1].id").value(5))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("해당 날짜 일기 모두 삭제")
     void deleteDiary() throws Exception {
@@ -242,6 +468,7 @@ class DiaryControllerTest {
         );
 
         given(diaryService.readDiary(any())).willReturn(diaryDtoList);
+        given(diaryService.deleteDiary(any())).willReturn(diaryDtoList.size());
         //when
         //then
         mockMvc.perform(delete("/delete/diary")
@@ -249,6 +476,30 @@ class DiaryControllerTest {
                         .param("date", String.valueOf(testDate)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.result").value("삭제 완료"))
+                .andExpect(jsonPath("$.deletedCount").value(3))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("기간 일기 삭제")
+    void deleteDiaries() throws Exception {
+        //given
+        given(diaryBulkDeleter.deleteBetween(any(), any()))
+                .willReturn(DeleteDiary.DeleteDiariesResponse.builder()
+                        .startDate(LocalDate.of(2023, 1, 1))
+                        .endDate(LocalDate.of(2023, 12, 31))
+                        .deletedCount(2500)
+                        .chunkCount(3)
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(delete("/delete/diaries")
+                        .param("startDate", "2023-01-01")
+                        .param("endDate", "2023-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedCount").value(2500))
+                .andExpect(jsonPath("$.chunkCount").value(3))
                 .andDo(print());
     }
 }
\ No newline at end of file
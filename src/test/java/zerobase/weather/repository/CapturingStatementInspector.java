@@ -0,0 +1,32 @@
+package zerobase.weather.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * hibernate 가 실행하는 SQL 을 모아두는 테스트용 inspector.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+    private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        statements.clear();
+    }
+
+    static List<String> drain() {
+        synchronized (statements) {
+            List<String> captured = new ArrayList<>(statements);
+            statements.clear();
+            return captured;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package zerobase.weather.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import zerobase.weather.domain.DateWeatherId;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.DiaryDto;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 일기 조회/삭제 쿼리가 full table scan 으로 바뀌지 않았는지 H2 의 실행 계획으로 확인한다.
+ * 마이그레이션 스크립트로 만든 스키마(인덱스 포함)에서 실제 hibernate 가 만든 SQL 을 EXPLAIN 한다.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "zerobase.weather.repository.CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DiaryQueryPlanTest {
+    private static final LocalDate TEST_DATE = LocalDate.of(2023, 8, 15);
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        List<Diary> diaries = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            diaries.add(Diary.builder()
+                    .date(LocalDate.of(2023, 8, 1).plusDays(i % 30))
+                    .text("diary " + i)
+                    .weather("Clear")
+                    .icon("01d")
+                    .temperature(25)
+                    .build());
+        }
+        diaryRepository.saveAll(diaries);
+        entityManager.flush();
+        entityManager.clear();
+        CapturingStatementInspector.clear();
+    }
+
+    @Test
+    @DisplayName("날짜 조회는 인덱스 사용")
+    void findAllByDate() throws Exception {
+        diaryRepository.findAllByDate(TEST_DATE);
+
+        assertUsesIndex(single(), TEST_DATE);
+    }
+
+    @Test
+    @DisplayName("기간 조회는 인덱스 사용")
+    void findAllByDateBetween() throws Exception {
+        diaryRepository.findAllByDateBetween(TEST_DATE, TEST_DATE.plusDays(3));
+
+        assertUsesIndex(single(), TEST_DATE, TEST_DATE.plusDays(3));
+    }
+
+    @Test
+    @DisplayName("날짜 projection 조회는 인덱스 사용")
+    void findAllDtoByDate() throws Exception {
+        List<DiaryDto> diaries = diaryRepository.findAllDtoByDate(TEST_DATE);
+
+        assertFalse(diaries.isEmpty());
+        assertUsesIndex(single(), TEST_DATE);
+    }
+
+    @Test
+    @DisplayName("기간 projection 조회는 인덱스 사용")
+    void findAllDtoByDateBetween() throws Exception {
+        diaryRepository.findAllDtoByDateBetween(TEST_DATE, TEST_DATE.plusDays(3));
+
+        assertUsesIndex(single(), TEST_DATE, TEST_DATE.plusDays(3));
+    }
+
+    @Test
+    @DisplayName("날짜의 첫번째 일기 조회는 인덱스 사용")
+    void getFirstByDate() throws Exception {
+        diaryRepository.getFirstByDate(TEST_DATE);
+
+        assertUsesIndex(single(), TEST_DATE, 1);
+    }
+
+    @Test
+    @DisplayName("첫번째 일기를 잠그고 기본키로 수정")
+    void lockFirstAndUpdateTextById() throws Exception {
+        DiaryDto first = diaryRepository.lockFirstDtoByDate(TEST_DATE).orElseThrow(IllegalStateException::new);
+        String lock = single();
+        int updated = diaryRepository.updateTextById(first.getId(), "updated");
+        String update = single();
+
+        assertEquals(TEST_DATE, first.getDate());
+        assertEquals(1, updated);
+        assertTrue(lock.toLowerCase().contains("for update"), lock);
+        assertUsesIndex(lock, TEST_DATE);
+        assertUsesIndex(update, "updated", first.getId());
+    }
+
+    @Test
+    @DisplayName("날짜별 첫번째 일기는 날짜 순서로 잠금")
+    void lockFirstDtosByDateIn() throws Exception {
+        List<DiaryDto> firsts = diaryRepository.lockFirstDtosByDateIn(
+                Arrays.asList(TEST_DATE.plusDays(1), TEST_DATE, LocalDate.of(2020, 1, 1)));
+
+        assertEquals(2, firsts.size());
+        assertEquals(TEST_DATE, firsts.get(0).getDate());
+        assertEquals(TEST_DATE.plusDays(1), firsts.get(1).getDate());
+        assertUsesIndex(single(), TEST_DATE.plusDays(1), TEST_DATE, LocalDate.of(2020, 1, 1));
+    }
+
+    @Test
+    @DisplayName("keyset 페이지 조회는 인덱스 사용")
+    void findPageAfter() throws Exception {
+        diaryRepository.findPageAfter(TEST_DATE, TEST_DATE.plusDays(3), TEST_DATE, 10, PageRequest.of(0, 20));
+
+        assertUsesIndex(single(), TEST_DATE, TEST_DATE.plusDays(3), TEST_DATE, TEST_DATE, 10, 20);
+    }
+
+    @Test
+    @DisplayName("스트리밍 조회는 인덱스 사용")
+    void streamAllByDateBetween() throws Exception {
+        try (Stream<DiaryDto> diaries = diaryRepository.streamAllByDateBetween(TEST_DATE, TEST_DATE.plusDays(3))) {
+            assertTrue(diaries.count() > 0);
+        }
+
+        assertUsesIndex(single(), TEST_DATE, TEST_DATE.plusDays(3));
+    }
+
+    @Test
+    @DisplayName("날짜 삭제는 delete 한 문장으로 인덱스 사용")
+    void deleteAllByDate() throws Exception {
+        int deleted = diaryRepository.deleteAllByDate(TEST_DATE);
+
+        assertTrue(deleted > 0);
+        assertUsesIndex(single(), TEST_DATE);
+    }
+
+    @Test
+    @DisplayName("기간 삭제 chunk 의 key 조회는 인덱스 사용")
+    void findKeysAfter() throws Exception {
+        diaryRepository.findKeysAfter(TEST_DATE, TEST_DATE.plusDays(3), TEST_DATE, 10, PageRequest.of(0, 20));
+
+        assertUsesIndex(single(), TEST_DATE, TEST_DATE.plusDays(3), TEST_DATE, TEST_DATE, 10, 20);
+    }
+
+    @Test
+    @DisplayName("도시, 날짜별 날씨 조회는 기본키 사용")
+    void findDateWeatherByDate() throws Exception {
+        dateWeatherRepository.findById(new DateWeatherId("seoul", TEST_DATE));
+
+        assertUsesIndex(single(), "seoul", TEST_DATE);
+    }
+
+    private String single() {
+        List<String> statements = CapturingStatementInspector.drain();
+        assertEquals(1, statements.size(), statements::toString);
+        return statements.get(0);
+    }
+
+    private void assertUsesIndex(String sql, Object... params) throws SQLException {
+        String plan = explain(sql, params);
+        assertFalse(plan.toLowerCase().contains("tablescan"), () -> "full table scan : " + plan);
+    }
+
+    private String explain(String sql, Object... params) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
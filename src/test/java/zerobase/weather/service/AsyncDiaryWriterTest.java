@@ -0,0 +1,138 @@
+package zerobase.weather.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.dto.DiaryDto;
+
+import java.time.LocalDate;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AsyncDiaryWriterTest {
+    private static final LocalDate DATE = LocalDate.of(2023, 8, 1);
+
+    private DiaryService diaryService;
+    private AsyncDiaryWriter asyncDiaryWriter;
+
+    @BeforeEach
+    void setUp() {
+        diaryService = mock(DiaryService.class);
+        given(diaryService.mayFetchWeather(DATE)).willReturn(true);
+        // io pool : thread 1, 대기열 1
+        asyncDiaryWriter = new AsyncDiaryWriter(diaryService, 1, 1, 1, 1, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncDiaryWriter.destroy();
+    }
+
+    @Test
+    @DisplayName("날씨 조회 후 저장한 일기를 반환")
+    void createDiary() throws Exception {
+        //given
+        DateWeather dateWeather = DateWeather.builder().city("seoul").date(DATE).weather("Clear").build();
+        given(diaryService.getDateWeather(DATE)).willReturn(dateWeather);
+        given(diaryService.saveDiary(DATE, "Hi", dateWeather))
+                .willReturn(DiaryDto.builder().id(1).date(DATE).weather("Clear").text("Hi").build());
+
+        //when
+        DiaryDto diaryDto = asyncDiaryWriter.createDiary(DATE, "Hi", () -> false).get(5, TimeUnit.SECONDS);
+
+        //then
+        assertEquals("Clear", diaryDto.getWeather());
+        assertEquals("Hi", diaryDto.getText());
+    }
+
+    @Test
+    @DisplayName("날씨 조회 대기열이 가득 차면 바로 거절")
+    void rejectWhenQueueFull() throws Exception {
+        //given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(diaryService.getDateWeather(any())).willAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return DateWeather.builder().city("seoul").date(DATE).weather("Clear").build();
+        });
+        given(diaryService.saveDiary(any(), anyString(), any()))
+                .willReturn(DiaryDto.builder().id(1).date(DATE).build());
+
+        //when
+        CompletableFuture<DiaryDto> running = asyncDiaryWriter.createDiary(DATE, "first", () -> false);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<DiaryDto> queued = asyncDiaryWriter.createDiary(DATE, "second", () -> false);
+
+        //then
+        assertThrows(RejectedExecutionException.class, () -> asyncDiaryWriter.createDiary(DATE, "third", () -> false));
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("날씨 조회 중에 요청이 만료되면 저장하지 않는다")
+    void skipSaveWhenExpired() throws Exception {
+        //given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean expired = new AtomicBoolean();
+        given(diaryService.getDateWeather(any())).willAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return DateWeather.builder().city("seoul").date(DATE).weather("Clear").build();
+        });
+
+        //when
+        CompletableFuture<DiaryDto> future = asyncDiaryWriter.createDiary(DATE, "late", expired::get);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        expired.set(true);
+        release.countDown();
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(5, TimeUnit.SECONDS));
+
+        //then
+        assertTrue(exception.getCause() instanceof CancellationException);
+        verify(diaryService, never()).saveDiary(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("외부 API 를 부르지 않는 날짜는 날씨 조회도 db pool 에서 실행")
+    void lookupOnDbPoolWithoutApi() throws Exception {
+        //given
+        LocalDate pastDate = DATE.minusDays(1);
+        AtomicReference<String> lookupThread = new AtomicReference<>();
+        DateWeather dateWeather = DateWeather.builder().city("seoul").date(pastDate).weather("Clear").build();
+        given(diaryService.getDateWeather(pastDate)).willAnswer(invocation -> {
+            lookupThread.set(Thread.currentThread().getName());
+            return dateWeather;
+        });
+        given(diaryService.saveDiary(pastDate, "Hi", dateWeather))
+                .willReturn(DiaryDto.builder().id(1).date(pastDate).weather("Clear").text("Hi").build());
+
+        //when
+        DiaryDto diaryDto = asyncDiaryWriter.createDiary(pastDate, "Hi", () -> false).get(5, TimeUnit.SECONDS);
+
+        //then
+        assertEquals("Hi", diaryDto.getText());
+        assertTrue(lookupThread.get().startsWith("diary-db-"));
+    }
+}
@@ -0,0 +1,25 @@
+package zerobase.weather.service;
+
+import org.hibernate.BaseSessionEventListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * hibernate 가 실행한 JDBC batch(executeBatch) 수를 세는 테스트용 listener.
+ */
+public class CountingBatchListener extends BaseSessionEventListener {
+    private static final AtomicInteger batches = new AtomicInteger();
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        batches.incrementAndGet();
+    }
+
+    static void clear() {
+        batches.set(0);
+    }
+
+    static int count() {
+        return batches.get();
+    }
+}
@@ -0,0 +1,67 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.dto.CreateDiary;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.repository.DiaryRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 여러 건 저장이 한 건씩 insert 로 풀리지 않고 batch_size 단위 JDBC batch 로 묶이는지 확인한다.
+ * 테스트 설정에는 batch 설정이 없으므로 application.properties 와 같은 값을 넣는다.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + DiaryBatchInsertTest.BATCH_SIZE,
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.session.events.auto=zerobase.weather.service.CountingBatchListener"
+})
+class DiaryBatchInsertTest {
+    static final int BATCH_SIZE = 50;
+    private static final LocalDate START_DATE = LocalDate.of(2023, 7, 1);
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("N 건은 ⌈N / batch_size⌉ 번의 JDBC batch 로 저장한다")
+    void insertInBatches() {
+        //given
+        int count = 120;
+        List<CreateDiary.DiaryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // 지난 날짜라 날씨 API 를 부르지 않고 빈 날씨로 저장한다.
+            entries.add(new CreateDiary.DiaryEntry(START_DATE.plusDays(i % 10), "diary " + i));
+        }
+        CountingBatchListener.clear();
+
+        //when
+        List<DiaryDto> saved = diaryService.createDiaries(entries);
+
+        //then
+        assertEquals(count, saved.size());
+        assertEquals(count, diaryRepository.count());
+        assertEquals((count + BATCH_SIZE - 1) / BATCH_SIZE, CountingBatchListener.count());
+    }
+}
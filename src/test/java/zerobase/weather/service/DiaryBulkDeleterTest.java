@@ -0,0 +1,63 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.DeleteDiary;
+import zerobase.weather.repository.DiaryRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "diary.delete.chunk-size=3")
+class DiaryBulkDeleterTest {
+    private static final LocalDate START_DATE = LocalDate.of(2023, 8, 1);
+
+    @Autowired
+    private DiaryBulkDeleter diaryBulkDeleter;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        List<Diary> diaries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // 8/1 ~ 8/5 에 하루 2건씩
+            diaries.add(Diary.builder()
+                    .date(START_DATE.plusDays(i / 2))
+                    .text("diary " + i)
+                    .weather("Clear")
+                    .icon("01d")
+                    .build());
+        }
+        diaryRepository.saveAll(diaries);
+    }
+
+    @Test
+    @DisplayName("기간 삭제는 chunk 단위로 나눠서 처리")
+    void deleteBetween() {
+        //when
+        DeleteDiary.DeleteDiariesResponse response =
+                diaryBulkDeleter.deleteBetween(START_DATE.plusDays(1), START_DATE.plusDays(3));
+
+        //then
+        assertEquals(6, response.getDeletedCount());
+        assertEquals(2, response.getChunkCount());
+        assertEquals(4, diaryRepository.count());
+        assertEquals(2, diaryRepository.findAllByDate(START_DATE).size());
+        assertEquals(2, diaryRepository.findAllByDate(START_DATE.plusDays(4)).size());
+    }
+}
@@ -0,0 +1,155 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.event.DiaryChangedEvent;
+import zerobase.weather.repository.DiaryChangeRepository;
+import zerobase.weather.repository.DiaryDateVersionRepository;
+import zerobase.weather.repository.DiaryRepository;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "diary.change.fold.interval-ms=3600000")
+class DiaryChangeTrackerTest {
+    private static final LocalDate DATE = LocalDate.of(2023, 8, 1);
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryChangeTracker diaryChangeTracker;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DiaryChangeRepository diaryChangeRepository;
+
+    @Autowired
+    private DiaryDateVersionRepository diaryDateVersionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        diaryChangeRepository.deleteAll();
+        diaryDateVersionRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("작성, 수정, 삭제할 때마다 날짜와 기간의 ETag 가 바뀜")
+    void versionChangesOnWrite() {
+        //given
+        String empty = diaryService.getDiaryVersion(DATE).getETag();
+
+        //when
+        diaryService.createDiary(DATE, "first");
+        String created = diaryService.getDiaryVersion(DATE).getETag();
+        String createdAgain = diaryService.getDiaryVersion(DATE).getETag();
+        String createdRange = diaryService.getDiariesVersion(DATE.minusDays(3), DATE).getETag();
+        String otherDate = diaryService.getDiaryVersion(DATE.plusDays(1)).getETag();
+        diaryService.updateDiary(DATE, "second");
+        String updated = diaryService.getDiaryVersion(DATE).getETag();
+        String updatedRange = diaryService.getDiariesVersion(DATE.minusDays(3), DATE).getETag();
+        diaryService.deleteDiary(DATE);
+        String deleted = diaryService.getDiaryVersion(DATE).getETag();
+
+        //then
+        assertNotEquals(empty, created);
+        assertEquals(created, createdAgain);
+        assertNotEquals(created, updated);
+        assertNotEquals(createdRange, updatedRange);
+        assertNotEquals(updated, deleted);
+        assertEquals("diary-" + DATE.plusDays(1) + "-0", otherDate);
+    }
+
+    @Test
+    @DisplayName("먼저 시작했지만 늦게 커밋된 변경도 ETag 를 바꿈")
+    void lateCommitChangesVersion() throws Exception {
+        //given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch changed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slowWriter = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    diaryChangeTracker.onDiaryChanged(DiaryChangedEvent.of(DATE));
+                    changed.countDown();
+                    try {
+                        commit.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(changed.await(5, TimeUnit.SECONDS));
+        transactionTemplate.executeWithoutResult(status ->
+                diaryChangeTracker.onDiaryChanged(DiaryChangedEvent.of(DATE.plusDays(1))));
+        String beforeLateCommit = diaryService.getDiariesVersion(DATE, DATE.plusDays(1)).getETag();
+
+        //when
+        commit.countDown();
+        slowWriter.get(5, TimeUnit.SECONDS);
+
+        //then
+        assertNotEquals(beforeLateCommit, diaryService.getDiariesVersion(DATE, DATE.plusDays(1)).getETag());
+    }
+
+    @Test
+    @DisplayName("기간 변경은 기간 안의 날짜 ETag 를 모두 바꾸고 기간 밖은 그대로 둠")
+    void rangeChangeIncreasesVersions() {
+        //given
+        diaryService.createDiary(DATE, "first");
+        diaryService.createDiary(DATE.plusDays(2), "second");
+        String before = diaryService.getDiaryVersion(DATE.plusDays(2)).getETag();
+        String emptyBefore = diaryService.getDiaryVersion(DATE.plusDays(1)).getETag();
+
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                diaryChangeTracker.onDiaryChanged(DiaryChangedEvent.between(DATE, DATE.plusDays(3))));
+
+        //then
+        assertNotEquals(before, diaryService.getDiaryVersion(DATE.plusDays(2)).getETag());
+        assertNotEquals(emptyBefore, diaryService.getDiaryVersion(DATE.plusDays(1)).getETag());
+        assertEquals("diary-" + DATE.plusDays(4) + "-0", diaryService.getDiaryVersion(DATE.plusDays(4)).getETag());
+    }
+
+    @Test
+    @DisplayName("변경 기록을 날짜별 버전에 합쳐도 날짜 ETag 는 그대로임")
+    void foldKeepsVersion() {
+        //given
+        diaryService.createDiary(DATE, "first");
+        diaryService.createDiary(DATE, "second");
+        diaryService.updateDiary(DATE, "third");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                diaryChangeTracker.onDiaryChanged(DiaryChangedEvent.between(DATE, DATE.plusDays(1))));
+        String before = diaryService.getDiaryVersion(DATE).getETag();
+        String nextBefore = diaryService.getDiaryVersion(DATE.plusDays(1)).getETag();
+
+        //when
+        int folded = diaryChangeTracker.foldChanges();
+
+        //then
+        assertEquals(4, folded);
+        assertEquals(0, diaryChangeRepository.count());
+        assertEquals(4, diaryDateVersionRepository.findById(DATE).get().getVersion());
+        assertEquals(before, diaryService.getDiaryVersion(DATE).getETag());
+        assertEquals(nextBefore, diaryService.getDiaryVersion(DATE.plusDays(1)).getETag());
+        assertEquals(0, diaryChangeTracker.foldChanges());
+    }
+}
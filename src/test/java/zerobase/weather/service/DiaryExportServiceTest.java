@@ -0,0 +1,157 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.DiaryExport;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.type.DiaryFileFormat;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "diary.export.chunk-rows=2")
+class DiaryExportServiceTest {
+    @TempDir
+    static Path exportDir;
+
+    @Autowired
+    private DiaryExportService diaryExportService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @DynamicPropertySource
+    static void exportProperties(DynamicPropertyRegistry registry) {
+        registry.add("diary.export.dir", () -> exportDir.toString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        List<Diary> diaries = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            diaries.add(Diary.builder()
+                    .date(LocalDate.of(2023, 9, i))
+                    .weather("Clear")
+                    .icon("01d")
+                    .temperature(20 + i)
+                    .text(i == 1 ? "맑음, \"산책\"\n저녁" : "diary " + i)
+                    .build());
+        }
+        diaryRepository.saveAll(diaries);
+    }
+
+    @Test
+    @DisplayName("chunk 크기만큼 나눈 gzip NDJSON 파일과 checksum 이 있는 manifest 를 만든다")
+    void exportNdjson() throws Exception {
+        //when
+        DiaryExport.Status status = await(diaryExportService.start(DiaryFileFormat.NDJSON));
+        DiaryExport.Manifest manifest = diaryExportService.getExports().get(0);
+
+        //then
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(status.getExportId(), manifest.getExportId());
+        assertEquals(5, manifest.getRowCount());
+        assertEquals(Arrays.asList(2L, 2L, 1L), manifest.getChunks().stream()
+                .map(DiaryExport.Chunk::getRowCount).collect(Collectors.toList()));
+        List<String> lines = new ArrayList<>();
+        for (DiaryExport.Chunk chunk : manifest.getChunks()) {
+            Path file = diaryExportService.getFile(manifest.getExportId(), chunk.getFile());
+            assertEquals(chunk.getBytes(), Files.size(file));
+            assertEquals(chunk.getSha256(), sha256(file));
+            lines.addAll(readGzipLines(file));
+        }
+        assertEquals(5, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("2023-09-01", first.get("date").asText());
+        assertEquals("맑음, \"산책\"\n저녁", first.get("text").asText());
+    }
+
+    @Test
+    @DisplayName("CSV 는 chunk 마다 header 를 넣고 특수문자가 있는 칸을 따옴표로 감싼다")
+    void exportCsv() throws Exception {
+        //when
+        await(diaryExportService.start(DiaryFileFormat.CSV));
+        DiaryExport.Manifest manifest = diaryExportService.getExports().get(0);
+        List<String> lines = readGzipLines(diaryExportService.getFile(manifest.getExportId(),
+                manifest.getChunks().get(0).getFile()));
+
+        //then
+        assertEquals(DiaryExportWriter.CSV_HEADER.trim(), lines.get(0));
+        assertTrue(lines.get(1).endsWith(",2023-09-01,Clear,01d,21.0,false,\"맑음, \"\"산책\"\""));
+        assertEquals("저녁\"", lines.get(2));
+    }
+
+    @Test
+    @DisplayName("manifest 에 없는 파일은 내려주지 않는다")
+    void rejectUnlistedFile() throws Exception {
+        //given
+        DiaryExport.Status status = await(diaryExportService.start(DiaryFileFormat.NDJSON));
+
+        //when
+        DiaryException traversal = assertThrows(DiaryException.class,
+                () -> diaryExportService.getFile(status.getExportId(), "../application.properties"));
+        DiaryException unlisted = assertThrows(DiaryException.class,
+                () -> diaryExportService.getFile(status.getExportId(), "diary-00009.ndjson.gz"));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, traversal.getErrorCode());
+        assertEquals(ErrorCode.NULL_DATA_ERROR, unlisted.getErrorCode());
+    }
+
+    private DiaryExport.Status await(DiaryExport.Status started) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        DiaryExport.Status status = started;
+        while (status.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = diaryExportService.getStatus();
+        }
+        assertNotNull(status.getFinishedAt(), "export did not finish");
+        return status;
+    }
+
+    private static List<String> readGzipLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    private static String sha256(Path file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return String.format("%064x", new BigInteger(1, digest.digest(Files.readAllBytes(file))));
+    }
+}
@@ -0,0 +1,226 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.domain.DiaryImportChunk;
+import zerobase.weather.dto.DiaryImport;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryImportChunkRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.repository.DiaryStatsDayRepository;
+import zerobase.weather.repository.DiaryStatsDeltaRepository;
+import zerobase.weather.type.DiaryFileFormat;
+import zerobase.weather.type.ErrorCode;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "diary.import.chunk-rows=2",
+        "diary.import.threads=2"
+})
+class DiaryImportServiceTest {
+    @TempDir
+    static Path importDir;
+
+    @Autowired
+    private DiaryImportService diaryImportService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DiaryImportChunkRepository diaryImportChunkRepository;
+
+    @Autowired
+    private DiaryStatsDayRepository diaryStatsDayRepository;
+
+    @Autowired
+    private DiaryStatsDeltaRepository diaryStatsDeltaRepository;
+
+    @Autowired
+    private StatsService statsService;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @DynamicPropertySource
+    static void importProperties(DynamicPropertyRegistry registry) {
+        registry.add("diary.import.dir", () -> importDir.toString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        diaryImportChunkRepository.deleteAll();
+        diaryStatsDayRepository.deleteAll();
+        diaryStatsDeltaRepository.deleteAll();
+        dateWeatherRepository.insertAllIfAbsent(Collections.singletonList(DateWeather.builder()
+                .city("seoul")
+                .date(LocalDate.of(2023, 9, 1))
+                .weather("Clear")
+                .icon("01d")
+                .temperature(25.0)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("검증을 통과한 행만 날씨와 함께 저장하고 실패한 행은 보고한다")
+    void importNdjson() throws Exception {
+        //given
+        upload("users.ndjson",
+                "{\"date\":\"2023-09-01\",\"text\":\"diary 1\"}\n" +
+                "{\"date\":\"2023-09-01\",\"text\":\"diary 2\"}\n" +
+                "\n" +
+                "{\"date\":\"2023-13-01\",\"text\":\"wrong date\"}\n" +
+                "{\"date\":\"2023-09-02\",\"text\":\"diary 3\"}\n" +
+                "not json\n");
+
+        //when
+        DiaryImport.Status status = await(diaryImportService.start("users.ndjson", null, null));
+
+        //then
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(5, status.getReadRecords());
+        assertEquals(3, status.getImportedRows());
+        assertEquals(2, status.getRejectedRows());
+        assertEquals(3, status.getCompletedChunks());
+        assertEquals(3, status.getErrors().get(0).getRecord());
+        assertEquals(5, status.getErrors().get(1).getRecord());
+
+        List<Diary> september1 = diaryRepository.findAllByDate(LocalDate.of(2023, 9, 1));
+        assertEquals(2, september1.size());
+        assertEquals("Clear", september1.get(0).getWeather());
+        assertEquals("", diaryRepository.findAllByDate(LocalDate.of(2023, 9, 2)).get(0).getWeather());
+        statsService.foldDiaryCounts();
+        assertEquals(2, diaryStatsDayRepository.findById(LocalDate.of(2023, 9, 1)).get().getDiaryCount());
+        // 예약한 id 와 겹치지 않게 hibernate 로도 저장된다.
+        diaryRepository.save(Diary.builder().date(LocalDate.of(2023, 9, 3)).text("after import")
+                .weather("").icon("").build());
+        assertEquals(4, diaryRepository.count());
+    }
+
+    @Test
+    @DisplayName("같은 importId 로 다시 실행하면 저장된 구간은 건너뛴다")
+    void resume() throws Exception {
+        //given
+        upload("users.csv", "id,date,text\n" +
+                "1,2023-09-01,\"첫 줄\n둘째 줄, \"\"인용\"\"\"\n" +
+                "2,2023-09-01,diary 2\n" +
+                "3,2023-09-02,diary 3\n");
+        await(diaryImportService.start("users.csv", DiaryFileFormat.CSV, "migration-1"));
+        // 마지막 구간이 저장되지 않고 멈춘 상황
+        diaryImportChunkRepository.deleteById(new DiaryImportChunk.Key("migration-1", 1));
+        diaryRepository.deleteAll(diaryRepository.findAllByDate(LocalDate.of(2023, 9, 2)));
+
+        //when
+        DiaryImport.Status resumed = await(diaryImportService.start("users.csv", null, "migration-1"));
+
+        //then
+        assertEquals(1, resumed.getSkippedChunks());
+        assertEquals(1, resumed.getCompletedChunks());
+        assertEquals(3, resumed.getImportedRows());
+        assertEquals(3, diaryRepository.count());
+        assertTrue(diaryRepository.findAllByDate(LocalDate.of(2023, 9, 1)).stream()
+                .anyMatch(diary -> diary.getText().equals("첫 줄\n둘째 줄, \"인용\"")));
+    }
+
+    @Test
+    @DisplayName("importId 를 생략하면 같은 이름으로 다시 올린 파일은 처음부터 가져온다")
+    void reimportReplacedFile() throws Exception {
+        //given
+        upload("users.ndjson", "{\"date\":\"2023-09-01\",\"text\":\"diary 1\"}\n");
+        DiaryImport.Status first = await(diaryImportService.start("users.ndjson", null, null));
+
+        //when
+        upload("users.ndjson", "{\"date\":\"2023-09-01\",\"text\":\"diary 1\"}\n" +
+                "{\"date\":\"2023-09-02\",\"text\":\"diary 2\"}\n");
+        DiaryImport.Status second = await(diaryImportService.start("users.ndjson", null, null));
+
+        //then
+        assertNotEquals(first.getImportId(), second.getImportId());
+        assertEquals(0, second.getSkippedChunks());
+        assertEquals(2, second.getImportedRows());
+        assertEquals(3, diaryRepository.count());
+    }
+
+    @Test
+    @DisplayName("같은 importId 라도 파일이 바뀌었으면 이어서 가져오지 않는다")
+    void rejectChangedFile() throws Exception {
+        //given
+        upload("users.ndjson", "{\"date\":\"2023-09-01\",\"text\":\"diary 1\"}\n");
+        await(diaryImportService.start("users.ndjson", null, "migration-1"));
+        upload("users.ndjson", "{\"date\":\"2023-09-02\",\"text\":\"diary 2 (changed)\"}\n");
+
+        //when
+        DiaryException exception = assertThrows(DiaryException.class,
+                () -> diaryImportService.start("users.ndjson", null, "migration-1"));
+
+        //then
+        assertEquals(ErrorCode.IMPORT_NOT_RESUMABLE, exception.getErrorCode());
+        assertEquals(1, diaryRepository.count());
+    }
+
+    @Test
+    @DisplayName("구간 크기가 이전 실행과 다르면 이어서 가져오지 않는다")
+    void rejectChangedChunkRows() throws Exception {
+        //given
+        upload("users.ndjson", "{\"date\":\"2023-09-01\",\"text\":\"diary 1\"}\n" +
+                "{\"date\":\"2023-09-01\",\"text\":\"diary 2\"}\n" +
+                "{\"date\":\"2023-09-02\",\"text\":\"diary 3\"}\n" +
+                "{\"date\":\"2023-09-02\",\"text\":\"diary 4\"}\n");
+        // chunk-rows=3 으로 첫 구간을 저장한 기록 (파일 정보가 없던 이전 기록)
+        diaryImportChunkRepository.save(DiaryImportChunk.builder()
+                .importId("migration-1")
+                .chunkNo(0)
+                .firstRecord(1)
+                .recordCount(3)
+                .importedCount(3)
+                .completedAt(LocalDateTime.now())
+                .build());
+
+        //when
+        DiaryException exception = assertThrows(DiaryException.class,
+                () -> diaryImportService.start("users.ndjson", null, "migration-1"));
+
+        //then
+        assertEquals(ErrorCode.IMPORT_NOT_RESUMABLE, exception.getErrorCode());
+    }
+
+    private void upload(String file, String content) throws Exception {
+        diaryImportService.upload(file, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private DiaryImport.Status await(DiaryImport.Status started) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        DiaryImport.Status status = started;
+        while (status.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = diaryImportService.getStatus();
+        }
+        assertNotNull(status.getFinishedAt(), "import did not finish");
+        return status;
+    }
+}
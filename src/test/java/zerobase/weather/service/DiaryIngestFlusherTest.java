@@ -0,0 +1,207 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.DiaryIngestEntry;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "diary.ingest.enabled=true",
+        "diary.ingest.flush-interval-ms=50"
+})
+class DiaryIngestFlusherTest {
+    private static final LocalDate DATE = LocalDate.of(2023, 8, 1);
+    private static final long SEGMENT_BYTES = 1 << 20;
+
+    @TempDir
+    static Path ingestDir;
+
+    @Autowired
+    private DiaryIngestLog diaryIngestLog;
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DateWeatherCache dateWeatherCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @DynamicPropertySource
+    static void ingestProperties(DynamicPropertyRegistry registry) {
+        registry.add("diary.ingest.dir", () -> ingestDir.resolve("app").toString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        dateWeatherCache.invalidateAll();
+        dateWeatherRepository.save(DateWeather.builder()
+                .city("seoul")
+                .date(DATE)
+                .weather("Clear")
+                .icon("01d")
+                .temperature(21.5)
+                .build());
+    }
+
+    @Test
+    @DisplayName("접수된 일기를 날씨와 함께 DB 에 반영")
+    void flushIngestedDiaries() throws Exception {
+        //given
+        List<CompletableFuture<Long>> accepted = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accepted.add(diaryIngestLog.append(DATE, "diary " + i));
+        }
+        for (CompletableFuture<Long> future : accepted) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        //when
+        long deadline = System.currentTimeMillis() + 5000;
+        while (diaryIngestLog.unflushedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        //then
+        List<Diary> diaries = diaryRepository.findAllByDate(DATE);
+        assertEquals(0, diaryIngestLog.unflushedCount());
+        assertEquals(20, diaries.size());
+        assertTrue(diaries.stream().allMatch(diary -> "Clear".equals(diary.getWeather())));
+        assertTrue(diaries.stream().allMatch(diary -> diary.getIngestId() != null));
+    }
+
+    @Test
+    @DisplayName("이미 저장된 접수 번호는 다시 저장하지 않음")
+    void skipAlreadySavedEntries() {
+        //given
+        DateWeather dateWeather = diaryService.getDateWeather(DATE);
+        List<DiaryIngestEntry> entries = Arrays.asList(
+                new DiaryIngestEntry(Long.MAX_VALUE - 1, DATE, "first"),
+                new DiaryIngestEntry(Long.MAX_VALUE, DATE, "second"));
+
+        //when
+        int first = diaryService.saveIngestedDiaries(entries, Collections.singletonMap(DATE, dateWeather));
+        int replayed = diaryService.saveIngestedDiaries(entries, Collections.singletonMap(DATE, dateWeather));
+
+        //then
+        assertEquals(2, first);
+        assertEquals(0, replayed);
+        assertEquals(2, diaryRepository.findAllByDate(DATE).size());
+    }
+
+    @Test
+    @DisplayName("두 서버의 log 가 같은 DB 에 반영해도 접수 번호가 겹치지 않음")
+    void twoLogsShareDatabase() throws Exception {
+        //given
+        // 다른 서버의 log. 처음 여는 디렉토리라 순번이 다시 1 부터 시작한다.
+        DiaryIngestLog otherLog = new DiaryIngestLog(objectMapper, ingestDir.resolve("other").toString(), 100,
+                SEGMENT_BYTES, diaryRepository, new SimpleMeterRegistry());
+        List<CompletableFuture<Long>> accepted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accepted.add(diaryIngestLog.append(DATE, "app " + i));
+            accepted.add(otherLog.append(DATE, "other " + i));
+        }
+        List<Long> ingestIds = new ArrayList<>();
+        for (CompletableFuture<Long> future : accepted) {
+            ingestIds.add(future.get(5, TimeUnit.SECONDS));
+        }
+
+        //when
+        List<DiaryIngestEntry> otherEntries = otherLog.peekUnflushed(100);
+        int otherSaved = diaryService.saveIngestedDiaries(otherEntries,
+                Collections.singletonMap(DATE, diaryService.getDateWeather(DATE)));
+        otherLog.markFlushed(otherEntries.get(otherEntries.size() - 1).getId());
+        otherLog.destroy();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (diaryIngestLog.unflushedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        //then
+        assertEquals(10, new HashSet<>(ingestIds).size());
+        assertEquals(5, otherSaved);
+        assertEquals(10, diaryRepository.findAllByDate(DATE).size());
+    }
+
+    @Test
+    @DisplayName("500자를 넘는 일기는 접수하지 않음")
+    void rejectTooLongText() {
+        //given
+        String text = String.join("", Collections.nCopies(501, "가"));
+
+        //when
+        DiaryException exception = assertThrows(DiaryException.class, () -> diaryIngestLog.append(DATE, text));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("DB 가 거부하는 접수는 dead-letter 로 옮기고 나머지는 반영")
+    void deadLetterRejectedEntry() throws Exception {
+        //given
+        // 검증이 없던 때 기록된 log. 두번째 일기는 text 열보다 길다.
+        Path dir = Files.createDirectories(ingestDir.resolve("legacy"));
+        String tooLong = String.join("", Collections.nCopies(501, "가"));
+        Files.write(dir.resolve("diary-ingest.log"), Arrays.asList(
+                "{\"id\":1,\"date\":\"2023-08-01\",\"text\":\"legacy 1\"}",
+                "{\"id\":2,\"date\":\"2023-08-01\",\"text\":\"" + tooLong + "\"}",
+                "{\"id\":3,\"date\":\"2023-08-01\",\"text\":\"legacy 3\"}"), StandardCharsets.UTF_8);
+        DiaryIngestLog legacyLog = new DiaryIngestLog(objectMapper, dir.toString(), 100, SEGMENT_BYTES,
+                diaryRepository, new SimpleMeterRegistry());
+        DiaryIngestFlusher flusher = new DiaryIngestFlusher(legacyLog, diaryService, 500);
+
+        //when
+        flusher.flush();
+        legacyLog.destroy();
+
+        //then
+        List<String> deadLetters = Files.readAllLines(dir.resolve("diary-ingest.dead"), StandardCharsets.UTF_8);
+        assertEquals(0, legacyLog.unflushedCount());
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("\"id\":2,"));
+        assertEquals(2, diaryRepository.findAllByDate(DATE).size());
+    }
+}
@@ -0,0 +1,184 @@
+package zerobase.weather.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import zerobase.weather.dto.DiaryIngestEntry;
+import zerobase.weather.repository.DiaryRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class DiaryIngestLogTest {
+    private static final LocalDate DATE = LocalDate.of(2023, 8, 1);
+    // log 를 열 때마다 epoch 1, 2, ... 를 받는다.
+    private static final long EPOCH_1 = 1L << 32;
+    private static final long EPOCH_2 = 2L << 32;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicLong epochs = new AtomicLong();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("재시작하면 DB 에 반영되지 않은 접수만 다시 읽음")
+    void replayUnflushedEntries() throws Exception {
+        //given
+        DiaryIngestLog ingestLog = open();
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(EPOCH_1 + i, ingestLog.append(DATE, "diary " + i).get(5, TimeUnit.SECONDS));
+        }
+        ingestLog.markFlushed(EPOCH_1 + 2);
+        ingestLog.destroy();
+
+        //when
+        DiaryIngestLog reopened = open();
+        List<DiaryIngestEntry> unflushed = reopened.peekUnflushed(10);
+        long nextId = reopened.append(DATE, "diary 4").get(5, TimeUnit.SECONDS);
+        reopened.destroy();
+
+        //then
+        assertEquals(1, unflushed.size());
+        assertEquals(EPOCH_1 + 3, unflushed.get(0).getId());
+        assertEquals("diary 3", unflushed.get(0).getText());
+        assertEquals(DATE, unflushed.get(0).getDate());
+        assertEquals(EPOCH_2 + 1, nextId);
+    }
+
+    @Test
+    @DisplayName("segment 크기를 넘으면 새 segment 에 쓰고, 모두 반영된 segment 는 지움")
+    void rollAndDeleteFlushedSegments() throws Exception {
+        //given
+        DiaryIngestLog ingestLog = open(1);
+        for (int i = 1; i <= 3; i++) {
+            ingestLog.append(DATE, "diary " + i).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(3, segments().size());
+
+        //when
+        ingestLog.markFlushed(EPOCH_1 + 2);
+        List<Path> remaining = segments();
+        ingestLog.destroy();
+        DiaryIngestLog reopened = open(1);
+        List<DiaryIngestEntry> unflushed = reopened.peekUnflushed(10);
+        reopened.destroy();
+
+        //then
+        assertEquals(Collections.singletonList(dir.resolve("diary-ingest-" + (EPOCH_1 + 3) + ".log")), remaining);
+        assertEquals(1, unflushed.size());
+        assertEquals(EPOCH_1 + 3, unflushed.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("다시 열 때 모두 반영된 segment 는 읽지 않고 지움")
+    void skipFlushedSegmentsOnReplay() throws Exception {
+        //given
+        DiaryIngestLog ingestLog = open(1);
+        for (int i = 1; i <= 3; i++) {
+            ingestLog.append(DATE, "diary " + i).get(5, TimeUnit.SECONDS);
+        }
+        ingestLog.destroy();
+        Files.write(dir.resolve("diary-ingest.offset"),
+                String.valueOf(EPOCH_1 + 2).getBytes(StandardCharsets.UTF_8));
+
+        //when
+        DiaryIngestLog reopened = open(1);
+        List<DiaryIngestEntry> unflushed = reopened.peekUnflushed(10);
+        reopened.destroy();
+
+        //then
+        assertEquals(1, segments().size());
+        assertEquals(1, unflushed.size());
+        assertEquals(EPOCH_1 + 3, unflushed.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("모두 반영된 뒤 다시 열면 새 epoch 의 접수 번호를 씀")
+    void newEpochAfterDrained() throws Exception {
+        //given
+        DiaryIngestLog ingestLog = open();
+        ingestLog.append(DATE, "diary 1").get(5, TimeUnit.SECONDS);
+        ingestLog.append(DATE, "diary 2").get(5, TimeUnit.SECONDS);
+
+        //when
+        ingestLog.markFlushed(EPOCH_1 + 2);
+        ingestLog.destroy();
+        DiaryIngestLog reopened = open();
+        long nextId = reopened.append(DATE, "diary 3").get(5, TimeUnit.SECONDS);
+        reopened.destroy();
+
+        //then
+        assertEquals(EPOCH_2 + 1, nextId);
+    }
+
+    @Test
+    @DisplayName("쓰다 만 마지막 줄은 버림")
+    void discardTornTail() throws Exception {
+        //given
+        DiaryIngestLog ingestLog = open();
+        ingestLog.append(DATE, "diary 1").get(5, TimeUnit.SECONDS);
+        ingestLog.destroy();
+        Files.write(segments().get(0), "{\"id\":2,\"da".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        //when
+        DiaryIngestLog reopened = open();
+        List<DiaryIngestEntry> unflushed = reopened.peekUnflushed(10);
+        long nextId = reopened.append(DATE, "diary 2").get(5, TimeUnit.SECONDS);
+        reopened.destroy();
+
+        //then
+        assertEquals(1, unflushed.size());
+        assertEquals(EPOCH_2 + 1, nextId);
+    }
+
+    @Test
+    @DisplayName("log 가 DB 의 epoch 보다 앞서 있으면 열지 않음")
+    void rejectLogAheadOfEpoch() throws Exception {
+        //given
+        DiaryIngestLog ingestLog = open();
+        ingestLog.append(DATE, "diary 1").get(5, TimeUnit.SECONDS);
+        ingestLog.markFlushed(EPOCH_1 + 1);
+        ingestLog.destroy();
+
+        //when
+        epochs.set(0);
+
+        //then
+        assertThrows(IllegalStateException.class, this::open);
+    }
+
+    private DiaryIngestLog open() throws Exception {
+        return open(1 << 20);
+    }
+
+    private DiaryIngestLog open(long segmentBytes) throws Exception {
+        DiaryRepository diaryRepository = mock(DiaryRepository.class);
+        given(diaryRepository.reserveIngestEpoch()).willAnswer(invocation -> epochs.incrementAndGet());
+        return new DiaryIngestLog(objectMapper, dir.toString(), 100, segmentBytes, diaryRepository,
+                new SimpleMeterRegistry());
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().matches("diary-ingest-\\d+\\.log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package zerobase.weather.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.DiaryVersion;
+import zerobase.weather.dto.SearchDiary;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 한 번도 복제되지 않는 replica 를 붙여서, 커밋 직후의 값을 읽어야 하는 곳이 primary 에서 읽는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "diary.datasource.routing.enabled=true",
+        "diary.datasource.read-your-writes-ms=0"
+})
+class DiaryReplicaRoutingTest {
+    private static final String REPLICA_URL =
+            "jdbc:h2:mem:lagging-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final LocalDate DATE = LocalDate.of(2023, 9, 1);
+
+    @Autowired
+    private DiarySearchService diarySearchService;
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DateWeatherCache dateWeatherCache;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        registry.add("diary.datasource.replica-urls", () -> REPLICA_URL);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        dateWeatherCache.invalidateAll();
+        dateWeatherRepository.save(DateWeather.builder()
+                .city("seoul")
+                .date(DATE)
+                .weather("Clear")
+                .icon("01d")
+                .temperature(20.0)
+                .build());
+        diarySearchService.rebuild().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("색인은 replica 가 따라오지 않아도 primary 에서 다시 읽어서 갱신된다")
+    void indexFromPrimary() throws Exception {
+        //given
+        diaryService.createDiary(DATE, "한강에서 자전거를 탔다");
+
+        //when
+        long deadline = System.currentTimeMillis() + 5000;
+        SearchDiary.SearchDiaryResponse response = diarySearchService.search("자전거", null, null, null, 10);
+        while (response.getTotalHits() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            response = diarySearchService.search("자전거", null, null, null, 10);
+        }
+
+        //then
+        assertEquals(1, response.getTotalHits());
+    }
+
+    @Test
+    @DisplayName("ETag 는 primary 기준이고, replica 가 그 버전보다 늦으면 목록도 primary 에서 읽는다")
+    void versionAndBodyFromPrimary() {
+        //given
+        DiaryVersion before = diaryService.getDiaryVersion(DATE);
+        diaryService.createDiary(DATE, "한강에서 자전거를 탔다");
+
+        //when
+        DiaryVersion after = diaryService.getDiaryVersion(DATE);
+        List<DiaryDto> diaries = diaryService.readDiary(DATE, after);
+        DiaryException fromReplica = assertThrows(DiaryException.class, () -> diaryService.readDiary(DATE));
+
+        //then
+        assertNotEquals(before.getETag(), after.getETag());
+        assertEquals(1, diaries.size());
+        assertEquals(ErrorCode.NULL_LIST_ERROR, fromReplica.getErrorCode());
+    }
+}
@@ -0,0 +1,198 @@
+package zerobase.weather.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.SearchDiary;
+import zerobase.weather.event.DiaryChangedEvent;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class DiarySearchServiceTest {
+    private static final LocalDate RAINY_DAY = LocalDate.of(2023, 9, 1);
+    private static final LocalDate CLEAR_DAY = LocalDate.of(2023, 9, 2);
+
+    @Autowired
+    private DiarySearchService diarySearchService;
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DateWeatherCache dateWeatherCache;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        dateWeatherCache.invalidateAll();
+        dateWeatherRepository.save(dateWeather(RAINY_DAY, "Rain"));
+        dateWeatherRepository.save(dateWeather(CLEAR_DAY, "Clear"));
+        diarySearchService.rebuild().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("형태소 단위로 검색하고 날짜와 날씨로 거른다")
+    void searchKoreanText() {
+        //given
+        diaryService.createDiary(RAINY_DAY, "비가 와서 집에서 책을 읽었다");
+        diaryService.createDiary(CLEAR_DAY, "오늘은 친구와 한강 공원에서 자전거를 탔다");
+
+        //when
+        SearchDiary.SearchDiaryResponse bicycle = awaitSearch(
+                () -> diarySearchService.search("자전거", null, null, null, 10), response -> response.getTotalHits() == 1);
+        SearchDiary.SearchDiaryResponse rainyBook = diarySearchService.search("책", RAINY_DAY, RAINY_DAY, "Rain", 10);
+        SearchDiary.SearchDiaryResponse clearBook = diarySearchService.search("책", null, null, "Clear", 10);
+        SearchDiary.SearchDiaryResponse outOfRange = diarySearchService.search("자전거", RAINY_DAY, RAINY_DAY, null, 10);
+
+        //then
+        assertEquals(CLEAR_DAY, bicycle.getHits().get(0).getDate());
+        assertEquals("Clear", bicycle.getHits().get(0).getWeather());
+        assertEquals(1, rainyBook.getTotalHits());
+        assertEquals(0, clearBook.getTotalHits());
+        assertEquals(0, outOfRange.getTotalHits());
+    }
+
+    @Test
+    @DisplayName("수정, 삭제한 일기는 검색 결과에 반영된다")
+    void reflectUpdateAndDelete() {
+        //given
+        diaryService.createDiary(CLEAR_DAY, "오늘은 친구와 한강 공원에서 자전거를 탔다");
+        awaitSearch(() -> diarySearchService.search("자전거", null, null, null, 10),
+                response -> response.getTotalHits() == 1);
+
+        //when
+        diaryService.updateDiary(CLEAR_DAY, "오늘은 도서관에서 공부를 했다");
+        SearchDiary.SearchDiaryResponse afterUpdate = awaitSearch(
+                () -> diarySearchService.search("도서관", null, null, null, 10), response -> response.getTotalHits() == 1);
+        SearchDiary.SearchDiaryResponse oldText = diarySearchService.search("자전거", null, null, null, 10);
+        diaryService.deleteDiary(CLEAR_DAY);
+        SearchDiary.SearchDiaryResponse afterDelete = awaitSearch(
+                () -> diarySearchService.search("도서관", null, null, null, 10), response -> response.getTotalHits() == 0);
+
+        //then
+        assertEquals(1, afterUpdate.getTotalHits());
+        assertEquals(0, oldText.getTotalHits());
+        assertEquals(0, afterDelete.getTotalHits());
+    }
+
+    @Test
+    @DisplayName("재생성하면 DB 의 모든 일기가 색인된다")
+    void rebuild() throws Exception {
+        //given
+        diaryService.createDiary(RAINY_DAY, "비가 와서 집에서 책을 읽었다");
+        diaryService.createDiary(CLEAR_DAY, "한강에서 자전거를 탔다");
+
+        //when
+        SearchDiary.RebuildResponse rebuilt = diarySearchService.rebuild().get(10, TimeUnit.SECONDS);
+        SearchDiary.SearchDiaryResponse found = diarySearchService.search("자전거", null, null, null, 10);
+
+        //then
+        assertEquals(2, rebuilt.getIndexedCount());
+        assertEquals(1, found.getTotalHits());
+    }
+
+    @Test
+    @DisplayName("검색어가 비어 있으면 실패")
+    void searchWithoutQuery() {
+        //when
+        DiaryException exception = assertThrows(DiaryException.class,
+                () -> diarySearchService.search(" ", null, null, null, 10));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("DB 오류로 반영하지 못한 날짜는 잠시 뒤에 다시 색인한다")
+    void retryFailedReindex() throws Exception {
+        //given
+        DiaryRepository failingRepository = mock(DiaryRepository.class);
+        given(failingRepository.findAllDtoByDate(CLEAR_DAY))
+                .willThrow(new QueryTimeoutException("db down"))
+                .willReturn(Collections.singletonList(DiaryDto.builder()
+                        .id(1)
+                        .date(CLEAR_DAY)
+                        .text("한강에서 자전거를 탔다")
+                        .weather("Clear")
+                        .icon("01d")
+                        .build()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DiarySearchIndex index = new DiarySearchIndex("");
+        DiarySearchService retryingService = new DiarySearchService(index, failingRepository,
+                mock(DiaryChangeTracker.class), mock(PlatformTransactionManager.class), 50, meterRegistry);
+
+        try {
+            //when
+            retryingService.onDiaryChanged(DiaryChangedEvent.of(CLEAR_DAY));
+            SearchDiary.SearchDiaryResponse response = awaitSearch(
+                    () -> retryingService.search("자전거", null, null, null, 10), found -> found.getTotalHits() == 1);
+
+            //then
+            assertEquals(1, response.getTotalHits());
+            assertEquals(1, meterRegistry.get("diary.search.reindex.failures").counter().count());
+        } finally {
+            retryingService.destroy();
+            index.destroy();
+        }
+    }
+
+    // 색인은 커밋 후 별도 thread 에서 갱신되므로 결과가 반영될 때까지 기다린다.
+    private static SearchDiary.SearchDiaryResponse awaitSearch(Supplier<SearchDiary.SearchDiaryResponse> search,
+                                                               Predicate<SearchDiary.SearchDiaryResponse> done) {
+        long deadline = System.currentTimeMillis() + 5000;
+        SearchDiary.SearchDiaryResponse response = search.get();
+        while (!done.test(response) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            response = search.get();
+        }
+        return response;
+    }
+
+    private static DateWeather dateWeather(LocalDate date, String weather) {
+        return DateWeather.builder()
+                .city("seoul")
+                .date(date)
+                .weather(weather)
+                .icon("01d")
+                .temperature(20.0)
+                .build();
+    }
+}
@@ -0,0 +1,181 @@
+package zerobase.weather.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Slf4j
+@SpringBootTest
+class DiaryServiceConcurrencyTest {
+    private static final int WRITERS = 64;
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DateWeatherCache dateWeatherCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        dateWeatherCache.invalidateAll();
+        given(weatherApiClient.getCurrentWeather(anyString(), any()))
+                .willReturn(new WeatherSnapshot("Clear", "01d", 21.5));
+    }
+
+    @Test
+    @DisplayName("같은 날짜에 64개 동시 작성 - 실패 없이 모두 저장되고 날씨는 한번만 저장")
+    void parallelWritersOnSameDate() throws Exception {
+        //given
+        LocalDate today = LocalDate.now();
+
+        //when
+        Result result = runWriters(i -> diaryService.createDiary(today, "diary " + i));
+
+        //then
+        log.info("default isolation : {} writes in {} ms, {} failures",
+                WRITERS, result.elapsedMillis, result.failures);
+        assertEquals(0, result.failures);
+        assertEquals(WRITERS, diaryRepository.findAllByDate(today).size());
+        assertEquals(1, dateWeatherRepository.findAllByDate(today).size());
+        verify(weatherApiClient, times(1)).getCurrentWeather(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("같은 날짜 작성 트랜잭션이 커밋되기 전에도 다른 작성은 기다리지 않는다")
+    void sameDateWritersAreNotSerialized() throws Exception {
+        //given
+        LocalDate date = LocalDate.of(2023, 8, 3);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> heldWriter = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    diaryService.createDiary(date, "held");
+                    written.countDown();
+                    try {
+                        commit.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+
+        //when
+        // 날짜 집계나 버전 행을 같은 트랜잭션에서 갱신하면 여기서 held 가 커밋될 때까지 기다린다.
+        CompletableFuture<Void> otherWriter = CompletableFuture.runAsync(() ->
+                diaryService.createDiary(date, "other"));
+        otherWriter.get(5, TimeUnit.SECONDS);
+        boolean heldStillOpen = !heldWriter.isDone();
+        commit.countDown();
+        heldWriter.get(5, TimeUnit.SECONDS);
+
+        //then
+        assertTrue(heldStillOpen);
+        assertEquals(2, diaryRepository.findAllByDate(date).size());
+    }
+
+    @Test
+    @DisplayName("SERIALIZABLE 트랜잭션과 처리 시간 비교")
+    void compareWithSerializable() throws Exception {
+        //given
+        LocalDate serializableDate = LocalDate.of(2023, 8, 1);
+        LocalDate defaultDate = LocalDate.of(2023, 8, 2);
+        TransactionTemplate serializable = new TransactionTemplate(transactionManager);
+        serializable.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+
+        //when
+        Result before = runWriters(i -> serializable.executeWithoutResult(
+                status -> diaryService.createDiary(serializableDate, "diary " + i)));
+        Result after = runWriters(i -> diaryService.createDiary(defaultDate, "diary " + i));
+
+        //then
+        log.info("serializable : {} ms, {} failures / default isolation : {} ms, {} failures",
+                before.elapsedMillis, before.failures, after.elapsedMillis, after.failures);
+        assertEquals(0, after.failures);
+        assertEquals(WRITERS, diaryRepository.findAllByDate(defaultDate).size());
+    }
+
+    private Result runWriters(IntConsumer writer) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    writer.accept(index);
+                } catch (RuntimeException e) {
+                    log.warn("write failed : {}", e.toString());
+                    failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                failures.incrementAndGet();
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        executor.shutdown();
+        return new Result(elapsedMillis, failures.get());
+    }
+
+    private static class Result {
+        private final long elapsedMillis;
+        private final int failures;
+
+        private Result(long elapsedMillis, int failures) {
+            this.elapsedMillis = elapsedMillis;
+            this.failures = failures;
+        }
+    }
+}
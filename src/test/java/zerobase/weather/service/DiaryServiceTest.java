@@ -30,6 +30,12 @@ class DiaryServiceTest {
     @MockBean
     private DiaryService diaryService;
 
+    @MockBean
+    private DiaryBulkDeleter diaryBulkDeleter;
+
+    @MockBean
+    private AsyncDiaryWriter asyncDiaryWriter;
+
     @MockBean
     private DateWeatherRepository dateWeatherRepository;
 
@@ -0,0 +1,124 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.DiaryDto;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class StaleWeatherRefresherTest {
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private StaleWeatherRefresher staleWeatherRefresher;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DateWeatherCache dateWeatherCache;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        dateWeatherCache.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("provider 장애 중에는 마지막 날씨로 저장하고, 복구되면 보정")
+    void serveStaleWeatherAndRefresh() {
+        //given
+        LocalDate today = LocalDate.now();
+        dateWeatherRepository.save(DateWeather.builder()
+                .city("seoul")
+                .date(today.minusDays(1))
+                .weather("Clouds")
+                .icon("04d")
+                .temperature(18.0)
+                .build());
+        given(weatherApiClient.getCurrentWeather(anyString(), any()))
+                .willThrow(new DiaryException(ErrorCode.WEATHER_API_UNAVAILABLE));
+
+        //when
+        DiaryDto created = diaryService.createDiary(today, "stale diary");
+        staleWeatherRefresher.refresh(); // 아직 장애 중이라 보정하지 않는다
+        List<Diary> whileDown = diaryRepository.findAllByDate(today);
+        given(weatherApiClient.getCurrentWeather(anyString(), any()))
+                .willReturn(new WeatherSnapshot("Clear", "01d", 25.0));
+        staleWeatherRefresher.refresh();
+        List<Diary> recovered = diaryRepository.findAllByDate(today);
+
+        //then
+        assertEquals("Clouds", created.getWeather());
+        assertTrue(created.isWeatherStale());
+        assertTrue(whileDown.get(0).isWeatherStale());
+        assertEquals("Clear", recovered.get(0).getWeather());
+        assertEquals(25.0, recovered.get(0).getTemperature());
+        assertFalse(recovered.get(0).isWeatherStale());
+        assertTrue(diaryRepository.findRefreshableStaleDates("seoul", today).isEmpty());
+    }
+
+    @Test
+    @DisplayName("지난 날짜는 날씨가 저장될 때까지 건너뛰고, 저장되면 보정")
+    void skipPastDateWithoutWeather() {
+        //given
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        diaryRepository.save(Diary.builder()
+                .date(yesterday)
+                .text("stale diary")
+                .weather("Clouds")
+                .icon("04d")
+                .temperature(18.0)
+                .weatherStale(true)
+                .build());
+
+        //when
+        List<LocalDate> beforeBackfill = diaryRepository.findRefreshableStaleDates("seoul", LocalDate.now());
+        staleWeatherRefresher.refresh();
+        dateWeatherRepository.save(DateWeather.builder()
+                .city("seoul")
+                .date(yesterday)
+                .weather("Rain")
+                .icon("10d")
+                .temperature(15.0)
+                .build());
+        staleWeatherRefresher.refresh();
+        List<Diary> repaired = diaryRepository.findAllByDate(yesterday);
+
+        //then
+        assertTrue(beforeBackfill.isEmpty());
+        verify(weatherApiClient, never()).getCurrentWeather(anyString(), any());
+        assertEquals("Rain", repaired.get(0).getWeather());
+        assertFalse(repaired.get(0).isWeatherStale());
+    }
+}
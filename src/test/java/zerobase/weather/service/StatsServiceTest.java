@@ -0,0 +1,181 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import zerobase.weather.cache.DateWeatherCache;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.dto.DiaryStats;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.repository.DiaryStatsDayRepository;
+import zerobase.weather.repository.DiaryStatsDeltaRepository;
+import zerobase.weather.repository.WeatherStatsMonthRepository;
+import zerobase.weather.type.StatsUnit;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "stats.fold.interval-ms=3600000")
+class StatsServiceTest {
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DiaryStatsDayRepository diaryStatsDayRepository;
+
+    @Autowired
+    private DiaryStatsDeltaRepository diaryStatsDeltaRepository;
+
+    @Autowired
+    private WeatherStatsMonthRepository weatherStatsMonthRepository;
+
+    @Autowired
+    private DateWeatherCache dateWeatherCache;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        diaryStatsDayRepository.deleteAll();
+        diaryStatsDeltaRepository.deleteAll();
+        weatherStatsMonthRepository.deleteAll();
+        dateWeatherCache.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("날씨와 일기를 저장하면 월 통계가 같이 갱신된다")
+    void monthlyStats() {
+        //given
+        dateWeatherRepository.insertAllIfAbsent(Arrays.asList(
+                dateWeather(LocalDate.of(2023, 9, 1), "Clear", 25.0),
+                dateWeather(LocalDate.of(2023, 9, 2), "Rain", 19.0),
+                dateWeather(LocalDate.of(2023, 9, 3), "Clear", 22.0),
+                dateWeather(LocalDate.of(2023, 10, 1), "Clouds", 15.0)));
+        diaryService.createDiary(LocalDate.of(2023, 9, 1), "diary 1");
+        diaryService.createDiary(LocalDate.of(2023, 9, 1), "diary 2");
+        diaryService.createDiary(LocalDate.of(2023, 9, 2), "diary 3");
+        diaryService.createDiary(LocalDate.of(2023, 10, 1), "diary 4");
+        diaryService.deleteDiary(LocalDate.of(2023, 10, 1));
+
+        //when
+        DiaryStats.StatsResponse stats = statsService.getStats(StatsUnit.MONTH,
+                LocalDate.of(2023, 9, 15), LocalDate.of(2023, 10, 15), null);
+
+        //then
+        assertEquals(2, stats.getBuckets().size());
+        DiaryStats.Bucket september = stats.getBuckets().get(0);
+        assertEquals("2023-09", september.getPeriod());
+        assertEquals(3, september.getWeatherDays());
+        assertEquals(22.0, september.getAverageTemperature(), 1e-9);
+        assertEquals(19.0, september.getMinTemperature());
+        assertEquals(25.0, september.getMaxTemperature());
+        assertEquals(2, september.getWeatherCounts().get("Clear"));
+        assertEquals(3, september.getDiaryCount());
+        assertEquals(2, september.getDiaryDays());
+        assertEquals(3.0 / 30, september.getDiariesPerDay(), 1e-9);
+        DiaryStats.Bucket october = stats.getBuckets().get(1);
+        assertEquals(0, october.getDiaryCount());
+        assertEquals(15.0, october.getMaxTemperature());
+    }
+
+    @Test
+    @DisplayName("쌓인 증감을 날짜별 집계에 합쳐도 통계는 그대로다")
+    void foldDiaryCounts() {
+        //given
+        LocalDate date = LocalDate.of(2023, 9, 1);
+        diaryService.createDiary(date, "diary 1");
+        diaryService.createDiary(date, "diary 2");
+        diaryService.createDiary(date.plusDays(1), "diary 3");
+        diaryService.deleteDiary(date.plusDays(1));
+        long before = statsService.getStats(StatsUnit.MONTH, date, date, null).getBuckets().get(0).getDiaryCount();
+
+        //when
+        int folded = statsService.foldDiaryCounts();
+
+        //then
+        assertEquals(4, folded);
+        assertEquals(0, diaryStatsDeltaRepository.count());
+        assertEquals(2, diaryStatsDayRepository.findById(date).get().getDiaryCount());
+        assertEquals(0, diaryStatsDayRepository.findById(date.plusDays(1)).get().getDiaryCount());
+        assertEquals(2, before);
+        DiaryStats.Bucket september = statsService.getStats(StatsUnit.MONTH, date, date, null).getBuckets().get(0);
+        assertEquals(2, september.getDiaryCount());
+        assertEquals(1, september.getDiaryDays());
+        assertEquals(0, statsService.foldDiaryCounts());
+    }
+
+    @Test
+    @DisplayName("날씨를 덮어쓰면 최고 기온도 다시 계산된다")
+    void upsertRecalculatesMonth() {
+        //given
+        dateWeatherRepository.insertAllIfAbsent(Arrays.asList(
+                dateWeather(LocalDate.of(2023, 9, 1), "Clear", 30.0),
+                dateWeather(LocalDate.of(2023, 9, 2), "Rain", 19.0)));
+
+        //when
+        dateWeatherRepository.upsertAll(Collections.singletonList(
+                dateWeather(LocalDate.of(2023, 9, 1), "Clouds", 20.0)));
+        DiaryStats.Bucket year = statsService.getStats(StatsUnit.YEAR,
+                LocalDate.of(2023, 9, 1), LocalDate.of(2023, 9, 1), "seoul").getBuckets().get(0);
+
+        //then
+        assertEquals("2023", year.getPeriod());
+        assertEquals(LocalDate.of(2023, 12, 31), year.getEndDate());
+        assertEquals(20.0, year.getMaxTemperature());
+        assertNull(year.getWeatherCounts().get("Clear"));
+        assertEquals(1, year.getWeatherCounts().get("Clouds"));
+    }
+
+    @Test
+    @DisplayName("재계산하면 원본 테이블과 같은 통계가 된다")
+    void rebuild() {
+        //given
+        dateWeatherRepository.insertAllIfAbsent(Collections.singletonList(
+                dateWeather(LocalDate.of(2023, 9, 1), "Clear", 25.0)));
+        diaryService.createDiary(LocalDate.of(2023, 9, 1), "diary 1");
+        diaryService.createDiary(LocalDate.of(2023, 9, 1), "diary 2");
+        diaryStatsDayRepository.deleteAll();
+        weatherStatsMonthRepository.deleteAll();
+
+        //when
+        DiaryStats.RebuildResponse rebuilt = statsService.rebuild();
+        DiaryStats.Bucket september = statsService.getStats(StatsUnit.MONTH,
+                LocalDate.of(2023, 9, 1), LocalDate.of(2023, 9, 30), null).getBuckets().get(0);
+
+        //then
+        assertEquals(1, rebuilt.getDiaryDays());
+        assertEquals(1, rebuilt.getWeatherBuckets());
+        assertEquals(2, september.getDiaryCount());
+        assertEquals(25.0, september.getAverageTemperature(), 1e-9);
+    }
+
+    private static DateWeather dateWeather(LocalDate date, String weather, double temperature) {
+        return DateWeather.builder()
+                .city("seoul")
+                .date(date)
+                .weather(weather)
+                .icon("01d")
+                .temperature(temperature)
+                .build();
+    }
+}
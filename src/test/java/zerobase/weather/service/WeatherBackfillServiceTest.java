@@ -0,0 +1,132 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import zerobase.weather.client.HistoricalWeatherProvider;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.Diary;
+import zerobase.weather.dto.WeatherBackfillStatus;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.repository.DiaryRepository;
+import zerobase.weather.repository.WeatherBackfillCheckpointRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "openweathermap.cities=seoul,busan",
+        "weather.backfill.threads=4"
+})
+class WeatherBackfillServiceTest {
+    private static final LocalDate START_DATE = LocalDate.of(2023, 7, 30);
+    private static final LocalDate END_DATE = LocalDate.of(2023, 8, 5);
+
+    @Autowired
+    private WeatherBackfillService weatherBackfillService;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private WeatherBackfillCheckpointRepository checkpointRepository;
+
+    @MockBean
+    private HistoricalWeatherProvider historicalWeatherProvider;
+
+    private final AtomicBoolean providerDown = new AtomicBoolean(true);
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        dateWeatherRepository.deleteAll();
+        checkpointRepository.deleteAll();
+
+        dateWeatherRepository.save(DateWeather.builder()
+                .city("seoul")
+                .date(LocalDate.of(2023, 8, 2))
+                .weather("Clouds")
+                .icon("03d")
+                .temperature(26)
+                .build());
+        diaryRepository.save(Diary.builder()
+                .date(LocalDate.of(2023, 8, 3))
+                .text("날씨 없이 저장된 일기")
+                .weather("")
+                .icon("")
+                .build());
+
+        // busan 8/5 는 첫 실행에서만 실패
+        given(historicalWeatherProvider.getWeather(anyString(), any())).willAnswer(invocation -> {
+            String city = invocation.getArgument(0);
+            LocalDate date = invocation.getArgument(1);
+            if (city.equals("busan") && date.equals(END_DATE) && providerDown.get()) {
+                throw new DiaryException(ErrorCode.WEATHER_API_TIMEOUT);
+            }
+            return new WeatherSnapshot("Rain", "10d", date.getDayOfMonth());
+        });
+    }
+
+    @Test
+    @DisplayName("빈 날씨를 채우고 일기를 보정, 다시 실행하면 실패한 구간만 처리")
+    void backfillAndResume() throws Exception {
+        //when
+        WeatherBackfillStatus first = await(weatherBackfillService.start(START_DATE, END_DATE));
+        providerDown.set(false);
+        WeatherBackfillStatus second = await(weatherBackfillService.start(START_DATE, END_DATE));
+
+        //then
+        assertEquals(4, first.getTotalChunks());
+        assertEquals(12, first.getFilledDates());
+        assertEquals(1, first.getFailedDates());
+        assertEquals(1, first.getRepairedDiaries());
+        assertEquals(3, checkpointRepository.count());
+
+        assertEquals(3, second.getSkippedChunks());
+        assertEquals(1, second.getFilledDates());
+        assertEquals(0, second.getFailedDates());
+        assertEquals(4, checkpointRepository.count());
+
+        assertEquals(14, dateWeatherRepository.count());
+        Diary repaired = diaryRepository.findAllByDate(LocalDate.of(2023, 8, 3)).get(0);
+        assertEquals("Rain", repaired.getWeather());
+        assertEquals(3, repaired.getTemperature());
+        // 이미 있던 seoul 8/2 는 다시 가져오지 않음
+        verify(historicalWeatherProvider, times(14)).getWeather(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("오늘 이후 날짜만 요청하면 예외")
+    void rejectFutureRange() {
+        DiaryException e = assertThrows(DiaryException.class,
+                () -> weatherBackfillService.start(LocalDate.now(), LocalDate.now().plusDays(1)));
+        assertEquals(ErrorCode.INVALID_REQUEST, e.getErrorCode());
+    }
+
+    private WeatherBackfillStatus await(WeatherBackfillStatus started) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        WeatherBackfillStatus status = started;
+        while (status.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = weatherBackfillService.getStatus();
+        }
+        assertNotNull(status.getFinishedAt(), "backfill did not finish");
+        return status;
+    }
+}
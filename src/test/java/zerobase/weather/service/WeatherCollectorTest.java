@@ -0,0 +1,88 @@
+package zerobase.weather.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import zerobase.weather.client.WeatherApiClient;
+import zerobase.weather.domain.DateWeather;
+import zerobase.weather.domain.DateWeatherId;
+import zerobase.weather.dto.WeatherSnapshot;
+import zerobase.weather.exception.DiaryException;
+import zerobase.weather.repository.DateWeatherRepository;
+import zerobase.weather.type.ErrorCode;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@SpringBootTest(properties = {
+        "openweathermap.cities=seoul, busan, incheon, daegu",
+        "weather.collect.concurrency=2"
+})
+class WeatherCollectorTest {
+
+    @Autowired
+    private WeatherCollector weatherCollector;
+
+    @Autowired
+    private DateWeatherRepository dateWeatherRepository;
+
+    @MockBean
+    private WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        dateWeatherRepository.deleteAll();
+        given(weatherApiClient.getCurrentWeatherAsync(anyString(), any())).willAnswer(invocation -> {
+            String city = invocation.getArgument(0);
+            if (city.equals("daegu")) {
+                CompletableFuture<WeatherSnapshot> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new DiaryException(ErrorCode.WEATHER_API_TIMEOUT));
+                return failed;
+            }
+            return CompletableFuture.completedFuture(new WeatherSnapshot("Clear", "01d", city.length()));
+        });
+    }
+
+    @Test
+    @DisplayName("모든 도시의 날씨를 모아서 저장하고 실패한 도시는 건너뜀")
+    void collectAll() {
+        //given
+        LocalDate today = LocalDate.now();
+
+        //when
+        int saved = weatherCollector.collectAll();
+
+        //then
+        assertEquals(3, saved);
+        assertEquals(3, dateWeatherRepository.findAllByDate(today).size());
+        DateWeather busan = dateWeatherRepository.findById(new DateWeatherId("busan", today))
+                .orElseThrow(IllegalStateException::new);
+        assertEquals(5, busan.getTemperature());
+        assertFalse(dateWeatherRepository.findById(new DateWeatherId("daegu", today)).isPresent());
+    }
+
+    @Test
+    @DisplayName("다시 수집하면 덮어쓰고 version 증가")
+    void collectAgain() {
+        //given
+        LocalDate today = LocalDate.now();
+        weatherCollector.collectAll();
+
+        //when
+        weatherCollector.collectAll();
+
+        //then
+        DateWeather seoul = dateWeatherRepository.findById(new DateWeatherId("seoul", today))
+                .orElseThrow(IllegalStateException::new);
+        assertEquals(1L, seoul.getVersion());
+        assertEquals(3, dateWeatherRepository.count());
+    }
+}
@@ -0,0 +1,65 @@
+package zerobase.weather.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(2, 1000, now::get);
+
+    @Test
+    @DisplayName("연속 실패가 기준을 넘으면 열림")
+    void openAfterConsecutiveFailures() {
+        //when
+        failOnce();
+        failOnce();
+
+        //then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("열린 시간이 지나면 한 건만 시험 호출, 성공하면 닫힘")
+    void halfOpenTrial() {
+        //given
+        failOnce();
+        failOnce();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        //when
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess();
+
+        //then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("시험 호출이 실패하면 다시 열림")
+    void reopenWhenTrialFails() {
+        //given
+        failOnce();
+        failOnce();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        //when
+        failOnce();
+
+        //then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    private void failOnce() {
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure();
+    }
+}
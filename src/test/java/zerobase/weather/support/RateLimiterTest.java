@@ -0,0 +1,35 @@
+package zerobase.weather.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    @Test
+    @DisplayName("초당 허용 수를 넘는 요청은 간격을 두고 통과")
+    void spaceOutRequests() throws Exception {
+        //given
+        RateLimiter rateLimiter = new RateLimiter(50);
+
+        //when
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            rateLimiter.acquire();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        //then : 첫 요청은 바로, 이후 5번은 20ms 간격
+        assertTrue(elapsedMillis >= 90, () -> "elapsed " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("허용 수는 0 보다 커야 함")
+    void rejectNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0));
+    }
+}
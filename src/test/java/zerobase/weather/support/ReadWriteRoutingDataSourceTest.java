@@ -0,0 +1,135 @@
+package zerobase.weather.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+    private final DataSource primary = node("primary");
+    private final DataSource replica1 = node("replica1");
+    private final DataSource replica2 = node("replica2");
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션은 replica, 나머지는 primary")
+    void routeByReadOnly() {
+        //given
+        DataSource dataSource = routing(new ReadWriteRoutingDataSource(primary,
+                Collections.singletonList(replica1), 1, 0));
+
+        //when
+        String read = nodeName(dataSource, true);
+        String write = nodeName(dataSource, false);
+
+        //then
+        assertEquals("replica1", read);
+        assertEquals("primary", write);
+    }
+
+    @Test
+    @DisplayName("replica 가 여러 개면 돌아가면서 읽는다")
+    void roundRobin() {
+        //given
+        DataSource dataSource = routing(new ReadWriteRoutingDataSource(primary,
+                Arrays.asList(replica1, replica2), 1, 0));
+
+        //when
+        String first = nodeName(dataSource, true);
+        String second = nodeName(dataSource, true);
+        String third = nodeName(dataSource, true);
+
+        //then
+        assertNotEquals(first, second);
+        assertEquals(first, third);
+    }
+
+    @Test
+    @DisplayName("연결할 수 없는 replica 는 건너뛰고, 모두 죽으면 primary 에서 읽는다")
+    void skipUnhealthyReplica() {
+        //given
+        DataSource down = new DriverManagerDataSource("jdbc:unknown:replica");
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary,
+                Arrays.asList(down, replica1), 1, 0);
+        DataSource dataSource = routing(routingDataSource);
+
+        //when
+        routingDataSource.checkReplicas();
+        int healthyCount = routingDataSource.getHealthyReplicaCount();
+        String first = nodeName(dataSource, true);
+        String second = nodeName(dataSource, true);
+        ReadWriteRoutingDataSource allDown = new ReadWriteRoutingDataSource(primary,
+                Collections.singletonList(down), 1, 0);
+        String fallback = nodeName(routing(allDown), true);
+
+        //then
+        assertEquals(1, healthyCount);
+        assertEquals("replica1", first);
+        assertEquals("replica1", second);
+        assertEquals("primary", fallback);
+        assertEquals(0, allDown.getHealthyReplicaCount());
+    }
+
+    @Test
+    @DisplayName("read-your-writes 를 켜면 쓰기 직후의 읽기는 primary")
+    void readYourWrites() {
+        //given
+        DataSource dataSource = routing(new ReadWriteRoutingDataSource(primary,
+                Collections.singletonList(replica1), 1, 60_000));
+        String beforeWrite = nodeName(dataSource, true);
+
+        //when
+        nodeName(dataSource, false);
+        String afterWrite = nodeName(dataSource, true);
+
+        //then
+        assertEquals("replica1", beforeWrite);
+        assertEquals("primary", afterWrite);
+    }
+
+    @Test
+    @DisplayName("readFromPrimary 안의 읽기는 primary 에서 하고, 쓰기로 치지 않는다")
+    void readFromPrimary() {
+        //given
+        DataSource dataSource = routing(new ReadWriteRoutingDataSource(primary,
+                Collections.singletonList(replica1), 1, 60_000));
+
+        //when
+        String pinned = ReadWriteRoutingDataSource.readFromPrimary(() -> nodeName(dataSource, true));
+        String afterPinned = nodeName(dataSource, true);
+
+        //then
+        assertEquals("primary", pinned);
+        assertEquals("replica1", afterPinned);
+    }
+
+    private static DataSource routing(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static String nodeName(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from node", String.class));
+    }
+
+    // 서로 다른 내장 DB. 어느 DB 에서 읽었는지 node 테이블의 이름으로 구분한다.
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(20))");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,98 @@
+package zerobase.weather.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("같은 key 의 동시 호출은 한번만 실행")
+    void coalesceConcurrentCalls() throws Exception {
+        //given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch leaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+
+        Thread leader = new Thread(() -> {
+            String value = singleFlight.execute("seoul:2023-08-01", () -> {
+                invocations.incrementAndGet();
+                leaderEntered.countDown();
+                awaitQuietly(release);
+                return "Clear";
+            });
+            synchronized (results) {
+                results.add(value);
+            }
+        });
+        leader.start();
+        assertTrue(leaderEntered.await(5, TimeUnit.SECONDS));
+
+        //when
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread follower = new Thread(() -> {
+                String value = singleFlight.execute("seoul:2023-08-01", () -> {
+                    invocations.incrementAndGet();
+                    return "Rain";
+                });
+                synchronized (results) {
+                    results.add(value);
+                }
+            });
+            followers.add(follower);
+            follower.start();
+        }
+        // 모든 follower 가 leader 의 결과를 기다리는 상태가 될 때까지 대기
+        for (Thread follower : followers) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (follower.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+        release.countDown();
+        leader.join();
+        for (Thread follower : followers) {
+            follower.join();
+        }
+
+        //then
+        assertEquals(1, invocations.get());
+        assertEquals(9, results.size());
+        assertTrue(results.stream().allMatch("Clear"::equals));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    @DisplayName("실패한 호출은 다음 호출에서 다시 실행")
+    void retryAfterFailure() {
+        //given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        //when
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("seoul:2023-08-01", () -> {
+            throw new IllegalStateException("provider down");
+        }));
+        String value = singleFlight.execute("seoul:2023-08-01", () -> "Clear");
+
+        //then
+        assertEquals("Clear", value);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
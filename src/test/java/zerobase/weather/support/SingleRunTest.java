@@ -0,0 +1,74 @@
+package zerobase.weather.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleRunTest {
+
+    @Test
+    @DisplayName("진행 중인 실행이 있으면 새 실행을 거절하고, 끝나면 받아들인다")
+    void startAfterPreviousFinished() {
+        //given
+        SingleRun<AtomicBoolean> singleRun = new SingleRun<>(AtomicBoolean::get);
+        AtomicBoolean first = new AtomicBoolean(true);
+        AtomicBoolean second = new AtomicBoolean(true);
+
+        //when
+        boolean firstStarted = singleRun.tryStart(first);
+        boolean rejected = singleRun.tryStart(second);
+        first.set(false);
+        boolean secondStarted = singleRun.tryStart(second);
+
+        //then
+        assertTrue(firstStarted);
+        assertFalse(rejected);
+        assertTrue(secondStarted);
+        assertSame(second, singleRun.get());
+    }
+
+    @Test
+    @DisplayName("이전 실행이 끝난 뒤 동시에 시작하면 하나만 성공한다")
+    void concurrentStart() throws Exception {
+        //given
+        SingleRun<AtomicBoolean> singleRun = new SingleRun<>(AtomicBoolean::get);
+        singleRun.tryStart(new AtomicBoolean(false));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return singleRun.tryStart(new AtomicBoolean(true));
+            }));
+        }
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        start.countDown();
+        int started = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                started++;
+            }
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals(1, started);
+        assertTrue(singleRun.get().get());
+    }
+}